@@ -0,0 +1,123 @@
+package com.google.common.eventbus;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * the {@link Subscribe}-methods of a class, found the same way {@link SubscriberRegistry} does it,
+ * but accessible for the registries of the {@link GlobalEventBusImpl}. This is the only place where
+ * classes are scanned for subscriber-methods, the busses in com.vaadin.guice.bus use it as well,
+ * which is why it is public. It is not meant to be used by applications.
+ */
+public final class AnnotatedMethods {
+
+    private static final LoadingCache<Class<?>, ImmutableList<Method>> annotatedMethodsCache = CacheBuilder
+            .newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Class<?>, ImmutableList<Method>>() {
+                @Override
+                public ImmutableList<Method> load(Class<?> clazz) throws Exception {
+                    return getAnnotatedMethodsNotCached(clazz);
+                }
+            });
+
+    private AnnotatedMethods() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a {@link Subscribe}-method does not have exactly one
+     *                                  parameter
+     */
+    public static ImmutableList<Method> of(Class<?> clazz) {
+        try {
+            return annotatedMethodsCache.getUnchecked(clazz);
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * @return the parameter type of the method, primitives wrapped
+     */
+    public static Class<?> eventTypeOf(Method method) {
+        return Primitives.wrap(method.getParameterTypes()[0]);
+    }
+
+    /**
+     * @return the class of the event and all it's super-classes and interfaces, subscribers for any
+     * of these receive the event
+     */
+    public static ImmutableSet<Class<?>> eventTypesOf(Class<?> eventClass) {
+        return SubscriberRegistry.flattenHierarchy(eventClass);
+    }
+
+    private static ImmutableList<Method> getAnnotatedMethodsNotCached(Class<?> clazz) {
+        final Map<MethodIdentifier, Method> identifiers = new HashMap<MethodIdentifier, Method>();
+
+        for (Class<?> supertype : TypeToken.of(clazz).getTypes().rawTypes()) {
+            for (Method method : supertype.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Subscribe.class) && !method.isSynthetic()) {
+                    Class<?>[] parameterTypes = method.getParameterTypes();
+
+                    checkArgument(
+                            parameterTypes.length == 1,
+                            "Method %s has @Subscribe annotation but has %s parameters."
+                                    + "Subscriber methods must have exactly 1 parameter.",
+                            method,
+                            parameterTypes.length
+                    );
+
+                    MethodIdentifier identifier = new MethodIdentifier(method);
+
+                    if (!identifiers.containsKey(identifier)) {
+                        identifiers.put(identifier, method);
+                    }
+                }
+            }
+        }
+
+        return ImmutableList.copyOf(identifiers.values());
+    }
+
+    private static final class MethodIdentifier {
+        private final String name;
+        private final List<Class<?>> parameterTypes;
+
+        MethodIdentifier(Method method) {
+            this.name = method.getName();
+            this.parameterTypes = Arrays.asList(method.getParameterTypes());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(name, parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MethodIdentifier)) {
+                return false;
+            }
+
+            MethodIdentifier that = (MethodIdentifier) o;
+
+            return name.equals(that.name) && parameterTypes.equals(that.parameterTypes);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.google.common.eventbus;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.vaadin.guice.bus.AsyncDispatchConfiguration;
+import com.vaadin.guice.bus.QueueFullPolicy;
+import com.vaadin.guice.server.LatencyHistogram;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * the queues of a {@link GlobalEventBusImpl} that dispatches asynchronously. Every event type is
+ * mapped to one stripe, which consists of a bounded queue and a single thread, so events of the same
+ * type are dispatched in the order they were posted. Once {@link #shutdown()} was called, posts are
+ * rejected with a {@link RejectedExecutionException}, including those that are blocked by {@link
+ * QueueFullPolicy#BLOCK}.
+ */
+final class AsyncPostQueue {
+
+    //how often a post that is blocked by a full queue checks for a shutdown
+    private static final long BLOCK_CHECK_MILLIS = 100;
+
+    private final GlobalEventBusImpl globalEventBus;
+    private final QueueFullPolicy queueFullPolicy;
+    private final Stripe[] stripes;
+    private final Thread[] threads;
+    private final LatencyHistogram dispatchLag = new LatencyHistogram();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private volatile boolean running = true;
+
+    AsyncPostQueue(GlobalEventBusImpl globalEventBus, AsyncDispatchConfiguration configuration) {
+        this.globalEventBus = globalEventBus;
+        this.queueFullPolicy = configuration.getQueueFullPolicy();
+        this.stripes = new Stripe[configuration.getThreads()];
+        this.threads = new Thread[stripes.length];
+
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("global-event-bus-dispatcher-%d")
+                .setDaemon(true)
+                .build();
+
+        //the threads are known before they start, so shutdown() can't miss one
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(configuration.getQueueCapacity());
+            threads[i] = threadFactory.newThread(stripes[i]);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * @param audienceKey see {@link com.vaadin.guice.bus.AudienceEventBus#post(Object, Object)}, null
+     *                    for all subscribers
+     */
+    void post(Object event, Object audienceKey) {
+        checkRunning(event);
+
+        final Stripe stripe = stripes[(event.getClass().hashCode() & Integer.MAX_VALUE) % stripes.length];
+
+        final PendingPost pendingPost = new PendingPost(event, audienceKey, System.nanoTime());
+
+        switch (queueFullPolicy) {
+            case BLOCK:
+                try {
+                    while (!stripe.queue.offer(pendingPost, BLOCK_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                        checkRunning(event);
+                    }
+                } catch (InterruptedException e) {
+                    droppedEvents.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!stripe.queue.offer(pendingPost)) {
+                    if (stripe.queue.poll() != null) {
+                        droppedEvents.incrementAndGet();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                if (!stripe.queue.offer(pendingPost)) {
+                    dispatch(pendingPost);
+                }
+                break;
+            default:
+                throw new IllegalStateException("unknown QueueFullPolicy " + queueFullPolicy);
+        }
+
+        //a shutdown that happened while the event was enqueued leaves nobody to dispatch it
+        if (!running && stripe.queue.remove(pendingPost)) {
+            checkRunning(event);
+        }
+    }
+
+    void shutdown() {
+        running = false;
+
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+
+        //events that are still queued will never be dispatched
+        for (Stripe stripe : stripes) {
+            while (stripe.queue.poll() != null) {
+                droppedEvents.incrementAndGet();
+            }
+        }
+    }
+
+    private void checkRunning(Object event) {
+        if (!running) {
+            throw new RejectedExecutionException("the global event bus is shut down, " + event + " is not dispatched");
+        }
+    }
+
+    int getQueueDepth() {
+        int queueDepth = 0;
+
+        for (Stripe stripe : stripes) {
+            queueDepth += stripe.queue.size();
+        }
+
+        return queueDepth;
+    }
+
+    long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    LatencyHistogram getDispatchLag() {
+        return dispatchLag;
+    }
+
+    private void dispatch(PendingPost pendingPost) {
+        dispatchLag.record(System.nanoTime() - pendingPost.postedAt);
+
+        try {
+            globalEventBus.postNow(pendingPost.event, pendingPost.audienceKey);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "dispatching " + pendingPost.event + " failed", e);
+        }
+    }
+
+    private static final class PendingPost {
+        private final Object event;
+        private final Object audienceKey;
+        private final long postedAt;
+
+        PendingPost(Object event, Object audienceKey, long postedAt) {
+            this.event = event;
+            this.audienceKey = audienceKey;
+            this.postedAt = postedAt;
+        }
+    }
+
+    private final class Stripe implements Runnable {
+        private final BlockingQueue<PendingPost> queue;
+
+        Stripe(int capacity) {
+            queue = new ArrayBlockingQueue<PendingPost>(capacity);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    dispatch(queue.take());
+                } catch (InterruptedException e) {
+                    //shutdown
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.google.common.eventbus;
+
+import com.vaadin.server.VaadinSession;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * which {@link VaadinSession}s belong to which audience, see {@link
+ * com.vaadin.guice.bus.AudienceEventBus#post(Object, Object)}. Joining and leaving are synchronized,
+ * looking up the sessions of an audience is not.
+ */
+final class AudienceIndex {
+
+    private final ConcurrentMap<Object, Set<VaadinSession>> sessionsByAudienceKey = new ConcurrentHashMap<Object, Set<VaadinSession>>();
+    private final ConcurrentMap<VaadinSession, Set<Object>> audienceKeysBySession = new ConcurrentHashMap<VaadinSession, Set<Object>>();
+
+    synchronized void join(VaadinSession vaadinSession, Object audienceKey) {
+        Set<VaadinSession> sessions = sessionsByAudienceKey.get(audienceKey);
+
+        if (sessions == null) {
+            sessions = Collections.newSetFromMap(new ConcurrentHashMap<VaadinSession, Boolean>());
+            sessionsByAudienceKey.put(audienceKey, sessions);
+        }
+
+        sessions.add(vaadinSession);
+
+        Set<Object> audienceKeys = audienceKeysBySession.get(vaadinSession);
+
+        if (audienceKeys == null) {
+            audienceKeys = new HashSet<Object>();
+            audienceKeysBySession.put(vaadinSession, audienceKeys);
+        }
+
+        audienceKeys.add(audienceKey);
+    }
+
+    synchronized void leave(VaadinSession vaadinSession, Object audienceKey) {
+        final Set<Object> audienceKeys = audienceKeysBySession.get(vaadinSession);
+
+        if (audienceKeys != null && audienceKeys.remove(audienceKey)) {
+            if (audienceKeys.isEmpty()) {
+                audienceKeysBySession.remove(vaadinSession);
+            }
+
+            removeSession(audienceKey, vaadinSession);
+        }
+    }
+
+    synchronized void releaseAll(VaadinSession vaadinSession) {
+        final Set<Object> audienceKeys = audienceKeysBySession.remove(vaadinSession);
+
+        if (audienceKeys != null) {
+            for (Object audienceKey : audienceKeys) {
+                removeSession(audienceKey, vaadinSession);
+            }
+        }
+    }
+
+    private void removeSession(Object audienceKey, VaadinSession vaadinSession) {
+        final Set<VaadinSession> sessions = sessionsByAudienceKey.get(audienceKey);
+
+        sessions.remove(vaadinSession);
+
+        if (sessions.isEmpty()) {
+            sessionsByAudienceKey.remove(audienceKey);
+        }
+    }
+
+    Set<VaadinSession> getSessions(Object audienceKey) {
+        final Set<VaadinSession> sessions = sessionsByAudienceKey.get(audienceKey);
+
+        return sessions != null ? sessions : Collections.<VaadinSession>emptySet();
+    }
+}
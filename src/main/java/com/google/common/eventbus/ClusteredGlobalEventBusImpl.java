@@ -0,0 +1,234 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import com.vaadin.guice.bus.EventTransport;
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * a {@link GlobalEventBusImpl} that also publishes every posted event to the other nodes of a
+ * cluster via an {@link EventTransport}. Outgoing events are collected and sent in batches every
+ * {@link #BATCH_INTERVAL_MILLIS}, incoming events are dispatched to the local subscribers only.
+ * Batches that were sent by this node are recognized by the node-id in the envelope and ignored, so
+ * transports that echo do not lead to duplicate deliveries. Events must be {@link Serializable}
+ * to leave the node, as must audience-keys of targeted events, which travel in a {@link
+ * TargetedEvent}. Events and audience-keys must belong to one of the event packages that were
+ * passed to {@link com.vaadin.guice.bus.BusModule#setEventTransport(EventTransport, String...)},
+ * receiving nodes drop batches that contain other classes, see {@link EventBatchCodec}. So events
+ * that are or refer to other classes are dropped and logged when they are posted or sent, the
+ * other events of their batch still reach the cluster.
+ */
+@Singleton
+class ClusteredGlobalEventBusImpl extends GlobalEventBusImpl {
+
+    private static final long BATCH_INTERVAL_MILLIS = 20;
+    private static final int MAX_BATCH_SIZE = 512;
+
+    private final UUID nodeId = UUID.randomUUID();
+    private final AtomicLong batchSequence = new AtomicLong();
+    private final Queue<Serializable> outgoingEvents = new ConcurrentLinkedQueue<Serializable>();
+    private final Set<Class<?>> unsendableEventClasses = Sets.newConcurrentHashSet();
+    private final VaadinService vaadinService;
+    private final EventTransport eventTransport;
+    private final EventBatchCodec eventBatchCodec;
+    private final ScheduledExecutorService batchScheduler;
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    @Inject
+    ClusteredGlobalEventBusImpl(
+            VaadinService vaadinService,
+            Provider<VaadinSession> vaadinSessionProvider,
+            EventTransport eventTransport,
+            @Named("guice_bus_clustered_event_packages") String[] eventPackages
+    ) {
+        super(vaadinService, vaadinSessionProvider);
+
+        this.vaadinService = vaadinService;
+        this.eventTransport = eventTransport;
+        this.eventBatchCodec = new EventBatchCodec(Arrays.asList(eventPackages));
+
+        batchScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("global-event-bus-batcher-%d")
+                        .setDaemon(true)
+                        .build()
+        );
+    }
+
+    /**
+     * starts receiving and sending batches. Guice injects the members of the superclass first, so
+     * this runs after the optional setters of {@link GlobalEventBusImpl}, received events are
+     * dispatched with the final subscriber-registry, async-dispatch configuration and metrics.
+     */
+    @Inject
+    void start() {
+        eventTransport.start(new EventTransport.Receiver() {
+            @Override
+            public void receive(byte[] batch) {
+                onBatchReceived(batch);
+            }
+        });
+
+        batchScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                sendPendingBatches();
+            }
+        }, BATCH_INTERVAL_MILLIS, BATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        vaadinService.addServiceDestroyListener(new ServiceDestroyListener() {
+            @Override
+            public void serviceDestroy(ServiceDestroyEvent event) {
+                batchScheduler.shutdownNow();
+                eventTransport.stop();
+            }
+        });
+    }
+
+    @Override
+    public void post(Object event) {
+        super.post(event);
+
+        if (!(event instanceof Serializable)) {
+            warnOnce(event.getClass(), "{0} is not serializable and will not be sent to other nodes");
+        } else if (!eventBatchCodec.isAllowed(event.getClass().getName())) {
+            warnOnce(event.getClass(), "{0} is not in one of the event packages and will not be sent to other nodes");
+        } else {
+            outgoingEvents.add((Serializable) event);
+        }
+    }
+
+    @Override
+    public void post(Object event, Object audienceKey) {
+        super.post(event, audienceKey);
+
+        if (!(event instanceof Serializable) || !(audienceKey instanceof Serializable)) {
+            warnOnce(event.getClass(), "{0} or it's audience-key is not serializable and will not be sent to other nodes");
+        } else if (!eventBatchCodec.isAllowed(event.getClass().getName()) || !eventBatchCodec.isAllowed(audienceKey.getClass().getName())) {
+            warnOnce(event.getClass(), "{0} or it's audience-key is not in one of the event packages and will not be sent to other nodes");
+        } else {
+            outgoingEvents.add(new TargetedEvent((Serializable) event, (Serializable) audienceKey));
+        }
+    }
+
+    private void warnOnce(Class<?> eventClass, String message) {
+        if (unsendableEventClasses.add(eventClass)) {
+            logger.log(Level.WARNING, message, eventClass);
+        }
+    }
+
+    private void sendPendingBatches() {
+        while (!outgoingEvents.isEmpty()) {
+            final List<Serializable> batch = new ArrayList<Serializable>(Math.min(outgoingEvents.size(), MAX_BATCH_SIZE));
+
+            Serializable event;
+
+            while (batch.size() < MAX_BATCH_SIZE && (event = outgoingEvents.poll()) != null) {
+                batch.add(event);
+            }
+
+            try {
+                send(batch);
+            } catch (InvalidClassException e) {
+                //an event refers to a class outside of the event packages, which would fail the whole batch on the receiving nodes
+                try {
+                    send(withoutUnsendableEvents(batch));
+                } catch (IOException retryException) {
+                    logger.log(Level.SEVERE, "unable to encode a batch of " + batch.size() + " events", retryException);
+                } catch (RuntimeException retryException) {
+                    logger.log(Level.SEVERE, "unable to send a batch of " + batch.size() + " events", retryException);
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "unable to encode a batch of " + batch.size() + " events", e);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "unable to send a batch of " + batch.size() + " events", e);
+            }
+        }
+    }
+
+    private void send(List<Serializable> batch) throws IOException {
+        if (!batch.isEmpty()) {
+            eventTransport.send(eventBatchCodec.encode(nodeId, batchSequence.incrementAndGet(), batch));
+        }
+    }
+
+    private List<Serializable> withoutUnsendableEvents(List<Serializable> batch) throws IOException {
+        final List<Serializable> sendableEvents = new ArrayList<Serializable>(batch.size());
+
+        for (Serializable event : batch) {
+            try {
+                eventBatchCodec.encode(nodeId, 0, Collections.singletonList(event));
+                sendableEvents.add(event);
+            } catch (InvalidClassException e) {
+                final Object unwrappedEvent = event instanceof TargetedEvent ? ((TargetedEvent) event).event : event;
+
+                warnOnce(unwrappedEvent.getClass(), "{0} refers to a class outside of the event packages and will not be sent to other nodes");
+            }
+        }
+
+        return sendableEvents;
+    }
+
+    private void onBatchReceived(byte[] batch) {
+        try {
+            if (nodeId.equals(EventBatchCodec.readNodeId(batch))) {
+                //echo of a batch that was sent by this node
+                return;
+            }
+
+            for (Object event : eventBatchCodec.decodeEvents(batch)) {
+                //dispatch locally only, must not be sent again
+                if (event instanceof TargetedEvent) {
+                    super.post(((TargetedEvent) event).event, ((TargetedEvent) event).audienceKey);
+                } else {
+                    super.post(event);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "unable to decode a received batch", e);
+        } catch (ClassNotFoundException e) {
+            logger.log(Level.SEVERE, "unable to decode a received batch", e);
+        }
+    }
+
+    /**
+     * the envelope of an event that was posted via {@link #post(Object, Object)}
+     */
+    private static final class TargetedEvent implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Serializable event;
+        private final Serializable audienceKey;
+
+        TargetedEvent(Serializable event, Serializable audienceKey) {
+            this.event = event;
+            this.audienceKey = audienceKey;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.google.common.eventbus;
+
+import com.vaadin.guice.bus.events.Coalesced;
+import com.vaadin.guice.bus.events.CoalescingKeyExtractor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the {@link Coalesced}-settings of an event class, analyzed once per class
+ */
+final class CoalescingSpec {
+
+    private static final CoalescingSpec NOT_COALESCED = new CoalescingSpec(null, 0);
+    private static final ConcurrentMap<Class<?>, CoalescingSpec> specsByEventClass = new ConcurrentHashMap<Class<?>, CoalescingSpec>();
+
+    private final CoalescingKeyExtractor<Object> keyExtractor;
+    private final long intervalNanos;
+
+    private CoalescingSpec(CoalescingKeyExtractor<Object> keyExtractor, long intervalNanos) {
+        this.keyExtractor = keyExtractor;
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * @return the spec for the event's class or null, if the class is not annotated with {@link
+     * Coalesced}
+     */
+    static CoalescingSpec of(Object event) {
+        final Class<?> eventClass = event.getClass();
+
+        CoalescingSpec spec = specsByEventClass.get(eventClass);
+
+        if (spec == null) {
+            spec = create(eventClass);
+            specsByEventClass.put(eventClass, spec);
+        }
+
+        return spec == NOT_COALESCED ? null : spec;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CoalescingSpec create(Class<?> eventClass) {
+        final Coalesced coalesced = eventClass.getAnnotation(Coalesced.class);
+
+        if (coalesced == null) {
+            return NOT_COALESCED;
+        }
+
+        try {
+            return new CoalescingSpec(
+                    (CoalescingKeyExtractor<Object>) coalesced.key().newInstance(),
+                    TimeUnit.MILLISECONDS.toNanos(coalesced.intervalMillis())
+            );
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("unable to instantiate key-extractor of " + eventClass, e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unable to instantiate key-extractor of " + eventClass, e);
+        }
+    }
+
+    Object getKey(Object event) {
+        return keyExtractor.getKey(event);
+    }
+
+    long getIntervalNanos() {
+        return intervalNanos;
+    }
+}
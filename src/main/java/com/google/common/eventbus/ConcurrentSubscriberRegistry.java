@@ -0,0 +1,157 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import com.vaadin.server.VaadinSession;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * keeps the subscribers of every event type in a concurrent set, so registering and unregistering
+ * costs the same no matter how many sessions there are. Posting iterates the live sets without
+ * copying them, subscribers that are registered during a post may or may not receive the event.
+ * All subscribers of a session are released in one step when the session is destroyed.
+ */
+final class ConcurrentSubscriberRegistry implements GlobalSubscriberRegistry {
+
+    private final EventBus eventBus;
+    private final ConcurrentMap<Class<?>, Set<Subscriber>> subscribersByEventType = new ConcurrentHashMap<Class<?>, Set<Subscriber>>();
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<Subscriber, Class<?>>> eventTypesBySubscriberBySession = new ConcurrentHashMap<VaadinSession, ConcurrentMap<Subscriber, Class<?>>>();
+
+    ConcurrentSubscriberRegistry(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    private Set<Subscriber> getSubscribersOfType(Class<?> eventType) {
+        Set<Subscriber> subscribers = subscribersByEventType.get(eventType);
+
+        if (subscribers == null) {
+            final Set<Subscriber> newSubscribers = Collections.newSetFromMap(new ConcurrentHashMap<Subscriber, Boolean>());
+
+            subscribers = subscribersByEventType.putIfAbsent(eventType, newSubscribers);
+
+            if (subscribers == null) {
+                subscribers = newSubscribers;
+            }
+        }
+
+        return subscribers;
+    }
+
+    private ConcurrentMap<Subscriber, Class<?>> getSessionSubscribers(VaadinSession vaadinSession) {
+        ConcurrentMap<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.get(vaadinSession);
+
+        if (sessionSubscribers == null) {
+            final ConcurrentMap<Subscriber, Class<?>> newSessionSubscribers = new ConcurrentHashMap<Subscriber, Class<?>>();
+
+            sessionSubscribers = eventTypesBySubscriberBySession.putIfAbsent(vaadinSession, newSessionSubscribers);
+
+            if (sessionSubscribers == null) {
+                sessionSubscribers = newSessionSubscribers;
+            }
+        }
+
+        return sessionSubscribers;
+    }
+
+    @Override
+    public void register(VaadinSession vaadinSession, Object listener) {
+        for (Method method : AnnotatedMethods.of(listener.getClass())) {
+            final Subscriber subscriber = Subscriber.create(eventBus, listener, method);
+            final Class<?> eventType = AnnotatedMethods.eventTypeOf(method);
+
+            if (getSubscribersOfType(eventType).add(subscriber)) {
+                getSessionSubscribers(vaadinSession).put(subscriber, eventType);
+            }
+        }
+    }
+
+    @Override
+    public void unregister(VaadinSession vaadinSession, Object listener) {
+        for (Method method : AnnotatedMethods.of(listener.getClass())) {
+            final Subscriber subscriber = Subscriber.create(eventBus, listener, method);
+
+            final Set<Subscriber> subscribers = subscribersByEventType.get(AnnotatedMethods.eventTypeOf(method));
+
+            checkArgument(
+                    subscribers != null && subscribers.remove(subscriber),
+                    "missing event subscriber for an annotated method. Is %s registered?",
+                    listener
+            );
+
+            final Map<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.get(vaadinSession);
+
+            if (sessionSubscribers != null) {
+                sessionSubscribers.remove(subscriber);
+            }
+        }
+    }
+
+    @Override
+    public void releaseAll(VaadinSession vaadinSession) {
+        final Map<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.remove(vaadinSession);
+
+        if (sessionSubscribers == null) {
+            return;
+        }
+
+        for (Map.Entry<Subscriber, Class<?>> entry : sessionSubscribers.entrySet()) {
+            final Set<Subscriber> subscribers = subscribersByEventType.get(entry.getValue());
+
+            if (subscribers != null) {
+                subscribers.remove(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Subscriber> getSubscribers(Object event) {
+        final List<Iterator<Subscriber>> subscriberIterators = new ArrayList<Iterator<Subscriber>>(2);
+
+        for (Class<?> eventType : SubscriberRegistry.flattenHierarchy(event.getClass())) {
+            final Set<Subscriber> subscribers = subscribersByEventType.get(eventType);
+
+            if (subscribers != null && !subscribers.isEmpty()) {
+                subscriberIterators.add(subscribers.iterator());
+            }
+        }
+
+        return Iterators.concat(subscriberIterators.iterator());
+    }
+
+    @Override
+    public Iterator<Subscriber> getSubscribers(Object event, VaadinSession vaadinSession) {
+        final Map<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.get(vaadinSession);
+
+        if (sessionSubscribers == null) {
+            return ImmutableList.<Subscriber>of().iterator();
+        }
+
+        final Set<Class<?>> eventTypes = SubscriberRegistry.flattenHierarchy(event.getClass());
+        final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+
+        for (Map.Entry<Subscriber, Class<?>> entry : sessionSubscribers.entrySet()) {
+            if (eventTypes.contains(entry.getValue())) {
+                subscribers.add(entry.getKey());
+            }
+        }
+
+        return subscribers.iterator();
+    }
+
+    @Override
+    public long getReclaimedSubscribers() {
+        return 0;
+    }
+}
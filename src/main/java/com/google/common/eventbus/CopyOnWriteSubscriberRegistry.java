@@ -0,0 +1,124 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+import com.vaadin.server.VaadinSession;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * guava's {@link SubscriberRegistry} plus an index by session, holds strong references to all
+ * subscribers until they are unregistered or their session is destroyed. The {@link Subscriber}s of
+ * the session index are created once on registration, like the ones of guava's registry.
+ */
+final class CopyOnWriteSubscriberRegistry implements GlobalSubscriberRegistry {
+
+    private final EventBus eventBus;
+    private final SubscriberRegistry subscriberRegistry;
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<Subscriber, Class<?>>> eventTypesBySubscriberBySession = new ConcurrentHashMap<VaadinSession, ConcurrentMap<Subscriber, Class<?>>>();
+
+    CopyOnWriteSubscriberRegistry(EventBus eventBus) {
+        this.eventBus = eventBus;
+        subscriberRegistry = new SubscriberRegistry(eventBus);
+    }
+
+    private ConcurrentMap<Subscriber, Class<?>> getSessionSubscribers(VaadinSession vaadinSession) {
+        ConcurrentMap<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.get(vaadinSession);
+
+        if (sessionSubscribers == null) {
+            final ConcurrentMap<Subscriber, Class<?>> newSessionSubscribers = new ConcurrentHashMap<Subscriber, Class<?>>();
+
+            sessionSubscribers = eventTypesBySubscriberBySession.putIfAbsent(vaadinSession, newSessionSubscribers);
+
+            if (sessionSubscribers == null) {
+                sessionSubscribers = newSessionSubscribers;
+            }
+        }
+
+        return sessionSubscribers;
+    }
+
+    @Override
+    public void register(VaadinSession vaadinSession, Object listener) {
+        final ConcurrentMap<Subscriber, Class<?>> sessionSubscribers = getSessionSubscribers(vaadinSession);
+
+        for (Method method : AnnotatedMethods.of(listener.getClass())) {
+            final Subscriber subscriber = Subscriber.create(eventBus, listener, method);
+
+            sessionSubscribers.putIfAbsent(subscriber, AnnotatedMethods.eventTypeOf(method));
+        }
+
+        subscriberRegistry.register(listener);
+    }
+
+    @Override
+    public void unregister(VaadinSession vaadinSession, Object listener) {
+        try {
+            final Map<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.get(vaadinSession);
+
+            if (sessionSubscribers != null) {
+                for (Method method : AnnotatedMethods.of(listener.getClass())) {
+                    sessionSubscribers.remove(Subscriber.create(eventBus, listener, method));
+                }
+            }
+        } finally {
+            subscriberRegistry.unregister(listener);
+        }
+    }
+
+    @Override
+    public void releaseAll(VaadinSession vaadinSession) {
+        final Map<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.remove(vaadinSession);
+
+        if (sessionSubscribers == null) {
+            return;
+        }
+
+        //a listener with multiple subscriber-methods is unregistered once
+        final Set<Object> listeners = Sets.newIdentityHashSet();
+
+        for (Subscriber subscriber : sessionSubscribers.keySet()) {
+            if (listeners.add(subscriber.target)) {
+                subscriberRegistry.unregister(subscriber.target);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Subscriber> getSubscribers(Object event) {
+        return subscriberRegistry.getSubscribers(event);
+    }
+
+    @Override
+    public Iterator<Subscriber> getSubscribers(Object event, VaadinSession vaadinSession) {
+        final Map<Subscriber, Class<?>> sessionSubscribers = eventTypesBySubscriberBySession.get(vaadinSession);
+
+        if (sessionSubscribers == null) {
+            return ImmutableList.<Subscriber>of().iterator();
+        }
+
+        final Set<Class<?>> eventTypes = SubscriberRegistry.flattenHierarchy(event.getClass());
+        final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+
+        for (Map.Entry<Subscriber, Class<?>> entry : sessionSubscribers.entrySet()) {
+            if (eventTypes.contains(entry.getValue())) {
+                subscribers.add(entry.getKey());
+            }
+        }
+
+        return subscribers.iterator();
+    }
+
+    @Override
+    public long getReclaimedSubscribers() {
+        return 0;
+    }
+}
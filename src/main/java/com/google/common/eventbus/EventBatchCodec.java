@@ -0,0 +1,223 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * binary envelope for batches of events that are exchanged between nodes. A batch has a fixed
+ * header of 29 bytes (magic, version, node-id, sequence-number and event count), followed by one
+ * java serialization stream that contains all events, so class descriptors are written once per
+ * batch instead of once per event. <p> Received batches are deserialized with an allowlist: only
+ * classes from the configured event packages, a few immutable JDK value types and the common
+ * collections may be instantiated, proxies are rejected. A batch that contains anything else is
+ * rejected as a whole before the offending object is created. The same allowlist is applied when
+ * encoding, so a sender learns about an offending event before it's batch leaves the node.
+ */
+final class EventBatchCodec {
+
+    private static final short MAGIC = 0x4745;
+    private static final byte VERSION = 2;
+
+    private static final Set<String> ALLOWED_JDK_CLASSES = ImmutableSet.of(
+            "java.lang.String", "java.lang.Boolean", "java.lang.Byte", "java.lang.Character",
+            "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float",
+            "java.lang.Double", "java.lang.Number", "java.lang.Enum", "java.math.BigInteger",
+            "java.math.BigDecimal", "java.util.UUID", "java.util.Date", "java.util.Locale",
+            "java.util.ArrayList", "java.util.LinkedList", "java.util.HashMap", "java.util.LinkedHashMap",
+            "java.util.HashSet", "java.util.LinkedHashSet",
+            //the envelope of targeted events
+            "com.google.common.eventbus.ClusteredGlobalEventBusImpl$TargetedEvent"
+    );
+
+    private final List<String> allowedPackagePrefixes;
+
+    /**
+     * @param eventPackages the packages whose classes, including those in sub-packages, may be
+     *                      deserialized from received batches
+     */
+    EventBatchCodec(Collection<String> eventPackages) {
+        checkArgument(!eventPackages.isEmpty(), "at least one event package is required");
+
+        final ImmutableList.Builder<String> prefixes = ImmutableList.builder();
+
+        for (String eventPackage : eventPackages) {
+            checkArgument(!eventPackage.isEmpty(), "event packages must not be empty");
+            prefixes.add(eventPackage + ".");
+        }
+
+        this.allowedPackagePrefixes = prefixes.build();
+    }
+
+    static UUID readNodeId(byte[] batch) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch));
+
+        readHeader(in);
+
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void readHeader(DataInputStream in) throws IOException {
+        if (in.readShort() != MAGIC) {
+            throw new IOException("not an event batch");
+        }
+
+        final byte version = in.readByte();
+
+        if (version != VERSION) {
+            throw new IOException("unsupported event batch version " + version);
+        }
+    }
+
+    byte[] encode(UUID nodeId, long sequence, List<Serializable> events) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(64 + 64 * events.size());
+        final DataOutputStream out = new DataOutputStream(byteArrayOutputStream);
+
+        out.writeShort(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(nodeId.getMostSignificantBits());
+        out.writeLong(nodeId.getLeastSignificantBits());
+        out.writeLong(sequence);
+        out.writeInt(events.size());
+
+        final ObjectOutputStream objectOutputStream = new AllowlistObjectOutputStream(out);
+
+        for (Serializable event : events) {
+            objectOutputStream.writeObject(event);
+        }
+
+        objectOutputStream.close();
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    List<Object> decodeEvents(byte[] batch) throws IOException, ClassNotFoundException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch));
+
+        readHeader(in);
+
+        //node-id and sequence
+        in.readLong();
+        in.readLong();
+        in.readLong();
+
+        final int count = in.readInt();
+
+        if (count < 0) {
+            throw new IOException("invalid event count " + count);
+        }
+
+        final List<Object> events = new ArrayList<Object>(Math.min(count, 1024));
+
+        final ObjectInputStream objectInputStream = new AllowlistObjectInputStream(in);
+
+        try {
+            for (int i = 0; i < count; i++) {
+                events.add(objectInputStream.readObject());
+            }
+        } finally {
+            objectInputStream.close();
+        }
+
+        return events;
+    }
+
+    boolean isAllowed(String className) {
+        //arrays are allowed if their component type is, like "[Lcom.foo.Bar;" or "[I"
+        final int dimensions = className.lastIndexOf('[') + 1;
+
+        if (dimensions > 0) {
+            if (className.length() == dimensions + 1) {
+                //array of a primitive type
+                return true;
+            }
+
+            if (className.charAt(dimensions) != 'L' || !className.endsWith(";")) {
+                return false;
+            }
+
+            className = className.substring(dimensions + 1, className.length() - 1);
+        }
+
+        if (ALLOWED_JDK_CLASSES.contains(className)) {
+            return true;
+        }
+
+        for (String allowedPackagePrefix : allowedPackagePrefixes) {
+            if (className.startsWith(allowedPackagePrefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * fails with an {@link InvalidClassException} on the first class that receiving nodes would
+     * reject
+     */
+    private final class AllowlistObjectOutputStream extends ObjectOutputStream {
+        AllowlistObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> cl) throws IOException {
+            if (!isAllowed(cl.getName())) {
+                throw new InvalidClassException(cl.getName(), "class is not allowed in event batches");
+            }
+        }
+
+        @Override
+        protected void annotateProxyClass(Class<?> cl) throws IOException {
+            throw new InvalidClassException(cl.getName(), "proxies are not allowed in event batches");
+        }
+    }
+
+    /**
+     * resolves allowed classes with the classloader of guice-vaadin, which is the one of the
+     * web-app
+     */
+    private final class AllowlistObjectInputStream extends ObjectInputStream {
+        AllowlistObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "class is not allowed in received event batches");
+            }
+
+            try {
+                return Class.forName(desc.getName(), false, EventBatchCodec.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("proxies are not allowed in received event batches");
+        }
+    }
+}
@@ -1,119 +1,338 @@
 package com.google.common.eventbus;
 
+import com.google.common.collect.UnmodifiableIterator;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
 
-import com.vaadin.guice.bus.GlobalEventBus;
-import com.vaadin.server.SessionDestroyEvent;
-import com.vaadin.server.SessionDestroyListener;
+import com.vaadin.guice.bus.AsyncDispatchConfiguration;
+import com.vaadin.guice.bus.AsyncDispatchStatistics;
+import com.vaadin.guice.bus.AudienceEventBus;
+import com.vaadin.guice.bus.BusMetrics;
+import com.vaadin.guice.bus.NoOpBusMetrics;
+import com.vaadin.guice.bus.PendingEventBufferConfiguration;
+import com.vaadin.guice.bus.SubscriberRegistryMode;
+import com.vaadin.guice.bus.SubscriberRegistryStatistics;
+import com.vaadin.guice.server.LatencyHistogram;
+import com.vaadin.guice.server.RoundTripListener;
+import com.vaadin.guice.server.SessionTeardownParticipant;
+import com.vaadin.guice.server.SessionTeardownPipeline;
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinSession;
-import com.vaadin.ui.Component;
 import com.vaadin.ui.UI;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 @Singleton
 @SuppressWarnings("unused")
-class GlobalEventBusImpl extends EventBus implements GlobalEventBus {
+class GlobalEventBusImpl extends EventBus implements AudienceEventBus, AsyncDispatchStatistics, SubscriberRegistryStatistics, RoundTripListener, SessionTeardownParticipant {
+
+    private static final String BUS = "global";
 
-    private static final Dispatcher DISPATCHER = new Dispatcher() {
-        @Override
-        void dispatch(final Object event, Iterator<Subscriber> subscribers) {
-            while (subscribers.hasNext()) {
-                final Subscriber subscriber = subscribers.next();
-
-                if (subscriber.target instanceof Component) {
-                    final UI ui = ((Component) subscriber.target).getUI();
-
-                    if (ui != null) {
-                        ui.access(new Runnable() {
-                            @Override
-                            public void run() {
-                                subscriber.dispatchEvent(event);
-                            }
-                        });
-                    } else {
-                        //component is not attached to a UI yet
-                        subscriber.dispatchEvent(event);
-                    }
-                } else {
-                    //use current thread
-                    subscriber.dispatchEvent(event);
-                }
-            }
-        }
-    };
-    private final Map<VaadinSession, Set<Object>> registeredObjectsBySession = new ConcurrentHashMap<VaadinSession, Set<Object>>();
     private final Logger logger = Logger.getLogger(getClass().getCanonicalName());
+    private final VaadinService vaadinService;
+    private final UIDispatcher uiDispatcher;
+    private final MeteredSubscriberExceptionHandler exceptionHandler;
+    private BusMetrics busMetrics = new NoOpBusMetrics();
+    private final AudienceIndex audienceIndex = new AudienceIndex();
+    private final StickyEventBuffer stickyEventBuffer = new StickyEventBuffer();
+    private GlobalSubscriberRegistry subscriberRegistry = new CopyOnWriteSubscriberRegistry(this);
     private Provider<VaadinSession> vaadinSessionProvider;
+    private AsyncPostQueue asyncPostQueue;
 
     @Inject
     GlobalEventBusImpl(VaadinService vaadinService, Provider<VaadinSession> vaadinSessionProvider) {
-        super("default", MoreExecutors.directExecutor(), DISPATCHER, LoggingHandler.INSTANCE);
+        this(vaadinService, vaadinSessionProvider, new UIDispatcher(), new MeteredSubscriberExceptionHandler(BUS));
+    }
+
+    private GlobalEventBusImpl(
+            VaadinService vaadinService,
+            Provider<VaadinSession> vaadinSessionProvider,
+            final UIDispatcher uiDispatcher,
+            MeteredSubscriberExceptionHandler exceptionHandler
+    ) {
+        super("default", MoreExecutors.directExecutor(), uiDispatcher, exceptionHandler);
 
         this.vaadinSessionProvider = vaadinSessionProvider;
+        this.vaadinService = vaadinService;
+        this.uiDispatcher = uiDispatcher;
+        this.exceptionHandler = exceptionHandler;
 
-        vaadinService.addSessionDestroyListener(new SessionDestroyListener() {
+        vaadinService.addServiceDestroyListener(new ServiceDestroyListener() {
             @Override
-            public void sessionDestroy(SessionDestroyEvent sessionDestroyEvent) {
-                releaseAll(sessionDestroyEvent.getSession());
+            public void serviceDestroy(ServiceDestroyEvent event) {
+                uiDispatcher.shutdown();
             }
         });
     }
 
-    private void releaseAll(VaadinSession vaadinSession) {
+    /**
+     * subscribers of destroyed sessions are released in the background, posts in the meantime
+     * still reach them, but the UIs of a destroyed session refuse to be accessed
+     */
+    @Inject
+    void setSessionTeardownPipeline(SessionTeardownPipeline sessionTeardownPipeline) {
+        sessionTeardownPipeline.addParticipant(this);
+    }
+
+    @Override
+    public Runnable detach(final VaadinSession vaadinSession) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                audienceIndex.releaseAll(vaadinSession);
+                subscriberRegistry.releaseAll(vaadinSession);
+            }
+        };
+    }
 
-        Set<Object> registeredObjects = registeredObjectsBySession.remove(vaadinSession);
+    /**
+     * optional, since {@link AsyncDispatchConfiguration} is only bound if {@link
+     * com.vaadin.guice.bus.BusModule#setAsyncDispatchConfiguration(AsyncDispatchConfiguration)} was
+     * called. Without it, events are dispatched on the posting thread.
+     */
+    @Inject(optional = true)
+    void setAsyncDispatchConfiguration(AsyncDispatchConfiguration asyncDispatchConfiguration) {
+        final AsyncPostQueue asyncPostQueue = new AsyncPostQueue(this, asyncDispatchConfiguration);
 
-        if (registeredObjects != null) {
-            try {
-                for (Object registeredObject : registeredObjects) {
-                    super.unregister(registeredObject);
-                }
-            } finally {
-                ObjectSetPool.returnMap(registeredObjects);
+        vaadinService.addServiceDestroyListener(new ServiceDestroyListener() {
+            @Override
+            public void serviceDestroy(ServiceDestroyEvent event) {
+                asyncPostQueue.shutdown();
             }
+        });
+
+        this.asyncPostQueue = asyncPostQueue;
+    }
+
+    /**
+     * optional, since {@link SubscriberRegistryMode} is only bound if {@link
+     * com.vaadin.guice.bus.BusModule#setSubscriberRegistryMode(SubscriberRegistryMode)} was called.
+     */
+    @Inject(optional = true)
+    void setSubscriberRegistryMode(SubscriberRegistryMode subscriberRegistryMode) {
+        switch (subscriberRegistryMode) {
+            case COPY_ON_WRITE:
+                subscriberRegistry = new CopyOnWriteSubscriberRegistry(this);
+                break;
+            case WEAK:
+                subscriberRegistry = new WeakSubscriberRegistry(this);
+                break;
+            case CONCURRENT:
+                subscriberRegistry = new ConcurrentSubscriberRegistry(this);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown mode " + subscriberRegistryMode);
         }
     }
 
+    /**
+     * optional, since {@link PendingEventBufferConfiguration} is only bound if {@link
+     * com.vaadin.guice.bus.BusModule#setPendingEventBufferConfiguration(PendingEventBufferConfiguration)}
+     * was called. Without it, events for UIs without push are delivered right away.
+     */
+    @Inject(optional = true)
+    void setPendingEventBufferConfiguration(PendingEventBufferConfiguration pendingEventBufferConfiguration) {
+        uiDispatcher.setPendingEventBufferConfiguration(pendingEventBufferConfiguration);
+    }
+
+    /**
+     * optional, since {@link BusMetrics} is only bound if a {@link com.vaadin.guice.bus.BusModule}
+     * is installed
+     */
+    @Inject(optional = true)
+    void setBusMetrics(BusMetrics busMetrics) {
+        this.busMetrics = checkNotNull(busMetrics);
+        this.exceptionHandler.setBusMetrics(busMetrics);
+        this.uiDispatcher.setBusMetrics(BUS, busMetrics);
+    }
+
+    @Override
+    public void roundTripStarted(UI ui) {
+        uiDispatcher.deliverBufferedEvents(ui);
+    }
+
     @Override
     public void register(Object object) {
         checkNotNull(object);
 
-        final Set<Object> registeredObjects = getRegisteredObjects();
+        subscriberRegistry.register(vaadinSessionProvider.get(), object);
 
-        registeredObjects.add(object);
-        super.register(object);
+        if (!stickyEventBuffer.isEmpty()) {
+            replayStickyEvents(object);
+        }
     }
 
-    private Set<Object> getRegisteredObjects() {
-        Set<Object> registeredObjects = registeredObjectsBySession.get(vaadinSessionProvider.get());
+    private void replayStickyEvents(Object object) {
+        final List<Method> methods = AnnotatedMethods.of(object.getClass());
 
-        if (registeredObjects == null) {
-            registeredObjects = ObjectSetPool.leaseMap();
-            registeredObjectsBySession.put(vaadinSessionProvider.get(), registeredObjects);
-        }
+        //created on first use and shared by all replayed events
+        final Subscriber[] methodSubscribers = new Subscriber[methods.size()];
+
+        for (Object event : stickyEventBuffer.getRetainedEvents()) {
+            final Set<Class<?>> eventTypes = SubscriberRegistry.flattenHierarchy(event.getClass());
+            final List<Subscriber> subscribers = new ArrayList<Subscriber>(1);
+
+            for (int i = 0; i < methodSubscribers.length; i++) {
+                if (!eventTypes.contains(AnnotatedMethods.eventTypeOf(methods.get(i)))) {
+                    continue;
+                }
+
+                if (methodSubscribers[i] == null) {
+                    methodSubscribers[i] = Subscriber.create(this, object, methods.get(i));
+                }
+
+                subscribers.add(methodSubscribers[i]);
+            }
 
-        return registeredObjects;
+            if (!subscribers.isEmpty()) {
+                uiDispatcher.dispatch(event, subscribers.iterator());
+            }
+        }
     }
 
     @Override
     public void unregister(Object object) {
         checkNotNull(object);
 
-        try {
-            registeredObjectsBySession.get(vaadinSessionProvider.get()).remove(object);
-        } finally {
-            super.unregister(object);
+        subscriberRegistry.unregister(vaadinSessionProvider.get(), object);
+    }
+
+    @Override
+    public void joinAudience(Object audienceKey) {
+        checkNotNull(audienceKey);
+
+        audienceIndex.join(vaadinSessionProvider.get(), audienceKey);
+    }
+
+    @Override
+    public void leaveAudience(Object audienceKey) {
+        checkNotNull(audienceKey);
+
+        audienceIndex.leave(vaadinSessionProvider.get(), audienceKey);
+    }
+
+    @Override
+    public void post(Object event) {
+        checkNotNull(event);
+
+        stickyEventBuffer.retain(event);
+
+        if (asyncPostQueue != null) {
+            asyncPostQueue.post(event, null);
+        } else {
+            postNow(event);
+        }
+    }
+
+    @Override
+    public void post(Object event, Object audienceKey) {
+        checkNotNull(event);
+        checkNotNull(audienceKey);
+
+        if (asyncPostQueue != null) {
+            asyncPostQueue.post(event, audienceKey);
+        } else {
+            postNow(event, audienceKey);
+        }
+    }
+
+    void postNow(Object event) {
+        final CountingIterator subscribers = new CountingIterator(subscriberRegistry.getSubscribers(event));
+
+        if (subscribers.hasNext()) {
+            final long start = System.nanoTime();
+
+            uiDispatcher.dispatch(event, subscribers);
+
+            busMetrics.recordDispatch(BUS, event.getClass(), System.nanoTime() - start);
+            busMetrics.recordPost(BUS, event.getClass(), subscribers.count);
+        } else {
+            busMetrics.recordPost(BUS, event.getClass(), 0);
+
+            if (!(event instanceof DeadEvent)) {
+                busMetrics.recordDeadEvent(BUS, event.getClass());
+                postNow(new DeadEvent(this, event));
+            }
+        }
+    }
+
+    /**
+     * @param audienceKey the audience or null for everyone
+     */
+    void postNow(Object event, Object audienceKey) {
+        if (audienceKey == null) {
+            postNow(event);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        int subscriberCount = 0;
+
+        for (VaadinSession vaadinSession : audienceIndex.getSessions(audienceKey)) {
+            final CountingIterator subscribers = new CountingIterator(subscriberRegistry.getSubscribers(event, vaadinSession));
+
+            if (subscribers.hasNext()) {
+                uiDispatcher.dispatch(event, subscribers);
+                subscriberCount += subscribers.count;
+            }
+        }
+
+        busMetrics.recordDispatch(BUS, event.getClass(), System.nanoTime() - start);
+        busMetrics.recordPost(BUS, event.getClass(), subscriberCount);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return asyncPostQueue != null ? asyncPostQueue.getQueueDepth() : 0;
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return asyncPostQueue != null ? asyncPostQueue.getDroppedEvents() : 0;
+    }
+
+    @Override
+    public LatencyHistogram getDispatchLag() {
+        return asyncPostQueue != null ? asyncPostQueue.getDispatchLag() : new LatencyHistogram();
+    }
+
+    @Override
+    public long getReclaimedSubscribers() {
+        return subscriberRegistry.getReclaimedSubscribers();
+    }
+
+    /**
+     * counts the subscribers an event is dispatched to
+     */
+    private static final class CountingIterator extends UnmodifiableIterator<Subscriber> {
+        private final Iterator<Subscriber> subscribers;
+        private int count;
+
+        CountingIterator(Iterator<Subscriber> subscribers) {
+            this.subscribers = subscribers;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return subscribers.hasNext();
+        }
+
+        @Override
+        public Subscriber next() {
+            final Subscriber subscriber = subscribers.next();
+            count++;
+            return subscriber;
         }
     }
 }
@@ -0,0 +1,34 @@
+package com.google.common.eventbus;
+
+import com.vaadin.server.VaadinSession;
+
+import java.util.Iterator;
+
+/**
+ * the subscribers of a {@link GlobalEventBusImpl}, indexed by event type and by the {@link
+ * VaadinSession} they were registered in
+ */
+interface GlobalSubscriberRegistry {
+
+    void register(VaadinSession vaadinSession, Object listener);
+
+    void unregister(VaadinSession vaadinSession, Object listener);
+
+    /**
+     * unregisters everything that was registered in the session
+     */
+    void releaseAll(VaadinSession vaadinSession);
+
+    Iterator<Subscriber> getSubscribers(Object event);
+
+    /**
+     * @return the subscribers for the event that were registered in the given session, the cost is
+     * proportional to the number of subscribers of that session
+     */
+    Iterator<Subscriber> getSubscribers(Object event, VaadinSession vaadinSession);
+
+    /**
+     * @return the number of subscribers that were removed because they were garbage collected
+     */
+    long getReclaimedSubscribers();
+}
@@ -0,0 +1,28 @@
+package com.google.common.eventbus;
+
+import com.vaadin.guice.bus.BusMetrics;
+import com.vaadin.guice.bus.NoOpBusMetrics;
+
+/**
+ * logs exceptions of subscribers like guava's {@link EventBus.LoggingHandler} and reports them to
+ * the {@link BusMetrics}
+ */
+final class MeteredSubscriberExceptionHandler implements SubscriberExceptionHandler {
+
+    private final String bus;
+    private volatile BusMetrics busMetrics = new NoOpBusMetrics();
+
+    MeteredSubscriberExceptionHandler(String bus) {
+        this.bus = bus;
+    }
+
+    void setBusMetrics(BusMetrics busMetrics) {
+        this.busMetrics = busMetrics;
+    }
+
+    @Override
+    public void handleException(Throwable exception, SubscriberExceptionContext context) {
+        busMetrics.recordSubscriberException(bus, context.getEvent().getClass(), exception);
+        EventBus.LoggingHandler.INSTANCE.handleException(exception, context);
+    }
+}
@@ -0,0 +1,102 @@
+package com.google.common.eventbus;
+
+import com.vaadin.guice.bus.events.Sticky;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * the latest events of every {@link Sticky} event-class that was posted to a bus, each class has
+ * a ring buffer of {@link Sticky#retain()} events. Used by the bus implementations of
+ * guice-vaadin, one buffer per bus instance. Like {@link AnnotatedMethods}, this is public only
+ * since the busses in com.vaadin.guice.bus use it, it is not meant to be used by applications.
+ */
+public final class StickyEventBuffer {
+
+    private static final ConcurrentMap<Class<?>, Integer> retentionByEventClass = new ConcurrentHashMap<Class<?>, Integer>();
+
+    private final Map<Class<?>, Deque<Object>> eventsByClass = new LinkedHashMap<Class<?>, Deque<Object>>();
+    private volatile boolean empty = true;
+
+    private static int getRetention(Class<?> eventClass) {
+        Integer retention = retentionByEventClass.get(eventClass);
+
+        if (retention == null) {
+            final Sticky sticky = eventClass.getAnnotation(Sticky.class);
+
+            retention = sticky != null ? sticky.retain() : 0;
+
+            checkArgument(retention >= 0, "retain of %s must not be negative", eventClass);
+
+            retentionByEventClass.put(eventClass, retention);
+        }
+
+        return retention;
+    }
+
+    /**
+     * @return true if the class is annotated with {@link Sticky}
+     */
+    public static boolean isSticky(Class<?> eventClass) {
+        return getRetention(eventClass) > 0;
+    }
+
+    /**
+     * keeps the event if it's class is annotated with {@link Sticky}, otherwise does nothing
+     */
+    public void retain(Object event) {
+        final int retention = getRetention(event.getClass());
+
+        if (retention == 0) {
+            return;
+        }
+
+        synchronized (eventsByClass) {
+            Deque<Object> events = eventsByClass.get(event.getClass());
+
+            if (events == null) {
+                events = new ArrayDeque<Object>(retention);
+                eventsByClass.put(event.getClass(), events);
+            }
+
+            if (events.size() == retention) {
+                events.poll();
+            }
+
+            events.add(event);
+
+            empty = false;
+        }
+    }
+
+    /**
+     * @return true if no sticky event was ever retained, cheap enough to be called on every
+     * registration
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return all retained events, oldest first per event-class
+     */
+    public List<Object> getRetainedEvents() {
+        synchronized (eventsByClass) {
+            final List<Object> retainedEvents = new ArrayList<Object>();
+
+            for (Deque<Object> events : eventsByClass.values()) {
+                retainedEvents.addAll(events);
+            }
+
+            return retainedEvents;
+        }
+    }
+}
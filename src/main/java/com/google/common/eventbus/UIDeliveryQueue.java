@@ -0,0 +1,251 @@
+package com.google.common.eventbus;
+
+import com.google.common.base.Objects;
+
+import com.vaadin.guice.bus.BusMetrics;
+import com.vaadin.guice.bus.PendingEventBufferConfiguration;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * the pending deliveries of a single {@link UI}. At most one access-task per UI is pending at any
+ * time, it delivers everything that was enqueued until it runs. Coalesced events wait for the end
+ * of their interval, a newer event of the same class with the same key replaces the waiting one.
+ * For UIs without push,
+ * deliveries may instead be kept in a bounded buffer until the next request of the UI's client. This
+ * class must not reference its UI, since it is the value of a weak-keyed map.
+ */
+final class UIDeliveryQueue {
+
+    private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<Delivery>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Map<CoalescingKey, Delivery> coalescedDeliveriesByKey = new HashMap<CoalescingKey, Delivery>();
+    private final PendingEventBufferConfiguration pendingEventBufferConfiguration;
+    private final String bus;
+    private final BusMetrics busMetrics;
+    private final Deque<Delivery> bufferedDeliveries = new ArrayDeque<Delivery>();
+    private boolean refreshRequired;
+
+    /**
+     * @param pendingEventBufferConfiguration null if deliveries are never buffered
+     * @param bus                             the name the {@link BusMetrics} get to see
+     */
+    UIDeliveryQueue(PendingEventBufferConfiguration pendingEventBufferConfiguration, String bus, BusMetrics busMetrics) {
+        this.pendingEventBufferConfiguration = pendingEventBufferConfiguration;
+        this.bus = bus;
+        this.busMetrics = busMetrics;
+    }
+
+    void enqueue(UI ui, Object event, List<Subscriber> subscribers) {
+        enqueue(ui, new Delivery(event, subscribers));
+    }
+
+    void coalesce(final UI ui, Object key, Object event, List<Subscriber> subscribers, long intervalNanos, ScheduledExecutorService scheduler) {
+        //keys of different event classes may be equal, like the id of the entity the events are about
+        final CoalescingKey coalescingKey = new CoalescingKey(event.getClass(), key);
+
+        synchronized (coalescedDeliveriesByKey) {
+            final Delivery waitingDelivery = coalescedDeliveriesByKey.put(coalescingKey, new Delivery(event, subscribers));
+
+            if (waitingDelivery != null) {
+                //the flush of the waiting delivery is already scheduled
+                return;
+            }
+        }
+
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                final Delivery latestDelivery;
+
+                synchronized (coalescedDeliveriesByKey) {
+                    latestDelivery = coalescedDeliveriesByKey.remove(coalescingKey);
+                }
+
+                //null if the UI was detached in the meantime
+                if (latestDelivery != null) {
+                    enqueue(ui, latestDelivery);
+                }
+            }
+        }, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void enqueue(UI ui, Delivery delivery) {
+        if (pendingEventBufferConfiguration != null && !ui.getPushConfiguration().getPushMode().isEnabled()) {
+            buffer(delivery);
+            return;
+        }
+
+        deliveries.add(delivery);
+
+        if (!drainScheduled.compareAndSet(false, true)) {
+            //the pending access-task will deliver this event as well
+            return;
+        }
+
+        busMetrics.recordUIAccess(bus);
+
+        try {
+            ui.access(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        } catch (UIDetachedException e) {
+            //the UI is gone, so are its subscribers
+            deliveries.clear();
+
+            synchronized (coalescedDeliveriesByKey) {
+                coalescedDeliveriesByKey.clear();
+            }
+
+            drainScheduled.set(false);
+        }
+    }
+
+    private void buffer(Delivery delivery) {
+        synchronized (bufferedDeliveries) {
+            if (refreshRequired) {
+                //the UI will be rebuilt anyway
+                return;
+            }
+
+            if (bufferedDeliveries.size() >= pendingEventBufferConfiguration.getCapacity()) {
+                switch (pendingEventBufferConfiguration.getBufferOverflowPolicy()) {
+                    case COALESCE:
+                        if (!removeBufferedDelivery(delivery.event.getClass())) {
+                            bufferedDeliveries.poll();
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        bufferedDeliveries.poll();
+                        break;
+                    case REFRESH:
+                        bufferedDeliveries.clear();
+                        refreshRequired = true;
+                        return;
+                    default:
+                        throw new IllegalStateException(
+                                "unknown BufferOverflowPolicy " + pendingEventBufferConfiguration.getBufferOverflowPolicy()
+                        );
+                }
+            }
+
+            bufferedDeliveries.add(delivery);
+        }
+    }
+
+    private boolean removeBufferedDelivery(Class<?> eventClass) {
+        final Iterator<Delivery> iterator = bufferedDeliveries.iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().event.getClass().equals(eventClass)) {
+                iterator.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * delivers all buffered events or reloads the page if the buffer overflowed with {@link
+     * com.vaadin.guice.bus.BufferOverflowPolicy#REFRESH}, to be called while the UI's session is
+     * locked
+     */
+    void deliverBuffered(UI ui) {
+        final List<Delivery> buffered;
+        final boolean refresh;
+
+        synchronized (bufferedDeliveries) {
+            if (bufferedDeliveries.isEmpty() && !refreshRequired) {
+                return;
+            }
+
+            buffered = new ArrayList<Delivery>(bufferedDeliveries);
+            bufferedDeliveries.clear();
+            refresh = refreshRequired;
+            refreshRequired = false;
+        }
+
+        if (refresh) {
+            ui.getPage().reload();
+            return;
+        }
+
+        for (Delivery delivery : buffered) {
+            delivery.dispatch();
+        }
+    }
+
+    private void drain() {
+        //reset first, so deliveries enqueued while draining schedule a new task
+        drainScheduled.set(false);
+
+        Delivery delivery;
+
+        while ((delivery = deliveries.poll()) != null) {
+            delivery.dispatch();
+        }
+    }
+
+    private static final class CoalescingKey {
+        private final Class<?> eventClass;
+        private final Object key;
+
+        CoalescingKey(Class<?> eventClass, Object key) {
+            this.eventClass = eventClass;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof CoalescingKey)) {
+                return false;
+            }
+
+            final CoalescingKey other = (CoalescingKey) o;
+
+            return eventClass.equals(other.eventClass) && Objects.equal(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(eventClass, key);
+        }
+    }
+
+    private static final class Delivery {
+        private final Object event;
+        private final List<Subscriber> subscribers;
+
+        Delivery(Object event, List<Subscriber> subscribers) {
+            this.event = event;
+            this.subscribers = subscribers;
+        }
+
+        void dispatch() {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.dispatchEvent(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.vaadin.guice.bus.BusMetrics;
+import com.vaadin.guice.bus.NoOpBusMetrics;
+import com.vaadin.guice.bus.PendingEventBufferConfiguration;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * {@link Dispatcher} that delivers events to {@link Component}-subscribers within the lock of their
+ * {@link UI}. Subscribers are grouped by their UI, so all of a UI's subscribers for an event are
+ * called within one {@link UI#access(Runnable)}. Events that are posted while a UI's access-task is
+ * still pending are appended to that task instead of scheduling another one, see {@link
+ * UIDeliveryQueue}. Events of a class that is annotated with {@link com.vaadin.guice.bus.events.Coalesced}
+ * are held back per UI, so only the latest one per key is delivered. If a {@link
+ * PendingEventBufferConfiguration} is set, events for UIs without push are buffered until the next
+ * request of their client, see {@link #deliverBufferedEvents(UI)}. Subscribers that are no
+ * components or are not attached are called on the current thread.
+ */
+class UIDispatcher extends Dispatcher {
+
+    private final ConcurrentMap<UI, UIDeliveryQueue> deliveryQueues = new MapMaker().weakKeys().makeMap();
+    private final boolean coalescing;
+    private ScheduledExecutorService scheduler;
+    private volatile PendingEventBufferConfiguration pendingEventBufferConfiguration;
+    private volatile String bus = "global";
+    private volatile BusMetrics busMetrics = new NoOpBusMetrics();
+
+    UIDispatcher() {
+        this(true);
+    }
+
+    /**
+     * @param coalescing if false, every subscriber call is scheduled in an access-task of its own
+     */
+    UIDispatcher(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    @Override
+    void dispatch(Object event, Iterator<Subscriber> subscribers) {
+        Map<UI, List<Subscriber>> subscribersByUI = null;
+
+        while (subscribers.hasNext()) {
+            final Subscriber subscriber = subscribers.next();
+
+            final UI ui = getUI(subscriber);
+
+            if (ui == null) {
+                //use current thread
+                subscriber.dispatchEvent(event);
+            } else if (!coalescing) {
+                accessSingle(ui, subscriber, event);
+            } else {
+                if (subscribersByUI == null) {
+                    subscribersByUI = new LinkedHashMap<UI, List<Subscriber>>();
+                }
+
+                List<Subscriber> subscribersOfUI = subscribersByUI.get(ui);
+
+                if (subscribersOfUI == null) {
+                    subscribersOfUI = new ArrayList<Subscriber>(4);
+                    subscribersByUI.put(ui, subscribersOfUI);
+                }
+
+                subscribersOfUI.add(subscriber);
+            }
+        }
+
+        if (subscribersByUI == null) {
+            return;
+        }
+
+        final CoalescingSpec coalescingSpec = CoalescingSpec.of(event);
+
+        for (Map.Entry<UI, List<Subscriber>> entry : subscribersByUI.entrySet()) {
+            final UIDeliveryQueue deliveryQueue = getDeliveryQueue(entry.getKey());
+
+            if (coalescingSpec == null) {
+                deliveryQueue.enqueue(entry.getKey(), event, entry.getValue());
+            } else {
+                deliveryQueue.coalesce(
+                        entry.getKey(),
+                        coalescingSpec.getKey(event),
+                        event,
+                        entry.getValue(),
+                        coalescingSpec.getIntervalNanos(),
+                        getScheduler()
+                );
+            }
+        }
+    }
+
+    void setPendingEventBufferConfiguration(PendingEventBufferConfiguration pendingEventBufferConfiguration) {
+        this.pendingEventBufferConfiguration = pendingEventBufferConfiguration;
+    }
+
+    /**
+     * @param bus the name the {@link BusMetrics} get to see
+     */
+    void setBusMetrics(String bus, BusMetrics busMetrics) {
+        this.bus = bus;
+        this.busMetrics = busMetrics;
+    }
+
+    /**
+     * to be called while the UI's session is locked
+     */
+    void deliverBufferedEvents(UI ui) {
+        final UIDeliveryQueue deliveryQueue = deliveryQueues.get(ui);
+
+        if (deliveryQueue != null) {
+            deliveryQueue.deliverBuffered(ui);
+        }
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("global-event-bus-coalescer-%d")
+                            .setDaemon(true)
+                            .build()
+            );
+        }
+
+        return scheduler;
+    }
+
+    private UI getUI(Subscriber subscriber) {
+        if (!(subscriber.target instanceof Component)) {
+            return null;
+        }
+
+        //null if the component is not attached to a UI yet
+        return ((Component) subscriber.target).getUI();
+    }
+
+    private void accessSingle(UI ui, final Subscriber subscriber, final Object event) {
+        busMetrics.recordUIAccess(bus);
+
+        ui.access(new Runnable() {
+            @Override
+            public void run() {
+                subscriber.dispatchEvent(event);
+            }
+        });
+    }
+
+    private UIDeliveryQueue getDeliveryQueue(UI ui) {
+        UIDeliveryQueue deliveryQueue = deliveryQueues.get(ui);
+
+        if (deliveryQueue == null) {
+            deliveryQueue = new UIDeliveryQueue(pendingEventBufferConfiguration, bus, busMetrics);
+
+            final UIDeliveryQueue existingDeliveryQueue = deliveryQueues.putIfAbsent(ui, deliveryQueue);
+
+            if (existingDeliveryQueue != null) {
+                deliveryQueue = existingDeliveryQueue;
+            }
+        }
+
+        return deliveryQueue;
+    }
+}
@@ -0,0 +1,265 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.ImmutableList;
+
+import com.vaadin.server.VaadinSession;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * holds subscribers through weak references, so components that are no longer part of any UI and
+ * closed UIs can be garbage collected before their session ends. Cleared subscriptions are expunged
+ * on every post. <p> A guava {@link Subscriber} references its target strongly, so a subscription
+ * cannot keep one without keeping the target alive. Instead, it keeps it's subscriber weakly and
+ * re-uses it for every post until the next garbage collection clears it. </p>
+ */
+final class WeakSubscriberRegistry implements GlobalSubscriberRegistry {
+
+    private final EventBus eventBus;
+    private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<Object>();
+    private final ConcurrentMap<Class<?>, Set<WeakSubscription>> subscriptionsByEventType = new ConcurrentHashMap<Class<?>, Set<WeakSubscription>>();
+    private final ConcurrentMap<VaadinSession, Set<WeakSubscription>> subscriptionsBySession = new ConcurrentHashMap<VaadinSession, Set<WeakSubscription>>();
+    private final AtomicLong reclaimedSubscribers = new AtomicLong();
+
+    WeakSubscriberRegistry(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    private static <K> Set<WeakSubscription> getOrCreate(ConcurrentMap<K, Set<WeakSubscription>> map, K key) {
+        Set<WeakSubscription> subscriptions = map.get(key);
+
+        if (subscriptions == null) {
+            final Set<WeakSubscription> newSubscriptions = Collections.newSetFromMap(new ConcurrentHashMap<WeakSubscription, Boolean>());
+
+            subscriptions = map.putIfAbsent(key, newSubscriptions);
+
+            if (subscriptions == null) {
+                subscriptions = newSubscriptions;
+            }
+        }
+
+        return subscriptions;
+    }
+
+    @Override
+    public void register(VaadinSession vaadinSession, Object listener) {
+        for (Method method : AnnotatedMethods.of(listener.getClass())) {
+            final WeakSubscription subscription = new WeakSubscription(listener, method, vaadinSession, referenceQueue);
+
+            if (getOrCreate(subscriptionsByEventType, subscription.eventType).add(subscription)) {
+                getOrCreate(subscriptionsBySession, vaadinSession).add(subscription);
+            }
+        }
+    }
+
+    @Override
+    public void unregister(VaadinSession vaadinSession, Object listener) {
+        for (Method method : AnnotatedMethods.of(listener.getClass())) {
+            final WeakSubscription key = new WeakSubscription(listener, method, vaadinSession, null);
+
+            final Set<WeakSubscription> subscriptions = subscriptionsByEventType.get(key.eventType);
+
+            checkArgument(
+                    subscriptions != null && subscriptions.remove(key),
+                    "missing event subscriber for an annotated method. Is %s registered?",
+                    listener
+            );
+
+            final Set<WeakSubscription> sessionSubscriptions = subscriptionsBySession.get(vaadinSession);
+
+            if (sessionSubscriptions != null) {
+                sessionSubscriptions.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void releaseAll(VaadinSession vaadinSession) {
+        final Set<WeakSubscription> subscriptions = subscriptionsBySession.remove(vaadinSession);
+
+        if (subscriptions == null) {
+            return;
+        }
+
+        for (WeakSubscription subscription : subscriptions) {
+            final Set<WeakSubscription> subscriptionsOfType = subscriptionsByEventType.get(subscription.eventType);
+
+            if (subscriptionsOfType != null) {
+                subscriptionsOfType.remove(subscription);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Subscriber> getSubscribers(Object event) {
+        expungeClearedSubscriptions();
+
+        final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+
+        for (Class<?> eventType : SubscriberRegistry.flattenHierarchy(event.getClass())) {
+            final Set<WeakSubscription> subscriptions = subscriptionsByEventType.get(eventType);
+
+            if (subscriptions == null) {
+                continue;
+            }
+
+            for (WeakSubscription subscription : subscriptions) {
+                final Subscriber subscriber = subscription.getSubscriber(eventBus);
+
+                if (subscriber != null) {
+                    subscribers.add(subscriber);
+                }
+            }
+        }
+
+        return subscribers.iterator();
+    }
+
+    @Override
+    public Iterator<Subscriber> getSubscribers(Object event, VaadinSession vaadinSession) {
+        expungeClearedSubscriptions();
+
+        final Set<WeakSubscription> subscriptions = subscriptionsBySession.get(vaadinSession);
+
+        if (subscriptions == null) {
+            return ImmutableList.<Subscriber>of().iterator();
+        }
+
+        final Set<Class<?>> eventTypes = SubscriberRegistry.flattenHierarchy(event.getClass());
+        final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+
+        for (WeakSubscription subscription : subscriptions) {
+            if (!eventTypes.contains(subscription.eventType)) {
+                continue;
+            }
+
+            final Subscriber subscriber = subscription.getSubscriber(eventBus);
+
+            if (subscriber != null) {
+                subscribers.add(subscriber);
+            }
+        }
+
+        return subscribers.iterator();
+    }
+
+    private void expungeClearedSubscriptions() {
+        Reference<?> reference;
+
+        while ((reference = referenceQueue.poll()) != null) {
+            final WeakSubscription subscription = (WeakSubscription) reference;
+
+            final Set<WeakSubscription> subscriptions = subscriptionsByEventType.get(subscription.eventType);
+
+            if (subscriptions != null && subscriptions.remove(subscription)) {
+                reclaimedSubscribers.incrementAndGet();
+            }
+
+            final Set<WeakSubscription> sessionSubscriptions = subscriptionsBySession.get(subscription.vaadinSession);
+
+            if (sessionSubscriptions != null) {
+                sessionSubscriptions.remove(subscription);
+            }
+        }
+    }
+
+    @Override
+    public long getReclaimedSubscribers() {
+        return reclaimedSubscribers.get();
+    }
+
+    /**
+     * @return the references the listener is held by, one per subscriber-method
+     */
+    List<Reference<Object>> getReferences(Object listener) {
+        final List<Reference<Object>> references = new ArrayList<Reference<Object>>();
+
+        for (Set<WeakSubscription> subscriptions : subscriptionsByEventType.values()) {
+            for (WeakSubscription subscription : subscriptions) {
+                if (subscription.get() == listener) {
+                    references.add(subscription);
+                }
+            }
+        }
+
+        return references;
+    }
+
+    /**
+     * equal to another subscription of the same method on the same object, as long as that object
+     * has not been collected
+     */
+    private static final class WeakSubscription extends WeakReference<Object> {
+        private final Method method;
+        private final Class<?> eventType;
+        private final VaadinSession vaadinSession;
+        private final int hashCode;
+        private volatile WeakReference<Subscriber> subscriber;
+
+        WeakSubscription(Object target, Method method, VaadinSession vaadinSession, ReferenceQueue<Object> referenceQueue) {
+            super(target, referenceQueue);
+            this.method = method;
+            this.eventType = AnnotatedMethods.eventTypeOf(method);
+            this.vaadinSession = vaadinSession;
+            this.hashCode = 31 * System.identityHashCode(target) + method.hashCode();
+        }
+
+        /**
+         * @return the subscriber of the method on the target, null if the target has been
+         * collected
+         */
+        Subscriber getSubscriber(EventBus eventBus) {
+            final WeakReference<Subscriber> subscriberReference = this.subscriber;
+
+            Subscriber subscriber = subscriberReference != null ? subscriberReference.get() : null;
+
+            if (subscriber == null) {
+                final Object target = get();
+
+                if (target == null) {
+                    return null;
+                }
+
+                subscriber = Subscriber.create(eventBus, target, method);
+
+                this.subscriber = new WeakReference<Subscriber>(subscriber);
+            }
+
+            return subscriber;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof WeakSubscription)) {
+                return false;
+            }
+
+            final WeakSubscription that = (WeakSubscription) o;
+            final Object target = get();
+
+            return target != null && target == that.get() && method.equals(that.method);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.vaadin.guice.annotation;
+
+/**
+ * Defines how often the {@link GuiceUI#errorView()} of a UI is constructed, see {@link
+ * GuiceUI#errorViewCaching()}.
+ *
+ * @author Bernd Hopp (bernd@vaadin.com)
+ */
+public enum ErrorViewCaching {
+    /**
+     * a new error view is constructed by guice for every navigation that fails
+     */
+    NONE,
+    /**
+     * the error view is constructed once per UI and then shown for every failed navigation
+     */
+    PER_UI
+}
@@ -73,7 +73,23 @@ public @interface GuiceUI {
 
     /**
      * the {@link View} that should be displayed in case of an error, see {@link
-     * Navigator#setErrorView(Class)}
+     * Navigator#setErrorView(Class)}. Navigations to the error view carry the error view's {@link
+     * GuiceView#value()} or, if it is not annotated, it's class-name as view-name, the unknown
+     * fragment is available from {@link Navigator#getState()}.
      */
     Class<? extends View> errorView() default View.class;
+
+    /**
+     * how often the {@link #errorView()} is constructed. Since every unknown view-name leads to the
+     * error view, {@link ErrorViewCaching#PER_UI} protects against bursts of bad fragments.
+     */
+    ErrorViewCaching errorViewCaching() default ErrorViewCaching.PER_UI;
+
+    /**
+     * the number of views that are kept alive per UI for back- and forward-navigation, including
+     * their {@link ViewScope}. Once more views have been visited, the least recently visited view
+     * is released after the navigation has been confirmed, the displayed view is never released.
+     * Views annotated with {@link UncachedView} are never kept.
+     */
+    int viewHistoryDepth() default 8;
 }
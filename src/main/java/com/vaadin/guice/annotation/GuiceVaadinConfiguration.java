@@ -3,6 +3,8 @@ package com.vaadin.guice.annotation;
 import com.google.inject.Module;
 
 import com.vaadin.guice.server.GuiceVaadinServlet;
+import com.vaadin.guice.server.NavigationMetrics;
+import com.vaadin.guice.server.NoOpNavigationMetrics;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -34,4 +36,11 @@ public @interface GuiceVaadinConfiguration {
      * well.
      */
     String[] basePackages();
+
+    /**
+     * The {@link NavigationMetrics} that the timings of all navigations are reported to. The class
+     * will be instantiated by guice. Recording is disabled by default, use {@link
+     * com.vaadin.guice.server.JmxNavigationMetrics} to expose the timings over JMX.
+     */
+    Class<? extends NavigationMetrics> navigationMetrics() default NoOpNavigationMetrics.class;
 }
@@ -0,0 +1,28 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on {@link GuiceView}-classes that should not be kept in a UI's view
+ * history, see {@link GuiceUI#viewHistoryDepth()}. A new instance of an uncached view, including
+ * a new {@link ViewScope}, is created for every navigation to it.
+ *
+ * <pre>
+ * &#064;GuiceView("report")
+ * &#064;UncachedView
+ * public class ReportView extends CustomComponent implements View {
+ *     // ...
+ * }
+ * </pre>
+ *
+ * @author Bernd Hopp (bernd@vaadin.com)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UncachedView {
+}
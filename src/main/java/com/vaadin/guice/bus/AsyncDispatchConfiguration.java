@@ -0,0 +1,44 @@
+package com.vaadin.guice.bus;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Configuration for dispatching the events of the default {@link GlobalEventBus} asynchronously,
+ * see {@link BusModule#setAsyncDispatchConfiguration(AsyncDispatchConfiguration)}. Posted events
+ * are put in bounded queues and dispatched by a fixed number of threads, so a slow subscriber does
+ * not stall the thread that posted the event. All events of the same type are dispatched by the
+ * same thread in the order they were posted. Once the VaadinService is destroyed, the threads are
+ * stopped and further posts fail with a {@link java.util.concurrent.RejectedExecutionException}.
+ */
+public final class AsyncDispatchConfiguration {
+    private final int threads;
+    private final int queueCapacity;
+    private final QueueFullPolicy queueFullPolicy;
+
+    /**
+     * @param threads         the number of dispatching threads
+     * @param queueCapacity   the number of events that may be queued per thread
+     * @param queueFullPolicy what happens with events that are posted while the queue is full
+     */
+    public AsyncDispatchConfiguration(int threads, int queueCapacity, QueueFullPolicy queueFullPolicy) {
+        checkArgument(threads > 0, "threads must be greater than 0, is %s", threads);
+        checkArgument(queueCapacity > 0, "queueCapacity must be greater than 0, is %s", queueCapacity);
+
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.queueFullPolicy = checkNotNull(queueFullPolicy);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public QueueFullPolicy getQueueFullPolicy() {
+        return queueFullPolicy;
+    }
+}
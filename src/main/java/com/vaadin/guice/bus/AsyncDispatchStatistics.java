@@ -0,0 +1,28 @@
+package com.vaadin.guice.bus;
+
+import com.vaadin.guice.server.LatencyHistogram;
+
+/**
+ * Statistics of the asynchronous dispatch of the default {@link GlobalEventBus}, can be injected if
+ * a {@link BusModule} is installed.
+ */
+public interface AsyncDispatchStatistics {
+
+    /**
+     * @return the number of events that are currently waiting to be dispatched, always 0 if
+     * events are dispatched synchronously
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the number of events that were discarded because of {@link
+     * QueueFullPolicy#DROP_OLDEST}, an interruption while waiting for {@link
+     * QueueFullPolicy#BLOCK} or because they were still queued when the VaadinService was destroyed
+     */
+    long getDroppedEvents();
+
+    /**
+     * @return the time between posting an event and the start of its dispatch
+     */
+    LatencyHistogram getDispatchLag();
+}
@@ -0,0 +1,41 @@
+package com.vaadin.guice.bus;
+
+/**
+ * a {@link GlobalEventBus} that can post events to a subset of the {@link
+ * com.vaadin.server.VaadinSession}s, the audience. Sessions join the audiences they are interested
+ * in, for example the one of their tenant or user. The default {@link GlobalEventBus} implements
+ * this interface, it is bound if a {@link BusModule} is installed and no own implementation of
+ * GlobalEventBus is used.
+ *
+ * <code> {@literal @}Inject private AudienceEventBus audienceEventBus;
+ *
+ * ... audienceEventBus.joinAudience(tenantId); ...
+ *
+ * ... audienceEventBus.post(new TenantDataChangedEvent(), tenantId); ...
+ *
+ * </code> </pre>
+ */
+public interface AudienceEventBus extends GlobalEventBus {
+
+    /**
+     * posts the event only to subscribers that were registered in a {@link
+     * com.vaadin.server.VaadinSession} that joined the audience, for example all sessions of one
+     * tenant or one user. Unlike {@link #post(Object)}, the cost of this is proportional to the
+     * size of the audience, not to the number of sessions. No {@link
+     * com.google.common.eventbus.DeadEvent} is posted if the audience is empty.
+     *
+     * @param audienceKey a key with proper equals and hashCode, like a tenant- or user-id
+     */
+    void post(Object object, Object audienceKey);
+
+    /**
+     * lets the current {@link com.vaadin.server.VaadinSession} join the audience, see {@link
+     * #post(Object, Object)}. Memberships end with the session.
+     */
+    void joinAudience(Object audienceKey);
+
+    /**
+     * lets the current {@link com.vaadin.server.VaadinSession} leave the audience
+     */
+    void leaveAudience(Object audienceKey);
+}
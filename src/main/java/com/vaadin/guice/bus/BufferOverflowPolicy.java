@@ -0,0 +1,22 @@
+package com.vaadin.guice.bus;
+
+/**
+ * What the {@link GlobalEventBus} does with an event for a UI without push whose pending buffer is
+ * full, see {@link PendingEventBufferConfiguration}.
+ */
+public enum BufferOverflowPolicy {
+    /**
+     * a buffered event of the same class is discarded in favour of the new one, if there is none
+     * the oldest buffered event is discarded
+     */
+    COALESCE,
+    /**
+     * the oldest buffered event is discarded in favour of the new one
+     */
+    DROP_OLDEST,
+    /**
+     * all buffered events are discarded, as are all further events, and the page is reloaded on the
+     * next request of the UI's client, which rebuilds the UI with the current state
+     */
+    REFRESH
+}
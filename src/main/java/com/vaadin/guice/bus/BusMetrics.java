@@ -0,0 +1,41 @@
+package com.vaadin.guice.bus;
+
+/**
+ * Sink for what the busses do at runtime, set it via {@link BusModule#setBusMetrics(Class)}. {@link
+ * NoOpBusMetrics} is used by default, {@link JmxBusMetrics} publishes the metrics via JMX. The bus is
+ * identified by a name, which is "global", "session", "ui" or "view" for the busses of
+ * guice-vaadin. Implementations will be called on every post, so they need to be thread-safe and
+ * fast.
+ */
+public interface BusMetrics {
+
+    /**
+     * called once per posted event
+     *
+     * @param subscribers the number of subscribers the event is dispatched to, 0 for dead events
+     */
+    void recordPost(String bus, Class<?> eventClass, int subscribers);
+
+    /**
+     * called after an event was dispatched to its subscribers. For the {@link GlobalEventBus}, this
+     * includes scheduling the access-tasks of UIs, but not running them.
+     */
+    void recordDispatch(String bus, Class<?> eventClass, long durationNanos);
+
+    /**
+     * called whenever the {@link GlobalEventBus} schedules a {@link com.vaadin.ui.UI#access(Runnable)}
+     */
+    void recordUIAccess(String bus);
+
+    /**
+     * called for every event that has no subscribers and is therefore re-posted as {@link
+     * com.google.common.eventbus.DeadEvent}
+     */
+    void recordDeadEvent(String bus, Class<?> eventClass);
+
+    /**
+     * called for every exception that is thrown by a subscriber, in addition to the exception
+     * being logged
+     */
+    void recordSubscriberException(String bus, Class<?> eventClass, Throwable throwable);
+}
@@ -1,18 +1,22 @@
 package com.vaadin.guice.bus;
 
 import com.google.inject.AbstractModule;
-import com.google.inject.Injector;
-import com.google.inject.Provider;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.multibindings.Multibinder;
 
-import com.vaadin.guice.server.NeedsInjector;
+import com.vaadin.guice.server.RoundTripListener;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.inject.name.Names.named;
 
 /**
  * The busses in com.vaadin.guice.bus can perfectly be used without this module, except of
  * the {@link GlobalEventBus}, which is an interface that needs to be bound by calling either
  * {@link BusModule#BusModule()} for the default non-distributed EventBus or by calling {@link BusModule#BusModule(Class)}
- * with an own implementation that may be distributed. Bus-registration will be wired up for you by guice.
+ * with an own implementation that may be distributed. The default EventBus can be distributed as well,
+ * see {@link BusModule#setEventTransport(EventTransport, String...)}. Bus-registration will be wired up for you by guice.
  * If a BusModule is applied, Guice will register every instance with a @Subscribe annotation to the
  * corresponding bus via the marker interfaces in com.vaadin.guice.bus.events.
  * For example in the following code, Guice will register every new instance of Foo to the UIEventBus after creation.
@@ -31,12 +35,20 @@ import static com.google.common.base.Preconditions.checkNotNull;
  *     </code>
  * </pre>
  */
-public class BusModule extends AbstractModule implements NeedsInjector {
-    private final Class<? extends GlobalEventBus> globalEventBusClass;
-    private Provider<Injector> injectorProvider;
+public class BusModule extends AbstractModule {
+    private static final String DEFAULT_IMPLEMENTATION = "com.google.common.eventbus.GlobalEventBusImpl";
+    private static final String CLUSTERED_IMPLEMENTATION = "com.google.common.eventbus.ClusteredGlobalEventBusImpl";
+
+    private Class<? extends GlobalEventBus> globalEventBusClass;
+    private AsyncDispatchConfiguration asyncDispatchConfiguration;
+    private EventTransport eventTransport;
+    private String[] eventPackages;
+    private SubscriberRegistryMode subscriberRegistryMode;
+    private PendingEventBufferConfiguration pendingEventBufferConfiguration;
+    private Class<? extends BusMetrics> busMetricsClass = NoOpBusMetrics.class;
 
     public BusModule() {
-        this(getDefaultImplementationClass());
+        this(getImplementationClass(DEFAULT_IMPLEMENTATION));
     }
 
     public BusModule(Class<? extends GlobalEventBus> globalEventBusClass) {
@@ -44,9 +56,9 @@ public class BusModule extends AbstractModule implements NeedsInjector {
     }
 
     @SuppressWarnings("unchecked")
-    private static Class<? extends GlobalEventBus> getDefaultImplementationClass() {
+    private static Class<? extends GlobalEventBus> getImplementationClass(String className) {
         try {
-            return (Class<? extends GlobalEventBus>) Class.forName("com.google.common.eventbus.GlobalEventBusImpl");
+            return (Class<? extends GlobalEventBus>) Class.forName(className);
         } catch (ClassNotFoundException e) {
             //will not happen
             throw new RuntimeException(e);
@@ -56,15 +68,130 @@ public class BusModule extends AbstractModule implements NeedsInjector {
     @Override
     protected void configure() {
         bindListener(
-                new SubscriberMethodsMatcher(),
-                new SubscriptionTypeListener(injectorProvider, globalEventBusClass)
+                Matchers.any(),
+                new SubscriptionTypeListener(globalEventBusClass)
         );
 
         bind(GlobalEventBus.class).to(globalEventBusClass);
+        bind(BusMetrics.class).to(busMetricsClass);
+
+        if (AudienceEventBus.class.isAssignableFrom(globalEventBusClass)) {
+            bind(AudienceEventBus.class).to(globalEventBusClass.asSubclass(AudienceEventBus.class));
+        }
+
+        if (AsyncDispatchStatistics.class.isAssignableFrom(globalEventBusClass)) {
+            bind(AsyncDispatchStatistics.class).to(globalEventBusClass.asSubclass(AsyncDispatchStatistics.class));
+        }
+
+        if (SubscriberRegistryStatistics.class.isAssignableFrom(globalEventBusClass)) {
+            bind(SubscriberRegistryStatistics.class).to(globalEventBusClass.asSubclass(SubscriberRegistryStatistics.class));
+        }
+
+        if (asyncDispatchConfiguration != null) {
+            bind(AsyncDispatchConfiguration.class).toInstance(asyncDispatchConfiguration);
+        }
+
+        if (eventTransport != null) {
+            bind(EventTransport.class).toInstance(eventTransport);
+            bind(String[].class)
+                    .annotatedWith(named("guice_bus_clustered_event_packages"))
+                    .toInstance(eventPackages);
+        }
+
+        if (subscriberRegistryMode != null) {
+            bind(SubscriberRegistryMode.class).toInstance(subscriberRegistryMode);
+        }
+
+        if (pendingEventBufferConfiguration != null) {
+            bind(PendingEventBufferConfiguration.class).toInstance(pendingEventBufferConfiguration);
+
+            if (RoundTripListener.class.isAssignableFrom(globalEventBusClass)) {
+                Multibinder
+                        .newSetBinder(binder(), RoundTripListener.class)
+                        .addBinding()
+                        .to(globalEventBusClass.asSubclass(RoundTripListener.class));
+            }
+        }
     }
 
-    @Override
-    public void setInjectorProvider(Provider<Injector> injectorProvider) {
-        this.injectorProvider = injectorProvider;
+    /**
+     * let the default {@link GlobalEventBus} dispatch events asynchronously, to be called in the
+     * constructor of a subclass:
+     *
+     * <pre>
+     *     <code>
+     *         public class MyBusModule extends BusModule {
+     *             public MyBusModule() {
+     *                 setAsyncDispatchConfiguration(new AsyncDispatchConfiguration(4, 10000, QueueFullPolicy.CALLER_RUNS));
+     *             }
+     *         }
+     *     </code>
+     * </pre>
+     */
+    protected void setAsyncDispatchConfiguration(AsyncDispatchConfiguration asyncDispatchConfiguration) {
+        this.asyncDispatchConfiguration = checkNotNull(asyncDispatchConfiguration);
+    }
+
+    /**
+     * connect the {@link GlobalEventBus}es of multiple nodes via the given {@link EventTransport},
+     * so events that are posted on one node are dispatched on all nodes. To be called in the
+     * constructor of a subclass, can not be combined with an own implementation of {@link
+     * GlobalEventBus}. Use {@link LoopbackEventTransport} for tests.
+     *
+     * @param eventPackages the packages of the events and audience-keys that may be received from
+     *                      other nodes, sub-packages included. Received batches are deserialized
+     *                      with java serialization, so only classes from these packages and a few
+     *                      JDK value types and collections are accepted.
+     */
+    protected void setEventTransport(EventTransport eventTransport, String... eventPackages) {
+        checkState(
+                globalEventBusClass.getName().equals(DEFAULT_IMPLEMENTATION),
+                "an EventTransport cannot be used with %s",
+                globalEventBusClass
+        );
+
+        checkArgument(eventPackages.length > 0, "at least one event package is required");
+
+        this.eventTransport = checkNotNull(eventTransport);
+        this.eventPackages = eventPackages.clone();
+        this.globalEventBusClass = getImplementationClass(CLUSTERED_IMPLEMENTATION);
+    }
+
+    /**
+     * choose how the default {@link GlobalEventBus} references its subscribers, to be called in the
+     * constructor of a subclass. {@link SubscriberRegistryMode#COPY_ON_WRITE} is used if this
+     * method is not called.
+     */
+    protected void setSubscriberRegistryMode(SubscriberRegistryMode subscriberRegistryMode) {
+        this.subscriberRegistryMode = checkNotNull(subscriberRegistryMode);
+    }
+
+    /**
+     * let the default {@link GlobalEventBus} buffer events for UIs without push until their
+     * client's next request, to be called in the constructor of a subclass:
+     *
+     * <pre>
+     *     <code>
+     *         public class MyBusModule extends BusModule {
+     *             public MyBusModule() {
+     *                 setPendingEventBufferConfiguration(new PendingEventBufferConfiguration(100, BufferOverflowPolicy.COALESCE));
+     *             }
+     *         }
+     *     </code>
+     * </pre>
+     *
+     * Requires the {@link com.vaadin.guice.server.GuiceVaadinServlet}.
+     */
+    protected void setPendingEventBufferConfiguration(PendingEventBufferConfiguration pendingEventBufferConfiguration) {
+        this.pendingEventBufferConfiguration = checkNotNull(pendingEventBufferConfiguration);
+    }
+
+    /**
+     * choose where the busses report what they do, to be called in the constructor of a subclass.
+     * Nothing is recorded if this method is not called, pass {@link JmxBusMetrics} to publish the
+     * metrics via JMX.
+     */
+    protected void setBusMetrics(Class<? extends BusMetrics> busMetricsClass) {
+        this.busMetricsClass = checkNotNull(busMetricsClass);
     }
 }
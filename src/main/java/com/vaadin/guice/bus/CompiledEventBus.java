@@ -0,0 +1,336 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.StickyEventBuffer;
+import com.google.inject.Inject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An event bus with the semantics of guava's {@link EventBus}, but without reflection on the hot
+ * path. The {@link com.google.common.eventbus.Subscribe}-methods of a class are scanned only once
+ * and are called through generated {@link SubscriberInvoker}s, so neither registering an object nor
+ * posting an event involves reflection.
+ *
+ * <p> Like guava's EventBus, subscribers of all super-types of an event receive it, events with no
+ * subscribers are re-posted as {@link DeadEvent}, events that are posted by a subscriber are queued
+ * until the current event is dispatched completely and exceptions thrown by subscribers are logged.
+ * </p>
+ *
+ * <p> Events of classes that are annotated with {@link com.vaadin.guice.bus.events.Sticky} are
+ * kept and replayed to subscribers that register later. </p>
+ *
+ * @author Bernd Hopp (bernd@vaadin.com)
+ */
+public class CompiledEventBus {
+
+    private static final Registration[] NO_REGISTRATIONS = new Registration[0];
+    private static final BusMetrics NO_OP_BUS_METRICS = new NoOpBusMetrics();
+
+    private final String identifier;
+    private final Logger logger;
+    private final ConcurrentMap<Class<?>, Registration[]> registrationsByEventType = new ConcurrentHashMap<Class<?>, Registration[]>();
+    private final StickyEventBuffer stickyEventBuffer = new StickyEventBuffer();
+    private BusMetrics busMetrics = NO_OP_BUS_METRICS;
+
+    /**
+     * per bus like guava's EventBus, so an event that a subscriber posts to another bus is
+     * dispatched right away instead of waiting for the event of this bus
+     */
+    private final ThreadLocal<DispatchQueue> dispatchQueue = new ThreadLocal<DispatchQueue>() {
+        @Override
+        protected DispatchQueue initialValue() {
+            return new DispatchQueue();
+        }
+    };
+
+    public CompiledEventBus() {
+        this("default");
+    }
+
+    public CompiledEventBus(String identifier) {
+        this.identifier = checkNotNull(identifier);
+        this.logger = Logger.getLogger(EventBus.class.getName() + "." + identifier);
+    }
+
+    public final String identifier() {
+        return identifier;
+    }
+
+    /**
+     * optional, since {@link BusMetrics} is only bound if a {@link BusModule} is installed
+     */
+    @Inject(optional = true)
+    void setBusMetrics(BusMetrics busMetrics) {
+        this.busMetrics = checkNotNull(busMetrics);
+    }
+
+    /**
+     * registers all {@link com.google.common.eventbus.Subscribe}-methods of the object, registering
+     * an object twice has no effect. Retained {@link com.vaadin.guice.bus.events.Sticky} events are
+     * replayed to the newly registered methods.
+     */
+    public void register(Object object) {
+        register(object, SubscriberMethods.of(object.getClass()));
+    }
+
+    /**
+     * registers the object with subscriber-methods that have been looked up before, see {@link
+     * SubscriptionTypeListener}
+     */
+    void register(Object object, SubscriberMethod[] subscriberMethods) {
+        if (subscriberMethods.length == 0) {
+            return;
+        }
+
+        List<Registration> addedRegistrations = null;
+
+        synchronized (registrationsByEventType) {
+            for (SubscriberMethod subscriberMethod : subscriberMethods) {
+                final Registration[] registrations = getRegistrations(subscriberMethod.getEventType());
+
+                if (indexOf(registrations, object, subscriberMethod) != -1) {
+                    continue;
+                }
+
+                final Registration registration = new Registration(object, ownerOf(object), subscriberMethod);
+
+                final Registration[] newRegistrations = new Registration[registrations.length + 1];
+                System.arraycopy(registrations, 0, newRegistrations, 0, registrations.length);
+                newRegistrations[registrations.length] = registration;
+
+                registrationsByEventType.put(subscriberMethod.getEventType(), newRegistrations);
+
+                if (!stickyEventBuffer.isEmpty()) {
+                    if (addedRegistrations == null) {
+                        addedRegistrations = new ArrayList<Registration>(subscriberMethods.length);
+                    }
+
+                    addedRegistrations.add(registration);
+                }
+            }
+        }
+
+        if (addedRegistrations != null) {
+            replayStickyEvents(addedRegistrations);
+        }
+    }
+
+    /**
+     * the owner of a subscriber that is registered on the current thread, kept with the subscriber's
+     * registration for {@link #dispatch(Object, Registration[])}. The default is no owner.
+     */
+    Object ownerOf(Object subscriber) {
+        return null;
+    }
+
+    private void replayStickyEvents(List<Registration> registrations) {
+        for (Object event : stickyEventBuffer.getRetainedEvents()) {
+            final Set<Class<?>> eventTypes = SubscriberMethods.eventTypesOf(event.getClass());
+
+            for (Registration registration : registrations) {
+                if (eventTypes.contains(registration.subscriberMethod.getEventType())) {
+                    dispatch(event, new Registration[]{registration});
+                }
+            }
+        }
+    }
+
+    /**
+     * unregisters all {@link com.google.common.eventbus.Subscribe}-methods of the object
+     *
+     * @throws IllegalArgumentException if the object was not registered
+     */
+    public void unregister(Object object) {
+        final SubscriberMethod[] subscriberMethods = SubscriberMethods.of(object.getClass());
+
+        synchronized (registrationsByEventType) {
+            for (SubscriberMethod subscriberMethod : subscriberMethods) {
+                final Registration[] registrations = getRegistrations(subscriberMethod.getEventType());
+
+                final int index = indexOf(registrations, object, subscriberMethod);
+
+                checkArgument(
+                        index != -1,
+                        "missing event subscriber for an annotated method. Is %s registered?",
+                        object
+                );
+
+                if (registrations.length == 1) {
+                    registrationsByEventType.remove(subscriberMethod.getEventType());
+                    continue;
+                }
+
+                final Registration[] newRegistrations = new Registration[registrations.length - 1];
+                System.arraycopy(registrations, 0, newRegistrations, 0, index);
+                System.arraycopy(registrations, index + 1, newRegistrations, index, registrations.length - index - 1);
+
+                registrationsByEventType.put(subscriberMethod.getEventType(), newRegistrations);
+            }
+        }
+    }
+
+    /**
+     * posts the event to all subscribers of the event's class and it's super-types, returns after
+     * the event has been dispatched to all of them
+     */
+    public void post(Object event) {
+        stickyEventBuffer.retain(event);
+
+        final DispatchQueue queue = dispatchQueue.get();
+
+        int subscribers = 0;
+
+        for (Class<?> eventType : SubscriberMethods.eventTypesOf(event.getClass())) {
+            final Registration[] registrations = registrationsByEventType.get(eventType);
+
+            if (registrations != null) {
+                queue.pending.offer(new PendingDispatch(event, registrations));
+                subscribers += registrations.length;
+            }
+        }
+
+        busMetrics.recordPost(identifier, event.getClass(), subscribers);
+
+        if (subscribers == 0 && !(event instanceof DeadEvent)) {
+            busMetrics.recordDeadEvent(identifier, event.getClass());
+            post(new DeadEvent(this, event));
+            return;
+        }
+
+        queue.dispatch();
+    }
+
+    private Registration[] getRegistrations(Class<?> eventType) {
+        final Registration[] registrations = registrationsByEventType.get(eventType);
+
+        return registrations != null ? registrations : NO_REGISTRATIONS;
+    }
+
+    private static int indexOf(Registration[] registrations, Object target, SubscriberMethod subscriberMethod) {
+        for (int i = 0; i < registrations.length; i++) {
+            if (registrations[i].target == target && registrations[i].subscriberMethod == subscriberMethod) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * delivers the event to the subscribers on the posting thread, subclasses may deliver elsewhere
+     * as long as each registration is invoked through {@link #invoke(Object, Registration)}
+     */
+    void dispatch(Object event, Registration[] registrations) {
+        final long start = System.nanoTime();
+
+        for (Registration registration : registrations) {
+            invoke(event, registration);
+        }
+
+        busMetrics.recordDispatch(identifier, event.getClass(), System.nanoTime() - start);
+    }
+
+    final void invoke(Object event, Registration registration) {
+        try {
+            registration.invoke(event);
+        } catch (Exception e) {
+            busMetrics.recordSubscriberException(identifier, event.getClass(), e);
+
+            logger.log(
+                    Level.SEVERE,
+                    "Exception thrown by subscriber method " + registration.subscriberMethod.getMethod()
+                            + " on subscriber " + registration.target + " when dispatching event: " + event,
+                    e
+            );
+        }
+    }
+
+    final BusMetrics getBusMetrics() {
+        return busMetrics;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + identifier + "]";
+    }
+
+    static final class Registration {
+        private final Object target;
+        private final Object owner;
+        private final SubscriberMethod subscriberMethod;
+
+        Registration(Object target, Object owner, SubscriberMethod subscriberMethod) {
+            this.target = target;
+            this.owner = owner;
+            this.subscriberMethod = subscriberMethod;
+        }
+
+        Object getTarget() {
+            return target;
+        }
+
+        Object getOwner() {
+            return owner;
+        }
+
+        void invoke(Object event) throws Exception {
+            if (subscriberMethod.isThreadSafe()) {
+                subscriberMethod.getInvoker().invoke(target, event);
+            } else {
+                synchronized (this) {
+                    subscriberMethod.getInvoker().invoke(target, event);
+                }
+            }
+        }
+    }
+
+    private static final class PendingDispatch {
+        private final Object event;
+        private final Registration[] registrations;
+
+        PendingDispatch(Object event, Registration[] registrations) {
+            this.event = event;
+            this.registrations = registrations;
+        }
+    }
+
+    /**
+     * events that are posted while another event of this bus is dispatched on the same thread are
+     * queued, so that all subscribers see events in the order they were posted
+     */
+    private final class DispatchQueue {
+        private final Queue<PendingDispatch> pending = new ArrayDeque<PendingDispatch>();
+        private boolean dispatching;
+
+        void dispatch() {
+            if (dispatching) {
+                return;
+            }
+
+            dispatching = true;
+
+            try {
+                PendingDispatch pendingDispatch;
+
+                while ((pendingDispatch = pending.poll()) != null) {
+                    CompiledEventBus.this.dispatch(pendingDispatch.event, pendingDispatch.registrations);
+                }
+            } finally {
+                dispatching = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.StickyEventBuffer;
+import com.google.inject.Inject;
+
+import com.vaadin.server.VaadinSession;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A bus for objects that are confined to a single {@link com.vaadin.ui.UI}, which means all calls
+ * happen while the UI's session is locked. Since there is no concurrency, this bus needs no
+ * concurrent maps, no locks and no thread-locals. An empty bus holds no more than a few fields,
+ * subscribers are kept in two arrays that are allocated on the first registration and scanned on
+ * every post, which is faster than a lookup for the handful of subscribers a UI or view has.
+ *
+ * <p> Apart from thread-safety, the semantics are those of {@link CompiledEventBus}. </p>
+ *
+ * <p> The bus is not thread-safe. Busses that are created with a session, like {@link UIEventBus}
+ * and {@link ViewEventBus}, throw an {@link IllegalStateException} if they are used by a thread
+ * that doesn't hold the session's lock, background-threads need to go through {@link
+ * com.vaadin.ui.UI#access(Runnable)}. Busses without a session are not checked. </p>
+ *
+ * @author Bernd Hopp (bernd@vaadin.com)
+ */
+public class ConfinedEventBus {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final BusMetrics NO_OP_BUS_METRICS = new NoOpBusMetrics();
+
+    private final String identifier;
+    private final VaadinSession session;
+    private Object[] targets;
+    private SubscriberMethod[] subscriberMethods;
+    private int size;
+    private ArrayDeque<Object> pendingEvents;
+    private boolean dispatching;
+    private StickyEventBuffer stickyEventBuffer;
+    private BusMetrics busMetrics = NO_OP_BUS_METRICS;
+
+    /**
+     * @param identifier the name of the bus, should be a constant since it is kept per instance
+     */
+    public ConfinedEventBus(String identifier) {
+        this(identifier, null);
+    }
+
+    /**
+     * @param session the session whose lock has to be held when the bus is used, may be null if
+     *                there is nothing to check
+     */
+    ConfinedEventBus(String identifier, VaadinSession session) {
+        this.identifier = checkNotNull(identifier);
+        this.session = session;
+    }
+
+    public final String identifier() {
+        return identifier;
+    }
+
+    /**
+     * optional, since {@link BusMetrics} is only bound if a {@link BusModule} is installed
+     */
+    @Inject(optional = true)
+    void setBusMetrics(BusMetrics busMetrics) {
+        this.busMetrics = checkNotNull(busMetrics);
+    }
+
+    /**
+     * registers all {@link com.google.common.eventbus.Subscribe}-methods of the object, registering
+     * an object twice has no effect. Retained {@link com.vaadin.guice.bus.events.Sticky} events are
+     * replayed to the newly registered methods.
+     */
+    public void register(Object object) {
+        register(object, SubscriberMethods.of(object.getClass()));
+    }
+
+    /**
+     * registers the object with subscriber-methods that have been looked up before, see {@link
+     * SubscriptionTypeListener}
+     */
+    void register(Object object, SubscriberMethod[] subscriberMethods) {
+        checkLocked();
+
+        if (subscriberMethods.length == 0) {
+            return;
+        }
+
+        final int sizeBefore = size;
+
+        for (SubscriberMethod subscriberMethod : subscriberMethods) {
+            if (indexOf(object, subscriberMethod) != -1) {
+                continue;
+            }
+
+            ensureCapacity(size + 1);
+
+            targets[size] = object;
+            this.subscriberMethods[size] = subscriberMethod;
+            size++;
+        }
+
+        if (stickyEventBuffer != null && size > sizeBefore) {
+            for (Object event : stickyEventBuffer.getRetainedEvents()) {
+                dispatch(event, SubscriberMethods.eventTypesOf(event.getClass()), sizeBefore, size);
+            }
+        }
+    }
+
+    /**
+     * unregisters all {@link com.google.common.eventbus.Subscribe}-methods of the object
+     *
+     * @throws IllegalArgumentException if the object was not registered
+     */
+    public void unregister(Object object) {
+        checkLocked();
+
+        for (SubscriberMethod subscriberMethod : SubscriberMethods.of(object.getClass())) {
+            final int index = indexOf(object, subscriberMethod);
+
+            checkArgument(
+                    index != -1,
+                    "missing event subscriber for an annotated method. Is %s registered?",
+                    object
+            );
+
+            //copy instead of shifting in place, a dispatch may be iterating the current arrays
+            final Object[] newTargets = new Object[targets.length];
+            final SubscriberMethod[] newSubscriberMethods = new SubscriberMethod[subscriberMethods.length];
+
+            System.arraycopy(targets, 0, newTargets, 0, index);
+            System.arraycopy(targets, index + 1, newTargets, index, size - index - 1);
+            System.arraycopy(subscriberMethods, 0, newSubscriberMethods, 0, index);
+            System.arraycopy(subscriberMethods, index + 1, newSubscriberMethods, index, size - index - 1);
+
+            targets = newTargets;
+            subscriberMethods = newSubscriberMethods;
+            size--;
+        }
+    }
+
+    /**
+     * posts the event to all subscribers of the event's class and it's super-types. Events that are
+     * posted by a subscriber are dispatched after the current event.
+     */
+    public void post(Object event) {
+        checkNotNull(event);
+        checkLocked();
+
+        if (StickyEventBuffer.isSticky(event.getClass())) {
+            if (stickyEventBuffer == null) {
+                stickyEventBuffer = new StickyEventBuffer();
+            }
+
+            stickyEventBuffer.retain(event);
+        }
+
+        if (dispatching) {
+            if (pendingEvents == null) {
+                pendingEvents = new ArrayDeque<Object>(INITIAL_CAPACITY);
+            }
+
+            pendingEvents.add(event);
+            return;
+        }
+
+        dispatching = true;
+
+        try {
+            Object nextEvent = event;
+
+            do {
+                dispatchPosted(nextEvent);
+            } while (pendingEvents != null && (nextEvent = pendingEvents.poll()) != null);
+        } finally {
+            dispatching = false;
+        }
+    }
+
+    private void dispatchPosted(Object event) {
+        final int subscribers = dispatch(event, SubscriberMethods.eventTypesOf(event.getClass()), 0, size);
+
+        busMetrics.recordPost(identifier, event.getClass(), subscribers);
+
+        if (subscribers == 0 && !(event instanceof DeadEvent)) {
+            busMetrics.recordDeadEvent(identifier, event.getClass());
+            dispatchPosted(new DeadEvent(this, event));
+        }
+    }
+
+    /**
+     * @return the number of subscribers the event was dispatched to
+     */
+    private int dispatch(Object event, Set<Class<?>> eventTypes, int from, int to) {
+        final long start = System.nanoTime();
+
+        //subscribers that register or unregister during the dispatch replace the arrays
+        final Object[] targets = this.targets;
+        final SubscriberMethod[] subscriberMethods = this.subscriberMethods;
+
+        int subscribers = 0;
+
+        for (int i = from; i < to && i < targets.length; i++) {
+            final SubscriberMethod subscriberMethod = subscriberMethods[i];
+
+            if (subscriberMethod == null || !eventTypes.contains(subscriberMethod.getEventType())) {
+                continue;
+            }
+
+            subscribers++;
+
+            try {
+                subscriberMethod.getInvoker().invoke(targets[i], event);
+            } catch (Exception e) {
+                busMetrics.recordSubscriberException(identifier, event.getClass(), e);
+
+                Logger.getLogger(EventBus.class.getName() + "." + identifier).log(
+                        Level.SEVERE,
+                        "Exception thrown by subscriber method " + subscriberMethod.getMethod()
+                                + " on subscriber " + targets[i] + " when dispatching event: " + event,
+                        e
+                );
+            }
+        }
+
+        if (subscribers > 0) {
+            busMetrics.recordDispatch(identifier, event.getClass(), System.nanoTime() - start);
+        }
+
+        return subscribers;
+    }
+
+    private void checkLocked() {
+        checkState(
+                session == null || session.hasLock(),
+                "%s must only be used while its session is locked, use UI.access() from other threads",
+                this
+        );
+    }
+
+    private int indexOf(Object target, SubscriberMethod subscriberMethod) {
+        for (int i = 0; i < size; i++) {
+            if (targets[i] == target && subscriberMethods[i] == subscriberMethod) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (targets == null) {
+            targets = new Object[Math.max(INITIAL_CAPACITY, capacity)];
+            subscriberMethods = new SubscriberMethod[targets.length];
+        } else if (targets.length < capacity) {
+            final int newLength = Math.max(targets.length * 2, capacity);
+
+            final Object[] newTargets = new Object[newLength];
+            final SubscriberMethod[] newSubscriberMethods = new SubscriberMethod[newLength];
+
+            System.arraycopy(targets, 0, newTargets, 0, size);
+            System.arraycopy(subscriberMethods, 0, newSubscriberMethods, 0, size);
+
+            targets = newTargets;
+            subscriberMethods = newSubscriberMethods;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + identifier + "]";
+    }
+}
@@ -0,0 +1,38 @@
+package com.vaadin.guice.bus;
+
+/**
+ * SPI for the transport that connects the {@link GlobalEventBus}es of multiple nodes, see {@link
+ * BusModule#setEventTransport(EventTransport, String...)}. The transport only moves opaque batches
+ * of serialized events, encoding, batching and the filtering of a node's own batches are done by
+ * the bus. Received batches may only contain classes from the configured event packages, but since
+ * they are still deserialized with java serialization, a transport should only accept batches from
+ * trusted nodes.
+ */
+public interface EventTransport {
+
+    /**
+     * connect to the other nodes, called once when the bus is created
+     *
+     * @param receiver the receiver that all batches from other nodes are to be passed to. Passing
+     *                 batches of the local node is allowed, they will be ignored.
+     */
+    void start(Receiver receiver);
+
+    /**
+     * send a batch to all other nodes. May be called from any thread, but not concurrently.
+     */
+    void send(byte[] batch);
+
+    /**
+     * disconnect from the other nodes, called when the {@link com.vaadin.server.VaadinService} is
+     * destroyed
+     */
+    void stop();
+
+    /**
+     * callback for incoming batches
+     */
+    interface Receiver {
+        void receive(byte[] batch);
+    }
+}
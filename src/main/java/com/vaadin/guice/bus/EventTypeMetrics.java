@@ -0,0 +1,93 @@
+package com.vaadin.guice.bus;
+
+import com.vaadin.guice.server.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * what {@link JmxBusMetrics} records for one event-class on one bus
+ */
+public final class EventTypeMetrics implements EventTypeMetricsMXBean {
+
+    private final AtomicLong posts = new AtomicLong();
+    private final AtomicLong subscribers = new AtomicLong();
+    private final AtomicLong maxFanOut = new AtomicLong();
+    private final AtomicLong deadEvents = new AtomicLong();
+    private final AtomicLong subscriberExceptions = new AtomicLong();
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+
+    void recordPost(int subscribers) {
+        posts.incrementAndGet();
+        this.subscribers.addAndGet(subscribers);
+
+        long currentMax = maxFanOut.get();
+
+        while (subscribers > currentMax && !maxFanOut.compareAndSet(currentMax, subscribers)) {
+            currentMax = maxFanOut.get();
+        }
+    }
+
+    void recordDispatch(long durationNanos) {
+        dispatchLatency.record(durationNanos);
+    }
+
+    void recordDeadEvent() {
+        deadEvents.incrementAndGet();
+    }
+
+    void recordSubscriberException() {
+        subscriberExceptions.incrementAndGet();
+    }
+
+    @Override
+    public long getPosts() {
+        return posts.get();
+    }
+
+    @Override
+    public double getMeanFanOut() {
+        final long posts = this.posts.get();
+
+        return posts == 0 ? 0 : (double) subscribers.get() / posts;
+    }
+
+    @Override
+    public long getMaxFanOut() {
+        return maxFanOut.get();
+    }
+
+    @Override
+    public long getDeadEvents() {
+        return deadEvents.get();
+    }
+
+    @Override
+    public long getSubscriberExceptions() {
+        return subscriberExceptions.get();
+    }
+
+    @Override
+    public double getDispatchMeanMillis() {
+        return dispatchLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getDispatch50thPercentileMillis() {
+        return dispatchLatency.get50thPercentileMillis();
+    }
+
+    @Override
+    public double getDispatch95thPercentileMillis() {
+        return dispatchLatency.get95thPercentileMillis();
+    }
+
+    @Override
+    public double getDispatch99thPercentileMillis() {
+        return dispatchLatency.get99thPercentileMillis();
+    }
+
+    @Override
+    public double getDispatchMaxMillis() {
+        return dispatchLatency.getMaxMillis();
+    }
+}
@@ -0,0 +1,26 @@
+package com.vaadin.guice.bus;
+
+/**
+ * the JMX-view of {@link EventTypeMetrics}
+ */
+public interface EventTypeMetricsMXBean {
+    long getPosts();
+
+    double getMeanFanOut();
+
+    long getMaxFanOut();
+
+    long getDeadEvents();
+
+    long getSubscriberExceptions();
+
+    double getDispatchMeanMillis();
+
+    double getDispatch50thPercentileMillis();
+
+    double getDispatch95thPercentileMillis();
+
+    double getDispatch99thPercentileMillis();
+
+    double getDispatchMaxMillis();
+}
@@ -15,7 +15,8 @@ package com.vaadin.guice.bus;
  *
  * This is an abstraction for the global event-bus. If you don't supply your own implementation
  * via {@link BusModule#BusModule(Class)}, a subclass of {@link com.google.common.eventbus.EventBus} will be
- * bound, that takes care of cleaning up after session end.
+ * bound, that takes care of cleaning up after session end. The default implementation is an {@link
+ * AudienceEventBus} as well, which can post events to a subset of the sessions.
  *
  * * @author Bernd Hopp (bernd@vaadin.com)
  */
@@ -0,0 +1,177 @@
+package com.vaadin.guice.bus;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
+import com.vaadin.server.VaadinService;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link BusMetrics} that keeps {@link EventTypeMetrics} per bus and event-class and registers them
+ * at the platform MBean server under <code>com.vaadin.guice:type=BusMetrics,instance=id,bus=busName,event="eventClass"</code>.
+ * The number of scheduled UI-accesses is registered per bus under <code>com.vaadin.guice:type=BusMetrics,instance=id,bus=busName</code>.
+ * The instance-key keeps multiple applications in one JVM apart. All MBeans are unregistered when
+ * the {@link VaadinService} is destroyed, so a redeployed application doesn't leak its classloader
+ * through the MBean server. Not used by default, see {@link BusModule#setBusMetrics(Class)}.
+ */
+@Singleton
+public class JmxBusMetrics implements BusMetrics, ServiceDestroyListener {
+
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, EventTypeMetrics>> metricsByBus = new ConcurrentHashMap<String, ConcurrentMap<Class<?>, EventTypeMetrics>>();
+    private final ConcurrentMap<String, UIAccessCounter> uiAccessCountersByBus = new ConcurrentHashMap<String, UIAccessCounter>();
+    private final Set<ObjectName> registeredNames = Collections.newSetFromMap(new ConcurrentHashMap<ObjectName, Boolean>());
+    private final String instance = Integer.toHexString(System.identityHashCode(this));
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    @Inject
+    public JmxBusMetrics(VaadinService vaadinService) {
+        vaadinService.addServiceDestroyListener(this);
+    }
+
+    @Override
+    public void recordPost(String bus, Class<?> eventClass, int subscribers) {
+        getMetrics(bus, eventClass).recordPost(subscribers);
+    }
+
+    @Override
+    public void recordDispatch(String bus, Class<?> eventClass, long durationNanos) {
+        getMetrics(bus, eventClass).recordDispatch(durationNanos);
+    }
+
+    @Override
+    public void recordUIAccess(String bus) {
+        UIAccessCounter uiAccessCounter = uiAccessCountersByBus.get(bus);
+
+        if (uiAccessCounter == null) {
+            uiAccessCounter = new UIAccessCounter();
+
+            final UIAccessCounter existingUIAccessCounter = uiAccessCountersByBus.putIfAbsent(bus, uiAccessCounter);
+
+            if (existingUIAccessCounter != null) {
+                uiAccessCounter = existingUIAccessCounter;
+            } else {
+                register("com.vaadin.guice:type=BusMetrics,instance=" + instance + ",bus=" + ObjectName.quote(bus), uiAccessCounter);
+            }
+        }
+
+        uiAccessCounter.uiAccessCalls.incrementAndGet();
+    }
+
+    @Override
+    public void recordDeadEvent(String bus, Class<?> eventClass) {
+        getMetrics(bus, eventClass).recordDeadEvent();
+    }
+
+    @Override
+    public void recordSubscriberException(String bus, Class<?> eventClass, Throwable throwable) {
+        getMetrics(bus, eventClass).recordSubscriberException();
+    }
+
+    @Override
+    public void serviceDestroy(ServiceDestroyEvent event) {
+        for (ObjectName objectName : registeredNames) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.log(Level.WARNING, "unable to unregister bus metrics {0}", new Object[]{objectName});
+            }
+        }
+
+        registeredNames.clear();
+        metricsByBus.clear();
+        uiAccessCountersByBus.clear();
+    }
+
+    EventTypeMetrics getEventTypeMetrics(String bus, Class<?> eventClass) {
+        final ConcurrentMap<Class<?>, EventTypeMetrics> metricsByEventClass = metricsByBus.get(bus);
+
+        return metricsByEventClass != null ? metricsByEventClass.get(eventClass) : null;
+    }
+
+    long getUIAccessCalls(String bus) {
+        final UIAccessCounter uiAccessCounter = uiAccessCountersByBus.get(bus);
+
+        return uiAccessCounter != null ? uiAccessCounter.getUIAccessCalls() : 0;
+    }
+
+    Set<ObjectName> getRegisteredNames() {
+        return Collections.unmodifiableSet(registeredNames);
+    }
+
+    private EventTypeMetrics getMetrics(String bus, Class<?> eventClass) {
+        ConcurrentMap<Class<?>, EventTypeMetrics> metricsByEventClass = metricsByBus.get(bus);
+
+        if (metricsByEventClass == null) {
+            metricsByEventClass = new ConcurrentHashMap<Class<?>, EventTypeMetrics>();
+
+            final ConcurrentMap<Class<?>, EventTypeMetrics> existingMetricsByEventClass = metricsByBus.putIfAbsent(bus, metricsByEventClass);
+
+            if (existingMetricsByEventClass != null) {
+                metricsByEventClass = existingMetricsByEventClass;
+            }
+        }
+
+        EventTypeMetrics metrics = metricsByEventClass.get(eventClass);
+
+        if (metrics != null) {
+            return metrics;
+        }
+
+        metrics = new EventTypeMetrics();
+
+        final EventTypeMetrics existingMetrics = metricsByEventClass.putIfAbsent(eventClass, metrics);
+
+        if (existingMetrics != null) {
+            return existingMetrics;
+        }
+
+        register(
+                "com.vaadin.guice:type=BusMetrics,instance=" + instance + ",bus=" + ObjectName.quote(bus) + ",event=" + ObjectName.quote(eventClass.getName()),
+                metrics
+        );
+
+        return metrics;
+    }
+
+    private void register(String name, Object mBean) {
+        try {
+            final ObjectName objectName = new ObjectName(name);
+
+            mBeanServer.registerMBean(mBean, objectName);
+            registeredNames.add(objectName);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "unable to register bus metrics {0}", new Object[]{name});
+        }
+    }
+
+    /**
+     * the JMX-view of the number of UI-accesses a bus scheduled
+     */
+    public interface UIAccessCounterMXBean {
+        long getUIAccessCalls();
+    }
+
+    private static final class UIAccessCounter implements UIAccessCounterMXBean {
+        private final AtomicLong uiAccessCalls = new AtomicLong();
+
+        @Override
+        public long getUIAccessCalls() {
+            return uiAccessCalls.get();
+        }
+    }
+}
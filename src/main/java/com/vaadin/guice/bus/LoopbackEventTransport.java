@@ -0,0 +1,58 @@
+package com.vaadin.guice.bus;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * {@link EventTransport} that connects all buses within the same JVM which use the same {@link
+ * Hub}, intended for tests. Every batch is delivered synchronously to all started transports of the
+ * hub, including the sending one.
+ */
+public class LoopbackEventTransport implements EventTransport {
+
+    private static final Hub DEFAULT_HUB = new Hub();
+
+    private final Hub hub;
+    private Receiver receiver;
+
+    /**
+     * creates a transport that is connected to all other transports that were created with this
+     * constructor
+     */
+    public LoopbackEventTransport() {
+        this(DEFAULT_HUB);
+    }
+
+    public LoopbackEventTransport(Hub hub) {
+        this.hub = checkNotNull(hub);
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        checkState(this.receiver == null, "transport is already started");
+        this.receiver = checkNotNull(receiver);
+        hub.transports.add(this);
+    }
+
+    @Override
+    public void send(byte[] batch) {
+        for (LoopbackEventTransport transport : hub.transports) {
+            transport.receiver.receive(batch);
+        }
+    }
+
+    @Override
+    public void stop() {
+        hub.transports.remove(this);
+    }
+
+    /**
+     * the in-memory 'network' of a group of {@link LoopbackEventTransport}s
+     */
+    public static final class Hub {
+        private final Set<LoopbackEventTransport> transports = new CopyOnWriteArraySet<LoopbackEventTransport>();
+    }
+}
@@ -0,0 +1,27 @@
+package com.vaadin.guice.bus;
+
+/**
+ * {@link BusMetrics} that discards everything
+ */
+public final class NoOpBusMetrics implements BusMetrics {
+
+    @Override
+    public void recordPost(String bus, Class<?> eventClass, int subscribers) {
+    }
+
+    @Override
+    public void recordDispatch(String bus, Class<?> eventClass, long durationNanos) {
+    }
+
+    @Override
+    public void recordUIAccess(String bus) {
+    }
+
+    @Override
+    public void recordDeadEvent(String bus, Class<?> eventClass) {
+    }
+
+    @Override
+    public void recordSubscriberException(String bus, Class<?> eventClass, Throwable throwable) {
+    }
+}
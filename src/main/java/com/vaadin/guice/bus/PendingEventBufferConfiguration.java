@@ -0,0 +1,36 @@
+package com.vaadin.guice.bus;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Configuration for buffering the events of the default {@link GlobalEventBus} for UIs without
+ * push, see {@link BusModule#setPendingEventBufferConfiguration(PendingEventBufferConfiguration)}.
+ * Changes to such a UI are not seen by the client before its next request anyway, so instead of
+ * scheduling an access-task per event, events are kept in a bounded buffer per UI and delivered
+ * when the next request of the UI's client arrives. This bounds the memory idle UIs take during
+ * event storms.
+ */
+public final class PendingEventBufferConfiguration {
+    private final int capacity;
+    private final BufferOverflowPolicy bufferOverflowPolicy;
+
+    /**
+     * @param capacity             the number of events that may be buffered per UI
+     * @param bufferOverflowPolicy what happens with events for a UI whose buffer is full
+     */
+    public PendingEventBufferConfiguration(int capacity, BufferOverflowPolicy bufferOverflowPolicy) {
+        checkArgument(capacity > 0, "capacity must be greater than 0, is %s", capacity);
+
+        this.capacity = capacity;
+        this.bufferOverflowPolicy = checkNotNull(bufferOverflowPolicy);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public BufferOverflowPolicy getBufferOverflowPolicy() {
+        return bufferOverflowPolicy;
+    }
+}
@@ -0,0 +1,22 @@
+package com.vaadin.guice.bus;
+
+/**
+ * What the {@link GlobalEventBus} does with an event that is posted while the queue of an
+ * asynchronous dispatch is full, see {@link AsyncDispatchConfiguration}.
+ */
+public enum QueueFullPolicy {
+    /**
+     * the posting thread waits until there is room in the queue, or until the VaadinService is
+     * destroyed, which rejects the post
+     */
+    BLOCK,
+    /**
+     * the oldest event in the queue is discarded in favour of the new one
+     */
+    DROP_OLDEST,
+    /**
+     * the event is dispatched on the posting thread. Note that it may overtake events of the same
+     * type that are still queued.
+     */
+    CALLER_RUNS
+}
@@ -1,8 +1,18 @@
 package com.vaadin.guice.bus;
 
-import com.google.common.eventbus.EventBus;
-
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.guice.annotation.VaadinSessionScope;
+import com.vaadin.guice.annotation.ViewScope;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class serves as a means to allow VaadinSession-scope communication between objects.
@@ -16,10 +26,132 @@ import com.vaadin.guice.annotation.VaadinSessionScope;
  *
  * </code> </pre>
  *
+ * <p> {@link Component}s belong to the UI they are attached to, subscribers whose class is
+ * annotated with {@link UIScope}, {@link ViewScope} or {@link GuiceView} belong to the UI that was
+ * current when they were registered. Any other subscriber, like a {@link VaadinSessionScope}d one,
+ * belongs to no UI. Subscribers of the current UI and subscribers that belong to no UI are called
+ * on the posting thread, subscribers of each other UI of the session are called in a single {@link
+ * UI#access(Runnable)} for that UI, so changes are made under that UI's lock and pushed once.
+ * Subscribers of closed or detached UIs are skipped. The UI is only weakly referenced by a
+ * registration, so a subscriber that is never unregistered doesn't keep a closed UI and its
+ * component-tree in memory. </p>
+ *
+ * <p> Up to version 1.x this was a subclass of guava's {@link com.google.common.eventbus.EventBus},
+ * since 2.0 it extends {@link CompiledEventBus}. {@code register}, {@code unregister} and {@code post}
+ * are unchanged, fields or parameters of type EventBus need to be changed to SessionEventBus. {@code
+ * identifier} now returns "session" instead of "default", it names the bus in {@link BusMetrics}. </p>
+ *
  * @author Bernd Hopp (bernd@vaadin.com)
  */
 @VaadinSessionScope
-public final class SessionEventBus extends EventBus {
+public final class SessionEventBus extends CompiledEventBus {
     SessionEventBus() {
+        super("session");
+    }
+
+    private static boolean belongsToUI(Object subscriber) {
+        if (subscriber instanceof Component) {
+            return true;
+        }
+
+        for (Class<?> clazz = subscriber.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            if (clazz.isAnnotationPresent(UIScope.class)
+                    || clazz.isAnnotationPresent(ViewScope.class)
+                    || clazz.isAnnotationPresent(GuiceView.class)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    Object ownerOf(Object subscriber) {
+        if (!belongsToUI(subscriber)) {
+            return null;
+        }
+
+        final UI ui = UI.getCurrent();
+
+        return ui != null ? new WeakReference<UI>(ui) : null;
+    }
+
+    @Override
+    void dispatch(final Object event, Registration[] registrations) {
+        final long start = System.nanoTime();
+        final UI currentUI = UI.getCurrent();
+
+        Map<UI, List<Registration>> registrationsByOtherUI = null;
+
+        for (Registration registration : registrations) {
+            final UI ui = getUI(registration);
+
+            if (ui == null && registration.getOwner() != null) {
+                //the UI the subscriber was registered in has been garbage-collected
+                continue;
+            }
+
+            if (ui == null || ui == currentUI) {
+                invoke(event, registration);
+                continue;
+            }
+
+            if (ui.isClosing() || ui.getSession() == null) {
+                continue;
+            }
+
+            if (registrationsByOtherUI == null) {
+                registrationsByOtherUI = new IdentityHashMap<UI, List<Registration>>();
+            }
+
+            List<Registration> registrationsOfUI = registrationsByOtherUI.get(ui);
+
+            if (registrationsOfUI == null) {
+                registrationsOfUI = new ArrayList<Registration>();
+                registrationsByOtherUI.put(ui, registrationsOfUI);
+            }
+
+            registrationsOfUI.add(registration);
+        }
+
+        getBusMetrics().recordDispatch(identifier(), event.getClass(), System.nanoTime() - start);
+
+        if (registrationsByOtherUI == null) {
+            return;
+        }
+
+        for (Map.Entry<UI, List<Registration>> entry : registrationsByOtherUI.entrySet()) {
+            final List<Registration> registrationsOfUI = entry.getValue();
+
+            getBusMetrics().recordUIAccess(identifier());
+
+            try {
+                entry.getKey().access(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Registration registration : registrationsOfUI) {
+                            invoke(event, registration);
+                        }
+                    }
+                });
+            } catch (UIDetachedException e) {
+                //the UI has been detached since the check above, so there's no one to notify
+            }
+        }
+    }
+
+    private static UI getUI(Registration registration) {
+        if (registration.getTarget() instanceof Component) {
+            final UI ui = ((Component) registration.getTarget()).getUI();
+
+            if (ui != null) {
+                return ui;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        final WeakReference<UI> owner = (WeakReference<UI>) registration.getOwner();
+
+        return owner != null ? owner.get() : null;
     }
 }
@@ -0,0 +1,16 @@
+package com.vaadin.guice.bus;
+
+/**
+ * Calls a single {@link com.google.common.eventbus.Subscribe}-method. Implementations are generated
+ * once per method by guice-vaadin, see {@link CompiledEventBus}, this interface is not meant to be
+ * implemented by applications.
+ */
+public interface SubscriberInvoker {
+
+    /**
+     * @param target the object that declares the subscriber-method
+     * @param event  the event, already checked to be assignable to the method's parameter
+     * @throws Exception any exception that the subscriber-method throws
+     */
+    void invoke(Object target, Object event) throws Exception;
+}
@@ -0,0 +1,41 @@
+package com.vaadin.guice.bus;
+
+import java.lang.reflect.Method;
+
+/**
+ * a {@link com.google.common.eventbus.Subscribe}-method together with its generated {@link
+ * SubscriberInvoker}
+ */
+final class SubscriberMethod {
+
+    private final Method method;
+    private final Class<?> eventType;
+    private final SubscriberInvoker invoker;
+    private final boolean threadSafe;
+
+    SubscriberMethod(Method method, Class<?> eventType, SubscriberInvoker invoker, boolean threadSafe) {
+        this.method = method;
+        this.eventType = eventType;
+        this.invoker = invoker;
+        this.threadSafe = threadSafe;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    Class<?> getEventType() {
+        return eventType;
+    }
+
+    SubscriberInvoker getInvoker() {
+        return invoker;
+    }
+
+    /**
+     * @return true if the method is annotated with {@link com.google.common.eventbus.AllowConcurrentEvents}
+     */
+    boolean isThreadSafe() {
+        return threadSafe;
+    }
+}
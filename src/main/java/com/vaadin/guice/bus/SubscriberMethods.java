@@ -0,0 +1,171 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.AnnotatedMethods;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+/**
+ * generates a {@link SubscriberInvoker} with javassist for each {@link Subscribe}-method that
+ * {@link AnnotatedMethods} finds in a class, once per class, the results are cached with weak keys
+ * like those of {@link AnnotatedMethods}. Methods that
+ * cannot be called from generated code, like private methods or methods with a primitive or array
+ * parameter, are invoked via reflection.
+ */
+final class SubscriberMethods {
+
+    private static final SubscriberMethod[] NONE = new SubscriberMethod[0];
+    private static final AtomicInteger invokerCounter = new AtomicInteger();
+    private static final Logger LOGGER = Logger.getLogger(SubscriberMethods.class.getName());
+    private static final LoadingCache<Class<?>, SubscriberMethod[]> subscriberMethodsCache = CacheBuilder
+            .newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Class<?>, SubscriberMethod[]>() {
+                @Override
+                public SubscriberMethod[] load(Class<?> subscriberClass) throws Exception {
+                    return scan(subscriberClass);
+                }
+            });
+
+    private SubscriberMethods() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a {@link Subscribe}-method does not have exactly one
+     *                                  parameter
+     */
+    static SubscriberMethod[] of(Class<?> subscriberClass) {
+        try {
+            return subscriberMethodsCache.getUnchecked(subscriberClass);
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * @return the class of the event and all it's super-classes and interfaces, subscribers for any of
+     * these receive the event
+     */
+    static ImmutableSet<Class<?>> eventTypesOf(Class<?> eventClass) {
+        return AnnotatedMethods.eventTypesOf(eventClass);
+    }
+
+    private static SubscriberMethod[] scan(Class<?> subscriberClass) {
+        final List<Method> methods = AnnotatedMethods.of(subscriberClass);
+
+        if (methods.isEmpty()) {
+            return NONE;
+        }
+
+        final SubscriberMethod[] subscriberMethods = new SubscriberMethod[methods.size()];
+
+        for (int i = 0; i < subscriberMethods.length; i++) {
+            final Method method = methods.get(i);
+
+            subscriberMethods[i] = new SubscriberMethod(
+                    method,
+                    AnnotatedMethods.eventTypeOf(method),
+                    createInvoker(method),
+                    method.getAnnotation(AllowConcurrentEvents.class) != null
+            );
+        }
+
+        return subscriberMethods;
+    }
+
+    private static SubscriberInvoker createInvoker(Method method) {
+        final Class<?> parameterType = method.getParameterTypes()[0];
+
+        final boolean generatable = !Modifier.isPrivate(method.getModifiers())
+                && !Modifier.isStatic(method.getModifiers())
+                && !parameterType.isPrimitive()
+                && !parameterType.isArray()
+                && method.getDeclaringClass().getClassLoader() != null;
+
+        if (generatable) {
+            try {
+                return generateInvoker(method);
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "unable to generate an invoker for " + method + ", using reflection", e);
+            } catch (LinkageError e) {
+                LOGGER.log(Level.FINE, "unable to generate an invoker for " + method + ", using reflection", e);
+            }
+        }
+
+        return new ReflectiveInvoker(method);
+    }
+
+    private static SubscriberInvoker generateInvoker(Method method) throws Exception {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        final ClassLoader classLoader = declaringClass.getClassLoader();
+
+        final ClassPool classPool = new ClassPool(true);
+        classPool.appendClassPath(new LoaderClassPath(classLoader));
+        classPool.appendClassPath(new ClassClassPath(SubscriberInvoker.class));
+
+        //same package as the declaring class, so package-private methods can be called as well
+        final CtClass invokerClass = classPool.makeClass(
+                declaringClass.getName() + "$$SubscriberInvoker$$" + invokerCounter.incrementAndGet()
+        );
+
+        try {
+            invokerClass.addInterface(classPool.get(SubscriberInvoker.class.getName()));
+            invokerClass.addConstructor(CtNewConstructor.defaultConstructor(invokerClass));
+            invokerClass.addMethod(
+                    CtNewMethod.make(
+                            "public void invoke(Object target, Object event) throws Exception {"
+                                    + "((" + declaringClass.getName() + ") target)." + method.getName()
+                                    + "((" + method.getParameterTypes()[0].getName() + ") event);"
+                                    + "}",
+                            invokerClass
+                    )
+            );
+
+            return (SubscriberInvoker) invokerClass.toClass(classLoader, declaringClass.getProtectionDomain()).newInstance();
+        } finally {
+            invokerClass.detach();
+        }
+    }
+
+    private static final class ReflectiveInvoker implements SubscriberInvoker {
+        private final Method method;
+
+        ReflectiveInvoker(Method method) {
+            this.method = method;
+            method.setAccessible(true);
+        }
+
+        @Override
+        public void invoke(Object target, Object event) throws Exception {
+            try {
+                method.invoke(target, event);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.vaadin.guice.bus;
+
+/**
+ * how the default {@link GlobalEventBus} keeps track of its subscribers, see {@link
+ * BusModule#setSubscriberRegistryMode(SubscriberRegistryMode)}
+ */
+public enum SubscriberRegistryMode {
+    /**
+     * guava's registry, subscribers are strongly referenced until they are unregistered or their
+     * {@link com.vaadin.server.VaadinSession} is destroyed
+     */
+    COPY_ON_WRITE,
+    /**
+     * subscribers are strongly referenced and kept in a concurrent set per event type. Registering,
+     * unregistering and releasing a session do not copy the subscribers of other sessions, which
+     * makes this the mode of choice for many thousands of concurrent sessions.
+     */
+    CONCURRENT,
+    /**
+     * subscribers are weakly referenced, so components that were removed from their UI and closed
+     * UIs can be garbage collected while their session is still alive. Subscribers must therefore
+     * be referenced elsewhere, typically by the component tree, to keep receiving events.
+     */
+    WEAK
+}
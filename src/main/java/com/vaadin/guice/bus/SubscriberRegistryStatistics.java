@@ -0,0 +1,14 @@
+package com.vaadin.guice.bus;
+
+/**
+ * Statistics of the subscriber registry of the default {@link GlobalEventBus}, can be injected if
+ * a {@link BusModule} is installed.
+ */
+public interface SubscriberRegistryStatistics {
+
+    /**
+     * @return the number of subscriptions that were removed because their subscriber was garbage
+     * collected, always 0 unless {@link SubscriberRegistryMode#WEAK} is used
+     */
+    long getReclaimedSubscribers();
+}
@@ -1,7 +1,6 @@
 package com.vaadin.guice.bus;
 
 import com.google.common.eventbus.Subscribe;
-import com.google.inject.Injector;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.spi.InjectionListener;
@@ -15,108 +14,126 @@ import com.vaadin.guice.bus.events.ViewEvent;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+/**
+ * analyzes every type that guice encounters once and registers a listener only for types with
+ * {@link Subscribe}-methods, that listener registers every instance to the busses it needs without
+ * any further lookup
+ */
 class SubscriptionTypeListener implements TypeListener {
 
-    private static final int GLOBAL = 1;
-    private static final int SESSION = 2;
-    private static final int UI = 4;
-    private static final int VIEW = 8;
+    static final int GLOBAL = 1;
+    static final int SESSION = 2;
+    static final int UI = 4;
+    static final int VIEW = 8;
 
-    private final Provider<Injector> injectorProvider;
     private final Class<? extends GlobalEventBus> globalEventBusClass;
-    private final Map<Class<?>, Integer> classToScopesMap = new ConcurrentHashMap<Class<?>, Integer>();
 
-    SubscriptionTypeListener(Provider<Injector> injectorProvider, Class<? extends GlobalEventBus> globalEventBusClass) {
-        this.injectorProvider = injectorProvider;
+    SubscriptionTypeListener(Class<? extends GlobalEventBus> globalEventBusClass) {
         this.globalEventBusClass = globalEventBusClass;
     }
 
     @Override
     public <I> void hear(final TypeLiteral<I> type, TypeEncounter<I> encounter) {
-        encounter.register(new InjectionListener<I>() {
-            @Override
-            public void afterInjection(I injectee) {
-                int scopes = getScopes(injectee.getClass());
-
-                if ((scopes & GLOBAL) == GLOBAL) {
-                    injectorProvider.get().getInstance(globalEventBusClass).register(injectee);
-                }
-
-                if ((scopes & SESSION) == SESSION) {
-                    injectorProvider.get().getInstance(SessionEventBus.class).register(injectee);
-                }
-
-                if ((scopes & UI) == UI) {
-                    injectorProvider.get().getInstance(UIEventBus.class).register(injectee);
-                }
-
-                if ((scopes & VIEW) == VIEW) {
-                    injectorProvider.get().getInstance(ViewEventBus.class).register(injectee);
-                }
-            }
-
-            private int getScopes(Class<?> clazz) {
+        final int scopes = getScopes(type.getRawType());
+
+        if (scopes == 0) {
+            return;
+        }
+
+        final SubscriberMethod[] subscriberMethods = SubscriberMethods.of(type.getRawType());
+
+        encounter.register(
+                new SubscriptionInjectionListener<I>(
+                        (scopes & GLOBAL) == GLOBAL ? encounter.getProvider(globalEventBusClass) : null,
+                        (scopes & SESSION) == SESSION ? encounter.getProvider(SessionEventBus.class) : null,
+                        (scopes & UI) == UI ? encounter.getProvider(UIEventBus.class) : null,
+                        (scopes & VIEW) == VIEW ? encounter.getProvider(ViewEventBus.class) : null,
+                        subscriberMethods
+                )
+        );
+    }
 
-                Integer scopesFromCache = classToScopesMap.get(clazz);
+    static int getScopes(Class<?> clazz) {
+        int scopes = 0;
 
-                if (scopesFromCache != null) {
-                    return scopesFromCache;
-                }
+        for (Method method : clazz.getMethods()) {
 
-                int scopes = 0;
+            if ((method.getModifiers() & Modifier.PUBLIC) != Modifier.PUBLIC) {
+                continue;
+            }
 
-                boolean globalRegistered = false;
-                boolean sessionRegistered = false;
-                boolean uiRegistered = false;
-                boolean viewRegistered = false;
+            if (method.getAnnotation(Subscribe.class) == null) {
+                continue;
+            }
 
-                for (Method method : clazz.getMethods()) {
+            checkArgument(method.getParameterTypes().length == 1,
+                    "method %s is annotated with @subscribe but does not have exactly one parameter",
+                    method
+            );
 
-                    if ((method.getModifiers() & Modifier.PUBLIC) != Modifier.PUBLIC) {
-                        continue;
-                    }
+            Class<?> parameter = method.getParameterTypes()[0];
 
-                    if (method.getAnnotation(Subscribe.class) == null) {
-                        continue;
-                    }
+            if (GlobalEvent.class.isAssignableFrom(parameter)) {
+                scopes = scopes | GLOBAL;
+            }
 
-                    checkArgument(method.getParameterTypes().length == 1,
-                            "method %s is annotated with @subscribe but does not have exactly one parameter",
-                            method
-                    );
+            if (SessionEvent.class.isAssignableFrom(parameter)) {
+                scopes = scopes | SESSION;
+            }
 
-                    Class<?> parameter = method.getParameterTypes()[0];
+            if (UIEvent.class.isAssignableFrom(parameter)) {
+                scopes = scopes | UI;
+            }
 
-                    if (!globalRegistered && GlobalEvent.class.isAssignableFrom(parameter)) {
-                        scopes = scopes | GLOBAL;
-                        globalRegistered = true;
-                    }
+            if (ViewEvent.class.isAssignableFrom(parameter)) {
+                scopes = scopes | VIEW;
+            }
+        }
 
-                    if (!sessionRegistered && SessionEvent.class.isAssignableFrom(parameter)) {
-                        scopes = scopes | SESSION;
-                        sessionRegistered = true;
-                    }
+        return scopes;
+    }
 
-                    if (!uiRegistered && UIEvent.class.isAssignableFrom(parameter)) {
-                        scopes = scopes | UI;
-                        uiRegistered = true;
-                    }
+    private static final class SubscriptionInjectionListener<I> implements InjectionListener<I> {
+        private final Provider<? extends GlobalEventBus> globalEventBusProvider;
+        private final Provider<SessionEventBus> sessionEventBusProvider;
+        private final Provider<UIEventBus> uiEventBusProvider;
+        private final Provider<ViewEventBus> viewEventBusProvider;
+        private final SubscriberMethod[] subscriberMethods;
+
+        SubscriptionInjectionListener(
+                Provider<? extends GlobalEventBus> globalEventBusProvider,
+                Provider<SessionEventBus> sessionEventBusProvider,
+                Provider<UIEventBus> uiEventBusProvider,
+                Provider<ViewEventBus> viewEventBusProvider,
+                SubscriberMethod[] subscriberMethods
+        ) {
+            this.globalEventBusProvider = globalEventBusProvider;
+            this.sessionEventBusProvider = sessionEventBusProvider;
+            this.uiEventBusProvider = uiEventBusProvider;
+            this.viewEventBusProvider = viewEventBusProvider;
+            this.subscriberMethods = subscriberMethods;
+        }
+
+        @Override
+        public void afterInjection(I injectee) {
+            if (globalEventBusProvider != null) {
+                globalEventBusProvider.get().register(injectee);
+            }
 
-                    if (!viewRegistered && ViewEvent.class.isAssignableFrom(parameter)) {
-                        scopes = scopes | VIEW;
-                        viewRegistered = true;
-                    }
-                }
+            if (sessionEventBusProvider != null) {
+                sessionEventBusProvider.get().register(injectee, subscriberMethods);
+            }
 
-                classToScopesMap.put(clazz, scopes);
+            if (uiEventBusProvider != null) {
+                uiEventBusProvider.get().register(injectee, subscriberMethods);
+            }
 
-                return scopes;
+            if (viewEventBusProvider != null) {
+                viewEventBusProvider.get().register(injectee, subscriberMethods);
             }
-        });
+        }
     }
 }
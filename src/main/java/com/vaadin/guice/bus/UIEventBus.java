@@ -1,8 +1,7 @@
 package com.vaadin.guice.bus;
 
-import com.google.common.eventbus.EventBus;
-
 import com.vaadin.guice.annotation.UIScope;
+import com.vaadin.server.VaadinSession;
 
 /**
  * This class serves as a means to allow UI-scope communication between objects. UIEventBus is
@@ -15,10 +14,17 @@ import com.vaadin.guice.annotation.UIScope;
  *
  * </code> </pre>
  *
+ * <p> Up to version 1.x this was a subclass of guava's {@link com.google.common.eventbus.EventBus},
+ * since 2.0 it extends {@link ConfinedEventBus}. {@code register}, {@code unregister} and {@code post}
+ * are unchanged, fields or parameters of type EventBus need to be changed to UIEventBus. {@code
+ * identifier} now returns "ui" instead of "default", it names the bus in {@link BusMetrics}. Since it is not thread-safe, it throws an {@link IllegalStateException} if
+ * it is used without holding the lock of its session. </p>
+ *
  * @author Bernd Hopp (bernd@vaadin.com)
  */
 @UIScope
-public final class UIEventBus extends EventBus {
+public final class UIEventBus extends ConfinedEventBus {
     UIEventBus() {
+        super("ui", VaadinSession.getCurrent());
     }
 }
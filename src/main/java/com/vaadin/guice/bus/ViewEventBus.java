@@ -1,8 +1,7 @@
 package com.vaadin.guice.bus;
 
-import com.google.common.eventbus.EventBus;
-
 import com.vaadin.guice.annotation.ViewScope;
+import com.vaadin.server.VaadinSession;
 
 /**
  * This class serves as a means to allow View-scope communication between objects. ViewEventBus is
@@ -15,10 +14,17 @@ import com.vaadin.guice.annotation.ViewScope;
  *
  * </code> </pre>
  *
+ * <p> Up to version 1.x this was a subclass of guava's {@link com.google.common.eventbus.EventBus},
+ * since 2.0 it extends {@link ConfinedEventBus}. {@code register}, {@code unregister} and {@code post}
+ * are unchanged, fields or parameters of type EventBus need to be changed to ViewEventBus. {@code
+ * identifier} now returns "view" instead of "default", it names the bus in {@link BusMetrics}. Since it is not thread-safe, it throws an {@link IllegalStateException} if
+ * it is used without holding the lock of its session. </p>
+ *
  * @author Bernd Hopp (bernd@vaadin.com)
  */
 @ViewScope
-public final class ViewEventBus extends EventBus {
+public final class ViewEventBus extends ConfinedEventBus {
     ViewEventBus() {
+        super("view", VaadinSession.getCurrent());
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.vaadin.guice.bus.events;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be put on {@link GlobalEvent}-classes of which only the latest value is of
+ * interest, like price-tickers or progress-updates. Events of such a class are not delivered to
+ * each UI as they are posted. Instead, only the latest pending event per key is kept for every UI
+ * and delivered at most once per {@link #intervalMillis()}.
+ *
+ * <pre>
+ * &#064;Coalesced(intervalMillis = 500, key = JobProgressEvent.JobId.class)
+ * public class JobProgressEvent implements GlobalEvent {
+ *     // ...
+ *     public static class JobId implements CoalescingKeyExtractor&lt;JobProgressEvent&gt; {
+ *         public Object getKey(JobProgressEvent event) {
+ *             return event.getJobId();
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * Only subscribers that are {@link com.vaadin.ui.Component}s attached to a UI are affected,
+ * all other subscribers receive every event.
+ *
+ * @author Bernd Hopp (bernd@vaadin.com)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+
+    /**
+     * the minimum time between two deliveries of events with the same key to the same UI
+     */
+    long intervalMillis() default 250;
+
+    /**
+     * the {@link CoalescingKeyExtractor} that determines which events replace each other. Must
+     * have a public default constructor. By default, all events of the annotated class replace each
+     * other.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends CoalescingKeyExtractor> key() default CoalescingKeyExtractor.ByClass.class;
+}
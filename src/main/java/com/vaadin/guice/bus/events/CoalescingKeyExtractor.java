@@ -0,0 +1,22 @@
+package com.vaadin.guice.bus.events;
+
+/**
+ * extracts the key of a {@link Coalesced} event, pending events with equal keys replace each
+ * other.
+ *
+ * @param <E> the type of the event
+ */
+public interface CoalescingKeyExtractor<E> {
+
+    Object getKey(E event);
+
+    /**
+     * uses the class of the event as key, which is the default for {@link Coalesced#key()}
+     */
+    final class ByClass implements CoalescingKeyExtractor<Object> {
+        @Override
+        public Object getKey(Object event) {
+            return event.getClass();
+        }
+    }
+}
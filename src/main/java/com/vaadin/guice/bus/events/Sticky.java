@@ -0,0 +1,37 @@
+package com.vaadin.guice.bus.events;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be put on event-classes that describe a state rather than a change, like the
+ * currently selected customer. The latest {@link #retain()} events of such a class are kept by the
+ * bus they were posted to and are replayed to every subscriber that registers later, so views that
+ * are created after the event was posted do not have to query the current state themselves.
+ *
+ * <pre>
+ * &#064;Sticky
+ * public class CustomerSelectedEvent implements SessionEvent {
+ *     // ...
+ * }
+ * </pre>
+ *
+ * Events are kept as long as the bus lives, which is the session for the {@link
+ * com.vaadin.guice.bus.SessionEventBus} and the application for the {@link
+ * com.vaadin.guice.bus.GlobalEventBus}. Events that are posted to an audience are not kept.
+ *
+ * @author Bernd Hopp (bernd@vaadin.com)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Sticky {
+
+    /**
+     * the number of events of the annotated class that are kept, the oldest one is discarded first
+     */
+    int retain() default 1;
+}
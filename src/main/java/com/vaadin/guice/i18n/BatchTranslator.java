@@ -0,0 +1,22 @@
+package com.vaadin.guice.i18n;
+
+import org.vaadin.i18n.api.Translator;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A {@link Translator} that can translate many templates at once, for translators where every call
+ * is expensive, like those backed by a database. If the translator that is passed to {@link
+ * TranslationModule} implements this interface, all templates of a UI are translated with a single
+ * call to {@link #translateAll(Collection)} instead of one call to {@link #translate(String)} per
+ * template.
+ */
+public interface BatchTranslator extends Translator {
+
+    /**
+     * @param templates the templates to translate into the current locale, without duplicates
+     * @return the translations by template, templates without a translation may be left out
+     */
+    Map<String, String> translateAll(Collection<String> templates);
+}
@@ -0,0 +1,204 @@
+package com.vaadin.guice.i18n;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Converts {@link java.util.ResourceBundle}-style .properties files into a catalog for the {@link
+ * CatalogTranslator}, meant to be run at build-time, for example by the exec-maven-plugin:
+ *
+ * <pre>
+ *     java com.vaadin.guice.i18n.CatalogCompiler src/main/resources/messages.properties target/messages.catalog
+ * </pre>
+ *
+ * The bundle's base file holds the default translations, files named like
+ * <code>messages_de.properties</code> or <code>messages_de_AT.properties</code> next to it hold
+ * those of the locale in their name.
+ */
+public final class CatalogCompiler {
+
+    private static final Comparator<byte[]> UTF_8_ORDER = UnsignedBytes.lexicographicalComparator();
+
+    private CatalogCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        checkArgument(args.length == 2, "usage: CatalogCompiler <base .properties-file> <catalog-file>");
+
+        final Map<Locale, Properties> bundle = readBundle(new File(args[0]));
+
+        final OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(args[1]));
+
+        try {
+            compile(bundle, outputStream);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * @return the properties of the base file by {@link Locale#ROOT} and those of the locale-specific
+     * files next to it by their locale
+     */
+    public static Map<Locale, Properties> readBundle(File baseFile) throws IOException {
+        final String fileName = baseFile.getName();
+
+        checkArgument(fileName.endsWith(".properties"), "%s is not a .properties-file", baseFile);
+
+        final String baseName = fileName.substring(0, fileName.length() - ".properties".length());
+        final File directory = baseFile.getAbsoluteFile().getParentFile();
+        final Map<Locale, Properties> bundle = new LinkedHashMap<Locale, Properties>();
+
+        bundle.put(Locale.ROOT, load(baseFile));
+
+        final File[] files = directory.listFiles();
+
+        if (files == null) {
+            return bundle;
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+            final String name = file.getName();
+
+            if (name.startsWith(baseName + "_") && name.endsWith(".properties")) {
+                final String localeName = name.substring(baseName.length() + 1, name.length() - ".properties".length());
+
+                bundle.put(TranslationCatalog.toLocale(localeName), load(file));
+            }
+        }
+
+        return bundle;
+    }
+
+    /**
+     * writes the translations by locale in the format that is described at {@link
+     * TranslationCatalog}
+     */
+    public static void compile(Map<Locale, Properties> translationsByLocale, OutputStream outputStream) throws IOException {
+        final List<Locale> locales = new ArrayList<Locale>(translationsByLocale.keySet());
+
+        final Set<String> templateSet = new TreeSet<String>();
+
+        for (Properties properties : translationsByLocale.values()) {
+            templateSet.addAll(properties.stringPropertyNames());
+        }
+
+        final List<byte[]> templates = new ArrayList<byte[]>(templateSet.size());
+
+        for (String template : templateSet) {
+            templates.add(template.getBytes(TranslationCatalog.UTF_8));
+        }
+
+        //the catalog is searched by comparing UTF-8 bytes, which differs from String's order
+        Collections.sort(templates, UTF_8_ORDER);
+
+        final int headerBytes = (4 + locales.size() + templates.size() + locales.size() * templates.size()) * 4;
+
+        final StringArea strings = new StringArea(headerBytes);
+
+        final DataOutputStream out = new DataOutputStream(outputStream);
+
+        out.writeInt(TranslationCatalog.MAGIC);
+        out.writeInt(TranslationCatalog.VERSION);
+        out.writeInt(templates.size());
+        out.writeInt(locales.size());
+
+        for (Locale locale : locales) {
+            out.writeInt(strings.add(locale.toString().getBytes(TranslationCatalog.UTF_8)));
+        }
+
+        for (byte[] template : templates) {
+            out.writeInt(strings.add(template));
+        }
+
+        for (Locale locale : locales) {
+            final Properties properties = translationsByLocale.get(locale);
+
+            for (byte[] template : templates) {
+                final String translation = properties.getProperty(new String(template, TranslationCatalog.UTF_8));
+
+                out.writeInt(
+                        translation != null
+                                ? strings.add(translation.getBytes(TranslationCatalog.UTF_8))
+                                : TranslationCatalog.NO_TRANSLATION
+                );
+            }
+        }
+
+        strings.writeTo(out);
+        out.flush();
+    }
+
+    private static Properties load(File file) throws IOException {
+        final Properties properties = new Properties();
+        final InputStream inputStream = new FileInputStream(file);
+
+        try {
+            properties.load(inputStream);
+        } finally {
+            inputStream.close();
+        }
+
+        return properties;
+    }
+
+    /**
+     * the strings of the catalog, equal strings like translations that are the same in several
+     * locales are stored only once
+     */
+    private static final class StringArea {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> offsetsByString = new HashMap<String, Integer>();
+        private final int start;
+
+        StringArea(int start) {
+            this.start = start;
+        }
+
+        int add(byte[] string) throws IOException {
+            final String key = new String(string, TranslationCatalog.UTF_8);
+
+            Integer offset = offsetsByString.get(key);
+
+            if (offset == null) {
+                offset = start + bytes.size();
+                out.writeInt(string.length);
+                out.write(string);
+                offsetsByString.put(key, offset);
+            }
+
+            return offset;
+        }
+
+        void writeTo(OutputStream outputStream) throws IOException {
+            out.flush();
+            bytes.writeTo(outputStream);
+        }
+    }
+}
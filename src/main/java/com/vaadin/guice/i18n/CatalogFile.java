@@ -0,0 +1,82 @@
+package com.vaadin.guice.i18n;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * a catalog file and its current content, shared by all {@link CatalogTranslator}s of the file.
+ * The content is replaced as a whole when the file has changed, so a lookup sees either the old or
+ * the new catalog, never a mix.
+ */
+final class CatalogFile {
+
+    private static final ConcurrentMap<File, CatalogFile> catalogFilesByFile = new ConcurrentHashMap<File, CatalogFile>();
+
+    private final File file;
+    private volatile TranslationCatalog catalog;
+    private long lastModified;
+    private long length;
+
+    private CatalogFile(File file) throws IOException {
+        this.file = file;
+        this.lastModified = file.lastModified();
+        this.length = file.length();
+        this.catalog = TranslationCatalog.map(file);
+    }
+
+    /**
+     * maps the file, a file is mapped only once per class-loader, no matter how often it is opened
+     */
+    static CatalogFile open(File file) throws IOException {
+        final File canonicalFile = file.getCanonicalFile();
+
+        final CatalogFile catalogFile = catalogFilesByFile.get(canonicalFile);
+
+        if (catalogFile != null) {
+            return catalogFile;
+        }
+
+        final CatalogFile newCatalogFile = new CatalogFile(canonicalFile);
+        final CatalogFile existingCatalogFile = catalogFilesByFile.putIfAbsent(canonicalFile, newCatalogFile);
+
+        return existingCatalogFile != null ? existingCatalogFile : newCatalogFile;
+    }
+
+    TranslationCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * maps the file again if it was modified since it was mapped the last time. Catalogs should be
+     * replaced by renaming a completely written file, a catalog that is found to be incomplete is
+     * not used, the old catalog stays in place.
+     *
+     * @return true if the catalog was replaced
+     * @throws IOException if the file could not be read or is not a valid catalog
+     */
+    synchronized boolean reloadIfModified() throws IOException {
+        final long currentLastModified = file.lastModified();
+        final long currentLength = file.length();
+
+        if (currentLastModified == lastModified && currentLength == length) {
+            return false;
+        }
+
+        lastModified = currentLastModified;
+        length = currentLength;
+
+        try {
+            catalog = TranslationCatalog.map(file);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + " is not a valid catalog: " + e.getMessage());
+        }
+
+        return true;
+    }
+
+    File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,43 @@
+package com.vaadin.guice.i18n;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Configuration for reloading the catalogs of {@link CatalogTranslator}s while the application is
+ * running, see {@link TranslationModule#setCatalogReloadConfiguration(CatalogReloadConfiguration)}.
+ * Catalog files are checked for changes periodically. After a change, the captions of all live UIs
+ * are translated again, a limited number of UIs at a time, so that a reload does not push to all
+ * clients at once.
+ */
+public final class CatalogReloadConfiguration {
+    private final long pollIntervalMillis;
+    private final int uisPerBatch;
+    private final long batchIntervalMillis;
+
+    /**
+     * @param pollIntervalMillis  how often the catalog files are checked for changes
+     * @param uisPerBatch         how many UIs are translated again at once after a change
+     * @param batchIntervalMillis the pause between two batches of UIs
+     */
+    public CatalogReloadConfiguration(long pollIntervalMillis, int uisPerBatch, long batchIntervalMillis) {
+        checkArgument(pollIntervalMillis > 0, "pollIntervalMillis must be greater than 0, is %s", pollIntervalMillis);
+        checkArgument(uisPerBatch > 0, "uisPerBatch must be greater than 0, is %s", uisPerBatch);
+        checkArgument(batchIntervalMillis >= 0, "batchIntervalMillis must not be negative, is %s", batchIntervalMillis);
+
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.uisPerBatch = uisPerBatch;
+        this.batchIntervalMillis = batchIntervalMillis;
+    }
+
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    public int getUisPerBatch() {
+        return uisPerBatch;
+    }
+
+    public long getBatchIntervalMillis() {
+        return batchIntervalMillis;
+    }
+}
@@ -0,0 +1,206 @@
+package com.vaadin.guice.i18n;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
+import com.vaadin.server.VaadinService;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Checks the files of {@link CatalogTranslator}s for changes, see {@link
+ * CatalogReloadConfiguration}. After a catalog was replaced, the {@link TranslationCache} is
+ * invalidated and every live UI's {@link GuiceTranslationBinder} binds again in a {@link
+ * UI#access(Runnable)}, a limited number of UIs per batch. Polling stops when the {@link
+ * VaadinService} is destroyed, so a redeployed application doesn't keep the polling thread and
+ * with it its classloader alive.
+ */
+final class CatalogReloader implements ServiceDestroyListener {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final CatalogReloadConfiguration configuration;
+    private final TranslationCache translationCache;
+    private final Set<CatalogFile> catalogFiles = new CopyOnWriteArraySet<CatalogFile>();
+    private final Set<GuiceTranslationBinder> translationBinders = Collections.newSetFromMap(new WeakHashMap<GuiceTranslationBinder, Boolean>());
+    private final Queue<GuiceTranslationBinder> pendingRebinds = new ArrayDeque<GuiceTranslationBinder>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("guice-vaadin-catalog-reloader-%d")
+                    .setDaemon(true)
+                    .build()
+    );
+    private boolean polling;
+    private boolean stoppedWithService;
+
+    CatalogReloader(CatalogReloadConfiguration configuration, TranslationCache translationCache) {
+        this.configuration = checkNotNull(configuration);
+        this.translationCache = checkNotNull(translationCache);
+    }
+
+    void watch(CatalogFile catalogFile) {
+        catalogFiles.add(catalogFile);
+
+        synchronized (this) {
+            if (polling) {
+                return;
+            }
+
+            polling = true;
+        }
+
+        scheduler.scheduleWithFixedDelay(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        poll();
+                    }
+                },
+                configuration.getPollIntervalMillis(),
+                configuration.getPollIntervalMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    void add(GuiceTranslationBinder translationBinder) {
+        synchronized (translationBinders) {
+            translationBinders.add(translationBinder);
+        }
+    }
+
+    /**
+     * stops polling once the service is destroyed, only the first call has an effect
+     */
+    void stopWith(VaadinService vaadinService) {
+        synchronized (this) {
+            if (stoppedWithService) {
+                return;
+            }
+
+            stoppedWithService = true;
+        }
+
+        vaadinService.addServiceDestroyListener(this);
+    }
+
+    @Override
+    public void serviceDestroy(ServiceDestroyEvent event) {
+        scheduler.shutdownNow();
+    }
+
+    boolean isStopped() {
+        return scheduler.isShutdown();
+    }
+
+    private void poll() {
+        boolean reloaded = false;
+
+        for (CatalogFile catalogFile : catalogFiles) {
+            try {
+                reloaded |= catalogFile.reloadIfModified();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "unable to reload " + catalogFile.getFile() + ", keeping the previous catalog", e);
+            }
+        }
+
+        if (!reloaded) {
+            return;
+        }
+
+        translationCache.invalidateAll();
+
+        final List<GuiceTranslationBinder> binders;
+
+        synchronized (translationBinders) {
+            binders = new ArrayList<GuiceTranslationBinder>(translationBinders);
+        }
+
+        //a rebind that is still pending from an earlier reload will see this catalog as well
+        final boolean rebindScheduled;
+
+        synchronized (pendingRebinds) {
+            rebindScheduled = !pendingRebinds.isEmpty();
+            pendingRebinds.clear();
+            pendingRebinds.addAll(binders);
+        }
+
+        if (!rebindScheduled) {
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    rebindBatch();
+                }
+            });
+        }
+    }
+
+    private void rebindBatch() {
+        for (int i = 0; i < configuration.getUisPerBatch(); i++) {
+            final GuiceTranslationBinder translationBinder;
+
+            synchronized (pendingRebinds) {
+                translationBinder = pendingRebinds.poll();
+            }
+
+            if (translationBinder == null) {
+                return;
+            }
+
+            rebind(translationBinder);
+        }
+
+        synchronized (pendingRebinds) {
+            if (pendingRebinds.isEmpty()) {
+                return;
+            }
+        }
+
+        scheduler.schedule(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        rebindBatch();
+                    }
+                },
+                configuration.getBatchIntervalMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void rebind(final GuiceTranslationBinder translationBinder) {
+        final UI ui = translationBinder.getUI();
+
+        if (ui == null) {
+            //the binder's components are translated once they are attached
+            return;
+        }
+
+        try {
+            ui.access(new Runnable() {
+                @Override
+                public void run() {
+                    translationBinder.bind();
+                }
+            });
+        } catch (UIDetachedException e) {
+            //the UI is gone, so are its captions
+        }
+    }
+}
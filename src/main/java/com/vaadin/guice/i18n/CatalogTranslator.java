@@ -0,0 +1,55 @@
+package com.vaadin.guice.i18n;
+
+import com.google.inject.Inject;
+
+import org.vaadin.i18n.api.Translator;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link Translator} that reads from a memory-mapped catalog, as written by {@link
+ * CatalogCompiler}. Translations are not kept on the heap but read from the catalog on every call,
+ * which is cheap enough since the {@link TranslationCache} asks only once per template and locale.
+ * Subclass it to tell the {@link TranslationModule} where the catalog is:
+ *
+ * <pre>
+ * class MyTranslator extends CatalogTranslator {
+ *     MyTranslator() throws IOException {
+ *         super(new File("/etc/myapp/messages.catalog"));
+ *     }
+ * }
+ * </pre>
+ *
+ * The file is mapped only once, no matter how many instances are created, and can be replaced at
+ * runtime if {@link TranslationModule#setCatalogReloadConfiguration(CatalogReloadConfiguration)}
+ * was called. Templates are
+ * translated into {@link TranslationCache#currentLocale()}, falling back to it's language and then
+ * to the bundle's default, templates without any translation are returned as they are.
+ */
+public class CatalogTranslator implements Translator {
+
+    private final CatalogFile catalogFile;
+
+    public CatalogTranslator(File catalogFile) throws IOException {
+        this.catalogFile = CatalogFile.open(checkNotNull(catalogFile));
+    }
+
+    /**
+     * optional, since {@link CatalogReloader} is only bound if {@link
+     * TranslationModule#setCatalogReloadConfiguration(CatalogReloadConfiguration)} was called
+     */
+    @Inject(optional = true)
+    void setCatalogReloader(CatalogReloader catalogReloader) {
+        catalogReloader.watch(catalogFile);
+    }
+
+    @Override
+    public String translate(String template) {
+        final String translation = catalogFile.getCatalog().lookup(template, TranslationCache.currentLocale());
+
+        return translation != null ? translation : template;
+    }
+}
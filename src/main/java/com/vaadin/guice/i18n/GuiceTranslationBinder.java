@@ -1,17 +1,24 @@
 package com.vaadin.guice.i18n;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
+import com.google.common.base.Supplier;
 import com.google.inject.Inject;
 
 import com.vaadin.guice.annotation.UIScope;
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.VaadinService;
 import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
 
 import org.vaadin.i18n.annotation.Caption;
-import org.vaadin.i18n.api.TranslationBinder;
 import org.vaadin.i18n.api.Translator;
 
-import java.util.Collection;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -19,47 +26,284 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+/**
+ * Keeps the captions of a UI's components translated. Components are held weakly, so components
+ * that are no longer referenced by the UI are forgotten once they have been garbage-collected.
+ * {@link #bind()} only translates attached components, components are translated into the current
+ * locale whenever they are attached, no matter if {@link #bind()} was called before.
+ */
 @UIScope
-class GuiceTranslationBinder implements TranslationBinder {
+class GuiceTranslationBinder implements ParameterizedTranslationBinder {
 
-    private final Multimap<String, Component> translatedComponentsByTemplate;
+    private final Map<ComponentReference, Registration> registrationsByComponent = new HashMap<ComponentReference, Registration>();
+    private final ReferenceQueue<Component> collectedComponents = new ReferenceQueue<Component>();
+    private final Translator translator;
+    private final TranslationCache translationCache;
+    private final ClientConnector.AttachListener attachListener = new ClientConnector.AttachListener() {
+        @Override
+        public void attach(ClientConnector.AttachEvent event) {
+            translateIfOutdated((Component) event.getConnector());
+        }
+    };
 
-    @Inject
-    private Translator translator;
+    //the UI this binder belongs to, null if the binder was created outside of a request of the UI
+    //and has not been used in one yet
+    private volatile UI ui;
 
     @Inject
-    GuiceTranslationBinder(@AllTranslatedComponents Set<Component> components) {
-        translatedComponentsByTemplate = HashMultimap.create(components.size(), 1);
+    GuiceTranslationBinder(
+            @AllTranslatedComponents Set<Component> components,
+            Translator translator,
+            TranslationCache translationCache
+    ) {
+        this.translator = translator;
+        this.translationCache = translationCache;
 
-        for (Component component : components) {
-            final String template = component.getClass().getAnnotation(Caption.class).value();
+        //the binder is UI-scoped, so the current UI is the one it belongs to
+        this.ui = UI.getCurrent();
 
-            translatedComponentsByTemplate.put(
-                    template,
-                    component
-            );
+        for (Component component : components) {
+            register(component, component.getClass().getAnnotation(Caption.class).value());
         }
     }
 
+    /**
+     * optional, since {@link CatalogReloader} is only bound if {@link
+     * TranslationModule#setCatalogReloadConfiguration(CatalogReloadConfiguration)} was called
+     */
+    @Inject(optional = true)
+    void setCatalogReloader(CatalogReloader catalogReloader, VaadinService vaadinService) {
+        catalogReloader.add(this);
+        catalogReloader.stopWith(vaadinService);
+    }
+
     public void bind() {
-        for (Map.Entry<String, Collection<Component>> entry : translatedComponentsByTemplate.asMap().entrySet()) {
+        final Locale locale = TranslationCache.currentLocale();
+
+        rememberUI();
+        expungeCollectedComponents();
+
+        final int generation = translationCache.getGeneration();
+
+        final Map<String, List<Component>> attachedComponentsByTemplate = new HashMap<String, List<Component>>();
+
+        for (Map.Entry<ComponentReference, Registration> entry : registrationsByComponent.entrySet()) {
+            final Component component = entry.getKey().get();
+
+            if (component == null || !component.isAttached()) {
+                continue;
+            }
+
+            final String template = entry.getValue().template;
+
+            List<Component> components = attachedComponentsByTemplate.get(template);
+
+            if (components == null) {
+                components = new ArrayList<Component>();
+                attachedComponentsByTemplate.put(template, components);
+            }
+
+            components.add(component);
+        }
+
+        //a single call for all templates if the translator is a BatchTranslator
+        final Map<String, String> translations = translationCache.translateAll(
+                translator,
+                attachedComponentsByTemplate.keySet()
+        );
+
+        for (Map.Entry<String, List<Component>> entry : attachedComponentsByTemplate.entrySet()) {
+            final String translation = translations.get(entry.getKey());
+
+            for (Component component : entry.getValue()) {
+                final Registration registration = getRegistration(component);
+
+                component.setCaption(
+                        registration.arguments == null
+                                ? translation
+                                : translationCache.format(translator, registration.template, registration.arguments.get())
+                );
+
+                registration.translatedLocale = locale;
+                registration.translatedGeneration = generation;
+            }
+        }
+    }
 
-            String template = entry.getKey();
-            Collection<Component> components = entry.getValue();
+    @Override
+    public void refresh() {
+        expungeCollectedComponents();
 
-            String translation = translator.translate(template);
+        for (Map.Entry<ComponentReference, Registration> entry : registrationsByComponent.entrySet()) {
+            final Component component = entry.getKey().get();
 
-            for (Component component : components) {
-                component.setCaption(translation);
+            if (component != null && entry.getValue().arguments != null && component.isAttached()) {
+                translate(component, entry.getValue());
             }
         }
     }
 
+    @Override
+    public void refresh(Component component) {
+        final Registration registration = getRegistration(checkNotNull(component));
+
+        checkArgument(registration != null && registration.arguments != null, "%s is not registered with arguments", component);
+
+        translate(component, registration);
+    }
+
     @Override
     public void register(Component component, String template) {
+        register(component, template, null, false);
+    }
+
+    @Override
+    public void register(Component component, String template, Supplier<Object[]> arguments) {
+        register(component, template, checkNotNull(arguments), true);
+    }
+
+    private void register(Component component, String template, Supplier<Object[]> arguments, boolean translateNow) {
         checkNotNull(component);
         checkArgument(!isNullOrEmpty(template));
 
-        translatedComponentsByTemplate.put(template, component);
+        expungeCollectedComponents();
+
+        Registration registration = getRegistration(component);
+
+        if (registration == null) {
+            registration = new Registration();
+            registrationsByComponent.put(new ComponentReference(component, collectedComponents), registration);
+            component.addAttachListener(attachListener);
+        }
+
+        registration.template = template;
+        registration.arguments = arguments;
+        registration.translatedLocale = null;
+
+        if (translateNow) {
+            translate(component, registration);
+        }
+    }
+
+    private void translateIfOutdated(Component component) {
+        final Registration registration = getRegistration(component);
+
+        if (registration == null) {
+            return;
+        }
+
+        if (TranslationCache.currentLocale().equals(registration.translatedLocale) && registration.translatedGeneration == translationCache.getGeneration()) {
+            return;
+        }
+
+        translate(component, registration);
+    }
+
+    private void translate(Component component, Registration registration) {
+        final int generation = translationCache.getGeneration();
+
+        rememberUI();
+
+        component.setCaption(
+                registration.arguments == null
+                        ? translationCache.translate(translator, registration.template)
+                        : translationCache.format(translator, registration.template, registration.arguments.get())
+        );
+
+        registration.translatedLocale = TranslationCache.currentLocale();
+        registration.translatedGeneration = generation;
+    }
+
+    private Registration getRegistration(Component component) {
+        return registrationsByComponent.get(new ComponentReference(component, null));
+    }
+
+    /**
+     * removes the registrations of components that have been garbage-collected since the last call
+     */
+    private void expungeCollectedComponents() {
+        for (Reference<? extends Component> reference; (reference = collectedComponents.poll()) != null; ) {
+            registrationsByComponent.remove(reference);
+        }
+    }
+
+    private void rememberUI() {
+        if (ui == null) {
+            ui = UI.getCurrent();
+        }
+    }
+
+    /**
+     * @return the UI of this binder, or null if the binder was not used in a request yet
+     */
+    UI getUI() {
+        return ui;
+    }
+
+    int size() {
+        expungeCollectedComponents();
+
+        return registrationsByComponent.size();
+    }
+
+    /**
+     * @return the reference the component is held by, null if it is not registered
+     */
+    Reference<Component> getReference(Component component) {
+        final ComponentReference lookup = new ComponentReference(component, null);
+
+        for (ComponentReference reference : registrationsByComponent.keySet()) {
+            if (reference.equals(lookup)) {
+                return reference;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * a weak reference with the identity of the component, a cleared reference is only equal to
+     * itself so it can still be removed from the map
+     */
+    private static final class ComponentReference extends WeakReference<Component> {
+        private final int hashCode;
+
+        ComponentReference(Component component, ReferenceQueue<Component> queue) {
+            super(component, queue);
+            this.hashCode = System.identityHashCode(component);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof ComponentReference)) {
+                return false;
+            }
+
+            final Component component = get();
+
+            return component != null && component == ((ComponentReference) o).get();
+        }
+    }
+
+    private static final class Registration {
+        private String template;
+
+        //null for captions without arguments
+        private Supplier<Object[]> arguments;
+
+        //the locale the caption was translated to by this binder, null if not yet
+        private Locale translatedLocale;
+
+        //the generation of the TranslationCache when the caption was translated
+        private int translatedGeneration;
     }
 }
@@ -0,0 +1,45 @@
+package com.vaadin.guice.i18n;
+
+import com.google.common.base.Supplier;
+
+import com.vaadin.ui.Component;
+
+import org.vaadin.i18n.api.TranslationBinder;
+
+/**
+ * A {@link TranslationBinder} for captions with arguments like counts, names or dates. The
+ * translation of a template is a {@link java.text.MessageFormat}-pattern, like "{0} new messages",
+ * which is parsed once per locale and filled with the arguments of the component's supplier
+ * whenever the caption is refreshed. An instance can be injected into UI-scoped objects.
+ *
+ * <pre>
+ *     <code>
+ *         parameterizedTranslationBinder.register(inboxButton, "inbox.caption", new Supplier&lt;Object[]&gt;() {
+ *             public Object[] get() {
+ *                 return new Object[]{inbox.getUnreadCount()};
+ *             }
+ *         });
+ *         ...
+ *         parameterizedTranslationBinder.refresh(inboxButton);
+ *     </code>
+ * </pre>
+ */
+public interface ParameterizedTranslationBinder extends TranslationBinder {
+
+    /**
+     * sets the component's caption to the translated template, formatted with the arguments of the
+     * supplier, and keeps it translated like {@link #register(Component, String)} does
+     */
+    void register(Component component, String template, Supplier<Object[]> arguments);
+
+    /**
+     * formats the captions of all attached parameterized components again, to be called when their
+     * arguments have changed
+     */
+    void refresh();
+
+    /**
+     * formats the caption of a single parameterized component again
+     */
+    void refresh(Component component);
+}
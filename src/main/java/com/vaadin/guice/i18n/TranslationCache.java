@@ -0,0 +1,335 @@
+package com.vaadin.guice.i18n;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.vaadin.i18n.api.Translator;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Translations of caption-templates, shared by all UIs and keyed by locale and template, so that
+ * a {@link Translator} is asked once per template and locale instead of once per component. The
+ * cache is bounded as configured in {@link TranslationModule#TranslationModule(Class, String)}.
+ * Templates the translator has no translation for are cached as well, so they don't cause a call
+ * to the translator per component either. Translations that change at runtime have to be
+ * invalidated explicitly, an instance can be injected anywhere.
+ *
+ * <code> {@literal @}Inject private TranslationCache translationCache; </code>
+ *
+ * <p> The locale of a translation is the locale of the current {@link UI}, or of the current
+ * {@link VaadinSession} if there is no current UI. While the translator is called, {@link
+ * #currentLocale()} returns the locale the translation will be cached under, so translators are
+ * expected to translate into {@link #currentLocale()}, like {@link CatalogTranslator} does. </p>
+ */
+public final class TranslationCache implements TranslationCacheStatistics {
+
+    //cached for templates that have no translation, compared by identity
+    private static final String NO_TRANSLATION = new String("");
+
+    private final Cache<Key, String> translationsByKey;
+    private final Cache<Key, MessageFormat> messageFormatsByKey;
+
+    //the locale translations are cached under while the translator is called on this thread
+    private static final ThreadLocal<Locale> translationLocale = new ThreadLocal<Locale>();
+
+    //incremented on every invalidation, so that translations made before can be recognized
+    private final AtomicInteger generation = new AtomicInteger();
+
+    TranslationCache(String cacheSpec) {
+        final CacheBuilderSpec spec = CacheBuilderSpec.parse(cacheSpec);
+
+        this.translationsByKey = CacheBuilder.from(spec).recordStats().build();
+        this.messageFormatsByKey = CacheBuilder.from(spec).build();
+    }
+
+    /**
+     * @return the translation of the template in the current locale, only calls the translator if
+     * the translation is not cached yet
+     */
+    String translate(Translator translator, String template) {
+        return translate(translator, template, Collections.<String>emptySet());
+    }
+
+    /**
+     * like {@link #translate(Translator, String)}, but if the template is not cached and the
+     * translator is a {@link BatchTranslator}, the related templates are translated in the same
+     * call, so they are cached once they are needed
+     */
+    String translate(Translator translator, String template, Collection<String> relatedTemplates) {
+        final String translation = translationsByKey.getIfPresent(new Key(currentLocale(), template));
+
+        if (translation != null) {
+            return translation != NO_TRANSLATION ? translation : null;
+        }
+
+        if (translator instanceof BatchTranslator && !relatedTemplates.isEmpty()) {
+            final Set<String> templates = new LinkedHashSet<String>(relatedTemplates);
+
+            templates.add(template);
+
+            return translateAll(translator, templates).get(template);
+        }
+
+        return translateAndCache(translator, currentLocale(), template);
+    }
+
+    /**
+     * @return the translations by template in the current locale, templates that are not cached
+     * are translated with a single call if the translator is a {@link BatchTranslator}
+     */
+    Map<String, String> translateAll(Translator translator, Collection<String> templates) {
+        final Locale locale = currentLocale();
+        final Map<String, String> translations = new HashMap<String, String>(templates.size() * 2);
+        final List<String> missingTemplates = new ArrayList<String>();
+
+        for (String template : templates) {
+            final String translation = translationsByKey.getIfPresent(new Key(locale, template));
+
+            if (translation == null) {
+                missingTemplates.add(template);
+            } else if (translation != NO_TRANSLATION) {
+                translations.put(template, translation);
+            }
+        }
+
+        if (missingTemplates.isEmpty()) {
+            return translations;
+        }
+
+        if (translator instanceof BatchTranslator) {
+            final int translatedGeneration = generation.get();
+            final Map<String, String> batch;
+
+            translationLocale.set(locale);
+
+            try {
+                batch = ((BatchTranslator) translator).translateAll(missingTemplates);
+            } finally {
+                translationLocale.remove();
+            }
+
+            for (String template : missingTemplates) {
+                final String translation = batch.get(template);
+
+                cache(new Key(locale, template), translation, translatedGeneration);
+
+                if (translation != null) {
+                    translations.put(template, translation);
+                }
+            }
+        } else {
+            for (String template : missingTemplates) {
+                final String translation = translateAndCache(translator, locale, template);
+
+                if (translation != null) {
+                    translations.put(template, translation);
+                }
+            }
+        }
+
+        return translations;
+    }
+
+    /**
+     * @return the translation of the template in the current locale, used as a {@link
+     * MessageFormat}-pattern for the arguments. The pattern is parsed only once per locale, every
+     * call formats with a clone of the parsed MessageFormat, which is cheaper than parsing.
+     */
+    String format(Translator translator, String template, Object[] arguments) {
+        final Locale locale = currentLocale();
+        final Key key = new Key(locale, template);
+
+        MessageFormat messageFormat = messageFormatsByKey.getIfPresent(key);
+
+        if (messageFormat == null) {
+            final int parsedGeneration = generation.get();
+            final String pattern = translate(translator, template);
+
+            if (pattern == null) {
+                return null;
+            }
+
+            messageFormat = new MessageFormat(pattern, locale);
+            messageFormatsByKey.put(key, messageFormat);
+
+            if (generation.get() != parsedGeneration) {
+                messageFormatsByKey.asMap().remove(key, messageFormat);
+            }
+        }
+
+        //MessageFormat is not thread-safe and the cache is shared by all sessions, a lock would serialize them
+        return ((MessageFormat) messageFormat.clone()).format(arguments);
+    }
+
+    private String translateAndCache(Translator translator, Locale locale, String template) {
+        final int translatedGeneration = generation.get();
+        final String translation;
+
+        translationLocale.set(locale);
+
+        try {
+            translation = translator.translate(template);
+        } finally {
+            translationLocale.remove();
+        }
+
+        cache(new Key(locale, template), translation, translatedGeneration);
+
+        return translation;
+    }
+
+    /**
+     * caches the translation unless the cache has been invalidated while it was made, in which case
+     * it may be a translation from the replaced catalogs
+     */
+    private void cache(Key key, String translation, int translatedGeneration) {
+        final String value = translation != null ? translation : NO_TRANSLATION;
+
+        translationsByKey.put(key, value);
+
+        if (generation.get() != translatedGeneration) {
+            translationsByKey.asMap().remove(key, value);
+        }
+    }
+
+    /**
+     * removes all translations, for example after the translator's catalogs have been replaced
+     */
+    public void invalidateAll() {
+        //incremented first, so translations that are cached after the removal are recognized as stale
+        generation.incrementAndGet();
+        translationsByKey.invalidateAll();
+        messageFormatsByKey.invalidateAll();
+    }
+
+    /**
+     * removes the translations of a single locale
+     */
+    public void invalidate(Locale locale) {
+        checkNotNull(locale);
+
+        generation.incrementAndGet();
+        invalidate(translationsByKey.asMap().keySet(), locale, null);
+        invalidate(messageFormatsByKey.asMap().keySet(), locale, null);
+    }
+
+    /**
+     * removes the translations of a single template in all locales
+     */
+    public void invalidate(String template) {
+        checkNotNull(template);
+
+        generation.incrementAndGet();
+        invalidate(translationsByKey.asMap().keySet(), null, template);
+        invalidate(messageFormatsByKey.asMap().keySet(), null, template);
+    }
+
+    /**
+     * @return a number that changes whenever translations are invalidated
+     */
+    int getGeneration() {
+        return generation.get();
+    }
+
+    private static void invalidate(Set<Key> keys, Locale locale, String template) {
+        for (Iterator<Key> iterator = keys.iterator(); iterator.hasNext(); ) {
+            final Key key = iterator.next();
+
+            if (key.locale.equals(locale) || key.template.equals(template)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return translationsByKey.stats().hitCount();
+    }
+
+    @Override
+    public long getMisses() {
+        return translationsByKey.stats().missCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return translationsByKey.stats().hitRate();
+    }
+
+    @Override
+    public long getEvictions() {
+        return translationsByKey.stats().evictionCount();
+    }
+
+    /**
+     * @return the locale translations are made in: while a translator is called by the cache, the
+     * locale the translation will be cached under, otherwise the locale of the current {@link UI},
+     * of the current {@link VaadinSession} or the default locale
+     */
+    public static Locale currentLocale() {
+        final Locale locale = translationLocale.get();
+
+        if (locale != null) {
+            return locale;
+        }
+
+        final UI ui = UI.getCurrent();
+
+        if (ui != null && ui.getLocale() != null) {
+            return ui.getLocale();
+        }
+
+        final VaadinSession vaadinSession = VaadinSession.getCurrent();
+
+        if (vaadinSession != null && vaadinSession.getLocale() != null) {
+            return vaadinSession.getLocale();
+        }
+
+        return Locale.getDefault();
+    }
+
+    private static final class Key {
+        private final Locale locale;
+        private final String template;
+
+        Key(Locale locale, String template) {
+            this.locale = locale;
+            this.template = checkNotNull(template);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(locale, template);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key that = (Key) o;
+
+            return locale.equals(that.locale) && template.equals(that.template);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.vaadin.guice.i18n;
+
+/**
+ * Counters of the {@link TranslationCache}, an instance can be injected anywhere.
+ *
+ * <code> {@literal @}Inject private TranslationCacheStatistics translationCacheStatistics; </code>
+ */
+public interface TranslationCacheStatistics {
+
+    /**
+     * @return the number of translations that were taken from the cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of translations that had to be done by the {@link
+     * org.vaadin.i18n.api.Translator}
+     */
+    long getMisses();
+
+    /**
+     * @return hits divided by all lookups, 1.0 if there were no lookups yet
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of translations that were removed to keep the cache within it's bounds
+     */
+    long getEvictions();
+}
@@ -0,0 +1,211 @@
+package com.vaadin.guice.i18n;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A read-only, memory-mapped catalog of translations as written by {@link CatalogCompiler}. The
+ * strings stay in the mapped file, so a catalog costs almost no heap no matter how many templates
+ * and locales it holds. The file is laid out as follows, all numbers are big-endian ints:
+ *
+ * <pre>
+ * magic, version, templateCount, localeCount
+ * localeCount times: offset of the locale's name
+ * templateCount times: offset of the template, sorted by the template's UTF-8 bytes
+ * localeCount times templateCount times: offset of the translation, or -1 if there is none
+ * strings: byte-length followed by UTF-8 bytes
+ * </pre>
+ *
+ * Lookups are a binary search over the template offsets that compares UTF-8 bytes in place.
+ */
+final class TranslationCatalog {
+
+    static final int MAGIC = 0x47564331;
+    static final int VERSION = 1;
+    static final int NO_TRANSLATION = -1;
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int HEADER_INTS = 4;
+
+    private final ByteBuffer buffer;
+    private final int templateCount;
+    private final int templateTable;
+    private final int translationTable;
+    private final Map<Locale, Integer> localeIndices;
+
+    private TranslationCatalog(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        checkArgument(buffer.capacity() >= HEADER_INTS * 4, "not a translation catalog");
+        checkArgument(buffer.getInt(0) == MAGIC, "not a translation catalog");
+        checkArgument(buffer.getInt(4) == VERSION, "unsupported catalog version %s", buffer.getInt(4));
+
+        templateCount = buffer.getInt(8);
+
+        final int localeCount = buffer.getInt(12);
+        final int localeTable = HEADER_INTS * 4;
+
+        templateTable = localeTable + localeCount * 4;
+        translationTable = templateTable + templateCount * 4;
+
+        checkComplete(localeTable, translationTable + localeCount * templateCount * 4);
+
+        localeIndices = new HashMap<Locale, Integer>(localeCount * 2);
+
+        for (int i = 0; i < localeCount; i++) {
+            localeIndices.put(toLocale(readString(buffer.getInt(localeTable + i * 4))), i);
+        }
+    }
+
+    /**
+     * maps the file read-only, see {@link CatalogFile} for sharing the mapping
+     *
+     * @throws IllegalArgumentException if the file is not a complete catalog
+     */
+    static TranslationCatalog map(File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            final MappedByteBuffer mappedByteBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return new TranslationCatalog(mappedByteBuffer);
+        } finally {
+            //the mapping stays valid after the channel is closed
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * checks that all offsets in the tables point to strings within the file, so that a catalog
+     * that is still being written is not used
+     */
+    private void checkComplete(int tablesStart, int tablesEnd) {
+        checkArgument(tablesEnd <= buffer.capacity(), "catalog is incomplete");
+
+        for (int position = tablesStart; position < tablesEnd; position += 4) {
+            final int offset = buffer.getInt(position);
+
+            if (offset == NO_TRANSLATION) {
+                continue;
+            }
+
+            checkArgument(offset >= tablesEnd && offset + 4L <= buffer.capacity(), "catalog is incomplete");
+
+            final int length = buffer.getInt(offset);
+
+            checkArgument(length >= 0 && offset + 4L + length <= buffer.capacity(), "catalog is incomplete");
+        }
+    }
+
+    /**
+     * @return the translation in the locale, falling back to the locale's language and then to the
+     * catalog's default locale, or null if there is none
+     */
+    String lookup(String template, Locale locale) {
+        final int templateIndex = indexOf(template.getBytes(UTF_8));
+
+        if (templateIndex < 0) {
+            return null;
+        }
+
+        String translation = lookup(templateIndex, locale);
+
+        if (translation == null && locale.getCountry().length() > 0) {
+            translation = lookup(templateIndex, new Locale(locale.getLanguage()));
+        }
+
+        if (translation == null) {
+            translation = lookup(templateIndex, Locale.ROOT);
+        }
+
+        return translation;
+    }
+
+    private String lookup(int templateIndex, Locale locale) {
+        final Integer localeIndex = localeIndices.get(locale);
+
+        if (localeIndex == null) {
+            return null;
+        }
+
+        final int offset = buffer.getInt(translationTable + (localeIndex * templateCount + templateIndex) * 4);
+
+        return offset == NO_TRANSLATION ? null : readString(offset);
+    }
+
+    private int indexOf(byte[] template) {
+        int low = 0;
+        int high = templateCount - 1;
+
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = compareTo(buffer.getInt(templateTable + middle * 4), template);
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * compares the string at the offset with the bytes as unsigned bytes, without copying it
+     */
+    private int compareTo(int offset, byte[] bytes) {
+        final int length = buffer.getInt(offset);
+        final int start = offset + 4;
+        final int commonLength = Math.min(length, bytes.length);
+
+        for (int i = 0; i < commonLength; i++) {
+            final int comparison = (buffer.get(start + i) & 0xff) - (bytes[i] & 0xff);
+
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return length - bytes.length;
+    }
+
+    private String readString(int offset) {
+        final int length = buffer.getInt(offset);
+        final byte[] bytes = new byte[length];
+
+        //absolute bulk-reads are not available, so read from a duplicate to stay thread-safe
+        final ByteBuffer duplicate = buffer.duplicate();
+
+        duplicate.position(offset + 4);
+        duplicate.get(bytes);
+
+        return new String(bytes, UTF_8);
+    }
+
+    static Locale toLocale(String localeName) {
+        final String[] parts = localeName.split("_", 3);
+
+        switch (parts.length) {
+            case 1:
+                return new Locale(parts[0]);
+            case 2:
+                return new Locale(parts[0], parts[1]);
+            default:
+                return new Locale(parts[0], parts[1], parts[2]);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.vaadin.i18n.annotation.Caption;
 import org.vaadin.i18n.api.TranslationBinder;
 import org.vaadin.i18n.api.Translator;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -40,14 +41,32 @@ import static com.google.common.base.Preconditions.checkState;
  *     }
  * }
  * </pre>
+ *
+ * Translations are cached in a {@link TranslationCache} that is bounded to {@value
+ * #DEFAULT_CACHE_SPEC}, use {@link #TranslationModule(Class, String)} to bound it differently. If
+ * the translator is a {@link BatchTranslator}, missing translations are fetched all at once.
  */
 public abstract class TranslationModule extends AbstractModule implements NeedsReflections, NeedsInjector {
+    public static final String DEFAULT_CACHE_SPEC = "maximumSize=10000";
+
     private final Class<? extends Translator> translatorClass;
+    private final TranslationCache translationCache;
+    private CatalogReloadConfiguration catalogReloadConfiguration;
     private Reflections reflections;
     private Provider<Injector> injectorProvider;
 
     public TranslationModule(Class<? extends Translator> translatorClass) {
+        this(translatorClass, DEFAULT_CACHE_SPEC);
+    }
+
+    /**
+     * @param cacheSpec the bounds and eviction of the {@link TranslationCache} in the format of
+     *                  {@link com.google.common.cache.CacheBuilderSpec}, like
+     *                  "maximumSize=10000,expireAfterWrite=1h"
+     */
+    public TranslationModule(Class<? extends Translator> translatorClass, String cacheSpec) {
         this.translatorClass = checkNotNull(translatorClass);
+        this.translationCache = new TranslationCache(checkNotNull(cacheSpec));
     }
 
     @Override
@@ -56,6 +75,8 @@ public abstract class TranslationModule extends AbstractModule implements NeedsR
 
         final Set<Class<?>> translatedTypes = reflections.getTypesAnnotatedWith(Caption.class);
 
+        final Set<String> captionTemplates = new HashSet<String>(translatedTypes.size());
+
         Multibinder<Component> translatedComponentsMultibinder = Multibinder.newSetBinder(binder(), Component.class, AllTranslatedComponents.class);
 
         for (Class<?> translatedTypeRaw : translatedTypes) {
@@ -66,10 +87,19 @@ public abstract class TranslationModule extends AbstractModule implements NeedsR
             );
 
             translatedComponentsMultibinder.addBinding().to((Class<? extends Component>) translatedTypeRaw);
+
+            captionTemplates.add(translatedTypeRaw.getAnnotation(Caption.class).value());
         }
 
         bind(Translator.class).to(translatorClass);
         bind(TranslationBinder.class).to(GuiceTranslationBinder.class);
+        bind(ParameterizedTranslationBinder.class).to(GuiceTranslationBinder.class);
+        bind(TranslationCache.class).toInstance(translationCache);
+        bind(TranslationCacheStatistics.class).toInstance(translationCache);
+
+        if (catalogReloadConfiguration != null) {
+            bind(CatalogReloader.class).toInstance(new CatalogReloader(catalogReloadConfiguration, translationCache));
+        }
 
         bindListener(new AbstractMatcher<TypeLiteral<?>>() {
             @Override
@@ -86,13 +116,33 @@ public abstract class TranslationModule extends AbstractModule implements NeedsR
 
                         Translator translator = injectorProvider.get().getInstance(Translator.class);
 
-                        ((Component) injectee).setCaption(translator.translate(caption.value()));
+                        //a BatchTranslator translates all captions at the first miss per locale
+                        ((Component) injectee).setCaption(translationCache.translate(translator, caption.value(), captionTemplates));
                     }
                 });
             }
         });
     }
 
+    /**
+     * let {@link CatalogTranslator}s reload their catalogs when the files change and update the
+     * captions of all live UIs, to be called in the constructor of a subclass:
+     *
+     * <pre>
+     *     <code>
+     *         class MyTranslationModule extends TranslationModule {
+     *             MyTranslationModule() {
+     *                 super(MyCatalogTranslator.class);
+     *                 setCatalogReloadConfiguration(new CatalogReloadConfiguration(5000, 200, 1000));
+     *             }
+     *         }
+     *     </code>
+     * </pre>
+     */
+    protected void setCatalogReloadConfiguration(CatalogReloadConfiguration catalogReloadConfiguration) {
+        this.catalogReloadConfiguration = checkNotNull(catalogReloadConfiguration);
+    }
+
     public void setReflections(Reflections reflections) {
         this.reflections = reflections;
     }
@@ -3,6 +3,8 @@ package com.vaadin.guice.security;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.name.Named;
 
 import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.navigator.Navigator;
@@ -30,6 +32,16 @@ class GuicePermissionEnforcer implements PermissionEnforcer {
     @Inject
     private PermissionEvaluator permissionEvaluator;
 
+    @Inject
+    private Provider<PermissionDecisionCache> permissionDecisionCacheProvider;
+
+    @Inject
+    private PermissionDecisionCounters permissionDecisionCounters;
+
+    @Inject
+    @Named("guice_security_permission_decision_ttl_nanos")
+    private Long permissionDecisionTtlNanos;
+
     @Inject
     GuicePermissionEnforcer(@AllRestrictedComponents Set<Component> restrictedComponents) {
         restrictedComponentsByPermission = HashMultimap.create(restrictedComponents.size(), 4);
@@ -62,7 +74,7 @@ class GuicePermissionEnforcer implements PermissionEnforcer {
             String permission = entry.getKey();
             Collection<Component> components = entry.getValue();
 
-            boolean hasPermission = permissionEvaluator.hasPermission(permission);
+            boolean hasPermission = hasPermission(permission);
 
             for (Component component : components) {
                 component.setVisible(hasPermission);
@@ -70,6 +82,16 @@ class GuicePermissionEnforcer implements PermissionEnforcer {
         }
     }
 
+    private boolean hasPermission(String permission) {
+        if (permissionDecisionTtlNanos <= 0) {
+            //nothing is cached, so there's no need to resolve the session-scoped cache
+            permissionDecisionCounters.miss();
+            return permissionEvaluator.hasPermission(permission);
+        }
+
+        return permissionDecisionCacheProvider.get().hasPermission(permissionEvaluator, permission);
+    }
+
     @Override
     public void register(Component component, String permission) {
         checkNotNull(component);
@@ -0,0 +1,100 @@
+package com.vaadin.guice.security;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import com.vaadin.guice.annotation.VaadinSessionScope;
+
+import org.vaadin.security.api.PermissionEvaluator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The decisions of the {@link PermissionEvaluator} for one session, each kept for the configured
+ * time, see {@link SecurityModule#setPermissionDecisionTtl(long, java.util.concurrent.TimeUnit)}.
+ * Decisions are dropped earlier by {@link #invalidate()} or a {@link PermissionsChangedEvent}, a
+ * decision that was being made while the cache was invalidated is not kept. An instance can be
+ * injected into session-, UI- or view-scoped objects.
+ *
+ * <code> {@literal @}Inject private PermissionDecisionCache permissionDecisionCache; </code>
+ */
+@VaadinSessionScope
+public final class PermissionDecisionCache {
+
+    private final ConcurrentMap<String, Decision> decisionsByPermission = new ConcurrentHashMap<String, Decision>();
+    private final long ttlNanos;
+    private final PermissionDecisionCounters counters;
+
+    //incremented on every invalidation, so that decisions made before can be recognized
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @Inject
+    PermissionDecisionCache(
+            @Named("guice_security_permission_decision_ttl_nanos") Long ttlNanos,
+            PermissionDecisionCounters counters
+    ) {
+        this.ttlNanos = ttlNanos;
+        this.counters = counters;
+    }
+
+    /**
+     * @return the cached decision for the permission, or the evaluator's decision if there is no
+     * cached decision or it has expired
+     */
+    boolean hasPermission(PermissionEvaluator permissionEvaluator, String permission) {
+        if (ttlNanos <= 0) {
+            counters.miss();
+            return permissionEvaluator.hasPermission(permission);
+        }
+
+        final long now = System.nanoTime();
+
+        final Decision decision = decisionsByPermission.get(permission);
+
+        if (decision != null && now - decision.decidedAtNanos < ttlNanos) {
+            counters.hit();
+            return decision.granted;
+        }
+
+        counters.miss();
+
+        final int decidedGeneration = generation.get();
+        final boolean granted = permissionEvaluator.hasPermission(permission);
+        final Decision newDecision = new Decision(granted, now);
+
+        decisionsByPermission.put(permission, newDecision);
+
+        if (generation.get() != decidedGeneration) {
+            //invalidated while the evaluator was asked, so the decision may be based on outdated permissions
+            decisionsByPermission.remove(permission, newDecision);
+        }
+
+        return granted;
+    }
+
+    /**
+     * drops all decisions of this session, for example after the user has logged in or out
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        decisionsByPermission.clear();
+    }
+
+    @Subscribe
+    public void onPermissionsChanged(PermissionsChangedEvent permissionsChangedEvent) {
+        invalidate();
+    }
+
+    private static final class Decision {
+        private final boolean granted;
+        private final long decidedAtNanos;
+
+        Decision(boolean granted, long decidedAtNanos) {
+            this.granted = granted;
+            this.decidedAtNanos = decidedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.vaadin.guice.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class PermissionDecisionCounters implements PermissionDecisionStatistics {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+}
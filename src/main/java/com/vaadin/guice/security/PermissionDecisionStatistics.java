@@ -0,0 +1,21 @@
+package com.vaadin.guice.security;
+
+/**
+ * Counters of the permission decisions that are cached per session, summed up over all sessions.
+ * An instance can be injected anywhere.
+ *
+ * <code> {@literal @}Inject private PermissionDecisionStatistics permissionDecisionStatistics; </code>
+ */
+public interface PermissionDecisionStatistics {
+
+    /**
+     * @return the number of decisions that were taken from a session's cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of decisions that had to be made by the {@link
+     * org.vaadin.security.api.PermissionEvaluator}, including all decisions if caching is disabled
+     */
+    long getMisses();
+}
@@ -0,0 +1,14 @@
+package com.vaadin.guice.security;
+
+import com.vaadin.guice.bus.events.GlobalEvent;
+import com.vaadin.guice.bus.events.SessionEvent;
+
+/**
+ * Invalidates cached permission decisions, see {@link SecurityModule#setPermissionDecisionTtl(long,
+ * java.util.concurrent.TimeUnit)}. Posted to the {@link com.vaadin.guice.bus.SessionEventBus}, it
+ * affects the current session only, for example after a login, posted to the {@link
+ * com.vaadin.guice.bus.GlobalEventBus}, it affects all sessions, for example after roles have been
+ * changed. Requires the {@link com.vaadin.guice.bus.BusModule}.
+ */
+public final class PermissionsChangedEvent implements SessionEvent, GlobalEvent {
+}
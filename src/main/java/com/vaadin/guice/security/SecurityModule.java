@@ -22,8 +22,10 @@ import org.vaadin.security.api.PermissionEnforcer;
 import org.vaadin.security.api.PermissionEvaluator;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.inject.name.Names.named;
 
@@ -33,6 +35,7 @@ public abstract class SecurityModule extends AbstractModule implements NeedsRefl
     private final Class<? extends View> permissionDeniedView;
     private Reflections reflections;
     private Provider<Injector> injectorProvider;
+    private long permissionDecisionTtlNanos;
 
     public SecurityModule(Class<? extends PermissionEvaluator> permissionEvaluatorClass, Class<? extends View> permissionDeniedView) {
         this.permissionDeniedView = permissionDeniedView;
@@ -53,6 +56,15 @@ public abstract class SecurityModule extends AbstractModule implements NeedsRefl
         if (permissionEvaluatorClass != null) {
             bind(PermissionEvaluator.class).to(permissionEvaluatorClass);
             bind(PermissionEnforcer.class).to(GuicePermissionEnforcer.class);
+            bind(Long.class)
+                    .annotatedWith(named("guice_security_permission_decision_ttl_nanos"))
+                    .toInstance(permissionDecisionTtlNanos);
+
+            final PermissionDecisionCounters permissionDecisionCounters = new PermissionDecisionCounters();
+            final boolean permissionDecisionsCached = permissionDecisionTtlNanos > 0;
+
+            bind(PermissionDecisionCounters.class).toInstance(permissionDecisionCounters);
+            bind(PermissionDecisionStatistics.class).toInstance(permissionDecisionCounters);
 
             final Set<Class<?>> restrictedComponentClasses = reflections.getTypesAnnotatedWith(Restricted.class);
 
@@ -88,9 +100,23 @@ public abstract class SecurityModule extends AbstractModule implements NeedsRefl
                                         public void afterInjection(I injectee) {
                                             final Restricted annotation = injectee.getClass().getAnnotation(Restricted.class);
 
-                                            PermissionEvaluator permissionEvaluator = injectorProvider.get().getInstance(PermissionEvaluator.class);
+                                            final Injector injector = injectorProvider.get();
+
+                                            PermissionEvaluator permissionEvaluator = injector.getInstance(PermissionEvaluator.class);
+
+                                            final boolean hasPermission;
 
-                                            ((Component) injectee).setVisible(permissionEvaluator.hasPermission(annotation.value()));
+                                            if (permissionDecisionsCached) {
+                                                hasPermission = injector
+                                                        .getInstance(PermissionDecisionCache.class)
+                                                        .hasPermission(permissionEvaluator, annotation.value());
+                                            } else {
+                                                //nothing is cached, so there's no need to resolve the session-scoped cache
+                                                permissionDecisionCounters.miss();
+                                                hasPermission = permissionEvaluator.hasPermission(annotation.value());
+                                            }
+
+                                            ((Component) injectee).setVisible(hasPermission);
                                         }
                                     }
                             );
@@ -118,6 +144,30 @@ public abstract class SecurityModule extends AbstractModule implements NeedsRefl
         }
     }
 
+    /**
+     * let every session keep the decisions of the {@link PermissionEvaluator} for the given time,
+     * to be called in the constructor of a subclass. Without it, every check asks the evaluator.
+     * Cached decisions can be dropped early with a {@link PermissionsChangedEvent} or {@link
+     * PermissionDecisionCache#invalidate()}, which should be done whenever a user's permissions
+     * change, like on login or logout.
+     *
+     * <pre>
+     *     <code>
+     *         public class MySecurityModule extends SecurityModule {
+     *             public MySecurityModule() {
+     *                 super(MyPermissionEvaluator.class);
+     *                 setPermissionDecisionTtl(5, TimeUnit.MINUTES);
+     *             }
+     *         }
+     *     </code>
+     * </pre>
+     */
+    protected void setPermissionDecisionTtl(long duration, TimeUnit timeUnit) {
+        checkArgument(duration >= 0, "duration must not be negative, is %s", duration);
+
+        this.permissionDecisionTtlNanos = checkNotNull(timeUnit).toNanos(duration);
+    }
+
     public void setInjectorProvider(Provider<Injector> injectorProvider) {
         this.injectorProvider = injectorProvider;
     }
@@ -0,0 +1,100 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.ErrorViewCaching;
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewProvider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.vaadin.guice.server.PathUtil.removeParametersFromViewName;
+
+/**
+ * error {@link ViewProvider} of a single UI's navigator, see {@link com.vaadin.guice.annotation.GuiceUI#errorView()}.
+ * Unknown view-names are counted and logged, but at most once per {@link #LOG_INTERVAL_NANOS} over
+ * all UIs, so bots scanning for fragments can neither flood the log nor the heap. All unknown
+ * view-names are reported as the error view's own name, see {@link #getErrorViewName()}, so
+ * the navigator, its listeners and the {@link NavigationMetrics} only ever see a bounded set of
+ * view-names.
+ */
+final class ErrorViewProvider implements ViewProvider {
+
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final Logger LOGGER = Logger.getLogger(ErrorViewProvider.class.getName());
+    private static final AtomicLong nextLogTime = new AtomicLong(System.nanoTime());
+    private static final AtomicLong suppressedLogs = new AtomicLong();
+
+    private final GuiceVaadin guiceVaadin;
+    private final Class<? extends View> errorViewClass;
+    private final ErrorViewCaching errorViewCaching;
+    private final String errorViewName;
+    private String unknownViewName;
+    private View errorView;
+
+    ErrorViewProvider(GuiceVaadin guiceVaadin, Class<? extends View> errorViewClass, ErrorViewCaching errorViewCaching) {
+        final GuiceView annotation = errorViewClass.getAnnotation(GuiceView.class);
+
+        this.guiceVaadin = guiceVaadin;
+        this.errorViewClass = errorViewClass;
+        this.errorViewCaching = errorViewCaching;
+        this.errorViewName = annotation != null ? annotation.value() : errorViewClass.getName();
+    }
+
+    private static void logUnknownViewName(String viewName) {
+        final long now = System.nanoTime();
+        final long nextLog = nextLogTime.get();
+
+        if (now - nextLog < 0 || !nextLogTime.compareAndSet(nextLog, now + LOG_INTERVAL_NANOS)) {
+            suppressedLogs.incrementAndGet();
+            return;
+        }
+
+        LOGGER.log(
+                Level.INFO,
+                "navigation to unknown view-name \"{0}\", {1} more unknown view-names were not logged since the last message",
+                new Object[]{viewName, suppressedLogs.getAndSet(0)}
+        );
+    }
+
+    /**
+     * the name under which navigations to the error view are reported, the {@link GuiceView#value()}
+     * if the error view is annotated, otherwise it's class-name. The fragment that was navigated to is
+     * still available from {@link com.vaadin.navigator.Navigator#getState()}.
+     */
+    String getErrorViewName() {
+        return errorViewName;
+    }
+
+    @Override
+    public String getViewName(String viewAndParameters) {
+        //the navigator calls getView right after getViewName, both under the session lock
+        unknownViewName = removeParametersFromViewName(viewAndParameters);
+
+        return errorViewName;
+    }
+
+    @Override
+    public View getView(String viewName) {
+        guiceVaadin.getNavigationCounters().failedViewResolution();
+
+        logUnknownViewName(unknownViewName != null ? unknownViewName : viewName);
+
+        unknownViewName = null;
+
+        switch (errorViewCaching) {
+            case NONE:
+                return guiceVaadin.assemble(errorViewClass);
+            case PER_UI:
+                if (errorView == null) {
+                    errorView = guiceVaadin.assemble(errorViewClass);
+                }
+
+                return errorView;
+            default:
+                throw new IllegalStateException("unknown ErrorViewCaching " + errorViewCaching);
+        }
+    }
+}
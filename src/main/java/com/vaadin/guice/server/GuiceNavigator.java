@@ -2,7 +2,10 @@ package com.vaadin.guice.server;
 
 import com.vaadin.guice.annotation.GuiceUI;
 import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
 import com.vaadin.navigator.ViewDisplay;
+import com.vaadin.navigator.ViewProvider;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.SingleComponentContainer;
 import com.vaadin.ui.UI;
@@ -13,6 +16,18 @@ import com.vaadin.ui.UI;
  */
 public class GuiceNavigator extends Navigator {
 
+    /**
+     * the view-name under which navigations to view-names that are neither registered nor the
+     * error view's name are reported to the {@link NavigationMetrics}, so a bot trying random
+     * fragments cannot create metrics per fragment.
+     */
+    static final String UNREGISTERED_VIEW_NAME = "(unregistered)";
+
+    private transient NavigationMetrics navigationMetrics;
+    private transient ViewProvider registeredViews;
+    private String errorViewName;
+    private transient NavigationTiming currentNavigationTiming;
+
     void init(UI ui, ComponentContainer container) {
         init(ui, new ComponentContainerViewDisplay(container));
     }
@@ -25,4 +40,91 @@ public class GuiceNavigator extends Navigator {
         init(ui, new UriFragmentManager(ui.getPage()), display);
     }
 
+    void setNavigationMetrics(NavigationMetrics navigationMetrics, ViewProvider registeredViews) {
+        this.navigationMetrics = navigationMetrics;
+        this.registeredViews = registeredViews;
+    }
+
+    @Override
+    public void setErrorProvider(ViewProvider provider) {
+        super.setErrorProvider(provider);
+
+        errorViewName = provider instanceof ErrorViewProvider
+                ? ((ErrorViewProvider) provider).getErrorViewName()
+                : null;
+    }
+
+    void addPhaseTime(NavigationPhase phase, long nanos) {
+        if (currentNavigationTiming != null) {
+            currentNavigationTiming.add(phase, nanos);
+        }
+    }
+
+    @Override
+    protected void navigateTo(View view, String viewName, String parameters) {
+        //navigations may be nested, for example when a ViewChangeListener redirects
+        final NavigationTiming outerNavigationTiming = currentNavigationTiming;
+
+        currentNavigationTiming = new NavigationTiming();
+
+        try {
+            super.navigateTo(view, viewName, parameters);
+
+            if (navigationMetrics != null) {
+                currentNavigationTiming.report(getReportedViewName(viewName), navigationMetrics);
+            }
+        } finally {
+            currentNavigationTiming = outerNavigationTiming;
+        }
+    }
+
+    private String getReportedViewName(String viewName) {
+        if (registeredViews == null || viewName.equals(errorViewName) || registeredViews.getViewName(viewName) != null) {
+            return viewName;
+        }
+
+        return UNREGISTERED_VIEW_NAME;
+    }
+
+    @Override
+    protected boolean fireBeforeViewChange(ViewChangeEvent event) {
+        final boolean navigationAllowed = super.fireBeforeViewChange(event);
+
+        if (navigationAllowed && currentNavigationTiming != null) {
+            currentNavigationTiming.viewEnterStart = System.nanoTime();
+        }
+
+        return navigationAllowed;
+    }
+
+    @Override
+    protected void fireAfterViewChange(ViewChangeEvent event) {
+        if (currentNavigationTiming != null && currentNavigationTiming.viewEnterStart != 0) {
+            currentNavigationTiming.add(NavigationPhase.VIEW_ENTER, System.nanoTime() - currentNavigationTiming.viewEnterStart);
+            currentNavigationTiming.viewEnterStart = 0;
+        }
+
+        super.fireAfterViewChange(event);
+    }
+
+    private static final class NavigationTiming {
+        private static final NavigationPhase[] PHASES = NavigationPhase.values();
+
+        private final long[] phaseNanos = new long[PHASES.length];
+        private final boolean[] phaseTimed = new boolean[PHASES.length];
+        private long viewEnterStart;
+
+        void add(NavigationPhase phase, long nanos) {
+            phaseNanos[phase.ordinal()] += nanos;
+            phaseTimed[phase.ordinal()] = true;
+        }
+
+        void report(String viewName, NavigationMetrics navigationMetrics) {
+            for (NavigationPhase phase : PHASES) {
+                if (phaseTimed[phase.ordinal()]) {
+                    navigationMetrics.record(viewName, phase, phaseNanos[phase.ordinal()]);
+                }
+            }
+        }
+    }
 }
@@ -4,11 +4,14 @@ import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
 
 import com.vaadin.navigator.Navigator;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewChangeListener;
 import com.vaadin.server.DefaultUIProvider;
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
 import com.vaadin.server.ServiceException;
 import com.vaadin.server.SessionInitEvent;
 import com.vaadin.server.SessionInitListener;
@@ -50,9 +53,12 @@ class GuiceVaadin implements SessionInitListener {
     private final Injector injector;
     private final VaadinSessionScoper vaadinSessionScoper;
     private final ViewScoper viewScoper;
+    private final NavigationCounters navigationCounters;
+    private final NavigationMetrics navigationMetrics;
+    private final SessionTeardownPipeline sessionTeardownPipeline;
 
     //used for non-testing
-    GuiceVaadin(Reflections reflections, Class<? extends Module>[] modules) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    GuiceVaadin(Reflections reflections, Class<? extends Module>[] modules, Class<? extends NavigationMetrics> navigationMetricsClass) throws IllegalAccessException, InstantiationException, InvocationTargetException {
         this(
                 new Provider<VaadinSession>() {
                     @Override
@@ -83,7 +89,8 @@ class GuiceVaadin implements SessionInitListener {
                     }
                 },
                 reflections,
-                modules
+                modules,
+                navigationMetricsClass
         );
     }
 
@@ -94,6 +101,26 @@ class GuiceVaadin implements SessionInitListener {
             Provider<VaadinService> vaadinServiceProvider,
             Reflections reflections,
             Class<? extends Module>[] modules
+    ) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        this(
+                vaadinSessionProvider,
+                currentUIProvider,
+                currentViewProvider,
+                vaadinServiceProvider,
+                reflections,
+                modules,
+                NoOpNavigationMetrics.class
+        );
+    }
+
+    GuiceVaadin(
+            Provider<VaadinSession> vaadinSessionProvider,
+            Provider<UI> currentUIProvider,
+            Provider<View> currentViewProvider,
+            Provider<VaadinService> vaadinServiceProvider,
+            Reflections reflections,
+            Class<? extends Module>[] modules,
+            Class<? extends NavigationMetrics> navigationMetricsClass
     ) throws IllegalAccessException, InvocationTargetException, InstantiationException {
         /*
          * combine bindings from the static modules in {@link GuiceVaadinConfiguration#modules()} with those bindings
@@ -115,8 +142,15 @@ class GuiceVaadin implements SessionInitListener {
         this.uiScoper = new UIScoper(vaadinSessionProvider, currentUIProvider);
         this.viewScoper = new ViewScoper(vaadinSessionProvider, currentViewProvider);
         this.vaadinSessionScoper = new VaadinSessionScoper(vaadinSessionProvider);
+        this.navigationCounters = new NavigationCounters();
         this.viewProvider = new GuiceViewProvider(views, this);
         this.guiceUIProvider = new GuiceUIProvider(this);
+        this.sessionTeardownPipeline = new SessionTeardownPipeline();
+
+        sessionTeardownPipeline.addParticipant(uiScoper);
+        sessionTeardownPipeline.addParticipant(viewScoper);
+        sessionTeardownPipeline.addParticipant(viewProvider);
+        sessionTeardownPipeline.addParticipant(vaadinSessionScoper);
 
         //sets up the basic vaadin stuff like UIProvider
         VaadinModule vaadinModule = new VaadinModule(this);
@@ -125,6 +159,8 @@ class GuiceVaadin implements SessionInitListener {
         Module combinedModule = combine(vaadinModule, dynamicAndStaticModules);
 
         this.injector = createInjector(combinedModule);
+
+        this.navigationMetrics = injector.getInstance(navigationMetricsClass);
     }
 
     @Override
@@ -154,13 +190,24 @@ class GuiceVaadin implements SessionInitListener {
         //this glues guice to vaadin
         service.addSessionInitListener(this);
 
-        service.addSessionDestroyListener(uiScoper);
         service.addSessionInitListener(uiScoper);
-        service.addSessionDestroyListener(viewScoper);
         service.addSessionInitListener(viewScoper);
-        service.addSessionDestroyListener(viewProvider);
         service.addSessionInitListener(viewProvider);
-        service.addSessionDestroyListener(vaadinSessionScoper);
+
+        //releases the state of all scopes and other participants, see SessionTeardownParticipant
+        service.addSessionDestroyListener(sessionTeardownPipeline);
+
+        service.addServiceDestroyListener(new ServiceDestroyListener() {
+            @Override
+            public void serviceDestroy(ServiceDestroyEvent event) {
+                sessionTeardownPipeline.shutdown();
+            }
+        });
+
+        if (navigationMetrics instanceof ServiceDestroyListener) {
+            //for example JmxNavigationMetrics, which unregisters its MBeans
+            service.addServiceDestroyListener((ServiceDestroyListener) navigationMetrics);
+        }
     }
 
     GuiceViewProvider getViewProvider() {
@@ -219,4 +266,32 @@ class GuiceVaadin implements SessionInitListener {
         return viewScoper;
     }
 
+    NavigationCounters getNavigationCounters() {
+        return navigationCounters;
+    }
+
+    NavigationMetrics getNavigationMetrics() {
+        return navigationMetrics;
+    }
+
+    SessionTeardownPipeline getSessionTeardownPipeline() {
+        return sessionTeardownPipeline;
+    }
+
+    /**
+     * @return true if any {@link RoundTripListener} is bound, without creating one
+     */
+    boolean hasRoundTripListeners() {
+        return !injector.findBindingsByType(TypeLiteral.get(RoundTripListener.class)).isEmpty();
+    }
+
+    /**
+     * the listeners must not be created before the {@link VaadinService} is initialized, since
+     * they may depend on it like the GlobalEventBus does
+     */
+    Provider<Set<RoundTripListener>> getRoundTripListenersProvider() {
+        return injector.getProvider(Key.get(new TypeLiteral<Set<RoundTripListener>>() {
+        }));
+    }
+
 }
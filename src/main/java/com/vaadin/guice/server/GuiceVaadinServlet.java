@@ -3,7 +3,10 @@ package com.vaadin.guice.server;
 import com.google.inject.Injector;
 
 import com.vaadin.guice.annotation.GuiceVaadinConfiguration;
+import com.vaadin.server.DeploymentConfiguration;
+import com.vaadin.server.ServiceException;
 import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
 
 import org.reflections.Reflections;
 
@@ -37,12 +40,21 @@ public class GuiceVaadinServlet extends VaadinServlet {
         Reflections reflections = new Reflections((Object[]) annotation.basePackages());
 
         try {
-            this.guiceVaadin = new GuiceVaadin(reflections, annotation.modules());
+            this.guiceVaadin = new GuiceVaadin(reflections, annotation.modules(), annotation.navigationMetrics());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    protected VaadinServletService createServletService(DeploymentConfiguration deploymentConfiguration) throws ServiceException {
+        final GuiceVaadinServletService service = new GuiceVaadinServletService(this, deploymentConfiguration, guiceVaadin);
+
+        service.init();
+
+        return service;
+    }
+
     @Override
     protected void servletInitialized() throws ServletException {
         guiceVaadin.vaadinInitialized();
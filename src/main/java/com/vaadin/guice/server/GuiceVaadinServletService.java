@@ -0,0 +1,36 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.DeploymentConfiguration;
+import com.vaadin.server.RequestHandler;
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+
+import java.util.List;
+
+/**
+ * the {@link VaadinServletService} of the {@link GuiceVaadinServlet}, it adds a {@link
+ * RoundTripRequestHandler} if any {@link RoundTripListener} is bound
+ */
+class GuiceVaadinServletService extends VaadinServletService {
+
+    private final GuiceVaadin guiceVaadin;
+
+    GuiceVaadinServletService(VaadinServlet servlet, DeploymentConfiguration deploymentConfiguration, GuiceVaadin guiceVaadin) throws ServiceException {
+        super(servlet, deploymentConfiguration);
+        this.guiceVaadin = guiceVaadin;
+    }
+
+    @Override
+    protected List<RequestHandler> createRequestHandlers() throws ServiceException {
+        final List<RequestHandler> requestHandlers = super.createRequestHandlers();
+
+        //the listeners are created on the first request, this service is not initialized yet
+        if (guiceVaadin.hasRoundTripListeners()) {
+            //handlers are called in reverse order, so the last one is called first
+            requestHandlers.add(new RoundTripRequestHandler(guiceVaadin.getRoundTripListenersProvider()));
+        }
+
+        return requestHandlers;
+    }
+}
@@ -2,18 +2,25 @@ package com.vaadin.guice.server;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.inject.Key;
 
+import com.vaadin.guice.annotation.GuiceUI;
 import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.UncachedView;
 import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
 import com.vaadin.navigator.ViewProvider;
+import com.vaadin.server.ClientConnector;
 import com.vaadin.server.ServiceException;
-import com.vaadin.server.SessionDestroyEvent;
-import com.vaadin.server.SessionDestroyListener;
 import com.vaadin.server.SessionInitEvent;
 import com.vaadin.server.SessionInitListener;
 import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
@@ -26,20 +33,24 @@ import static com.vaadin.guice.server.PathUtil.removeParametersFromViewName;
 /**
  * A Vaadin {@link ViewProvider} that fetches the views from the guice application context. The
  * views must implement the {@link View} interface and be annotated with the {@link GuiceView}
- * annotation. <p>
+ * annotation. <p> Every UI keeps the views it visited last in a {@link ViewHistory}, so back- and
+ * forward-navigation does not construct the same view over and over again, see {@link
+ * GuiceUI#viewHistoryDepth()}. <p> The provider is also registered as a {@link ViewChangeListener}
+ * on every navigator, so an {@link UncachedView} is released and views that exceed the history are
+ * evicted only once the navigation away from them has been confirmed. <p>
  *
  * @author Petter Holmström (petter@vaadin.com)
  * @author Henri Sara (hesara@vaadin.com)
  * @author Bernd Hopp (bernd@vaadin.com)
  * @see GuiceView
  */
-class GuiceViewProvider implements ViewProvider, SessionDestroyListener, SessionInitListener {
+class GuiceViewProvider implements ViewProvider, ViewChangeListener, SessionTeardownParticipant, SessionInitListener {
 
     private static final long serialVersionUID = 6113953554214462809L;
 
     private final Map<String, Class<? extends View>> viewNamesToViewClassesMap;
     private final GuiceVaadin guiceVaadin;
-    private final Map<VaadinSession, Map<String, View>> viewsBySessionMap;
+    private final Map<VaadinSession, Map<UI, ViewHistory>> viewHistoriesBySessionMap;
     private final NavigableSet<String> viewNames;
 
     GuiceViewProvider(Set<Class<? extends View>> viewClasses, GuiceVaadin guiceVaadin) {
@@ -50,7 +61,7 @@ class GuiceViewProvider implements ViewProvider, SessionDestroyListener, Session
         // This is useful for quickly looking up views by name
         viewNames = ImmutableSortedSet.copyOf(viewNamesToViewClassesMap.keySet());
 
-        viewsBySessionMap = new ConcurrentHashMap<VaadinSession, Map<String, View>>();
+        viewHistoriesBySessionMap = new ConcurrentHashMap<VaadinSession, Map<UI, ViewHistory>>();
     }
 
     private Map<String, Class<? extends View>> scanForViews(Set<Class<? extends View>> viewClasses) {
@@ -80,40 +91,222 @@ class GuiceViewProvider implements ViewProvider, SessionDestroyListener, Session
     public View getView(String viewName) {
         checkArgument(viewNames.contains(viewName), "%s is not a registered view-name", viewName);
 
-        VaadinSession session = VaadinSession.getCurrent();
+        final long start = System.nanoTime();
 
-        Map<String, View> views = viewsBySessionMap.get(session);
+        try {
+            return getOrCreateView(viewName);
+        } finally {
+            guiceVaadin.getNavigationMetrics().record(viewName, NavigationPhase.VIEW_INJECTION, System.nanoTime() - start);
+        }
+    }
+
+    private View getOrCreateView(String viewName) {
+        final UI ui = guiceVaadin.getCurrentUIProvider().get();
 
-        View view = views.get(viewName);
+        checkState(ui != null, "views can only be provided within a UI");
 
-        if (view == null) {
-            Class<? extends View> viewClass = viewNamesToViewClassesMap.get(viewName);
+        final ViewHistory viewHistory = getViewHistory(ui);
 
-            checkArgument(viewClass != null, "no view for name %s registered", viewName);
+        View view = viewHistory.get(viewName);
+
+        if (view != null) {
+            guiceVaadin.getNavigationCounters().viewCacheHit();
+            return view;
+        }
 
-            try {
-                guiceVaadin.getViewScoper().startInitialization();
+        guiceVaadin.getNavigationCounters().viewCacheMiss();
 
-                view = guiceVaadin.assemble(viewClass);
-                views.put(viewName, view);
+        Class<? extends View> viewClass = viewNamesToViewClassesMap.get(viewName);
 
-                guiceVaadin.getViewScoper().endInitialization(view);
-            } catch (RuntimeException e) {
-                guiceVaadin.getViewScoper().rollbackInitialization();
-                throw e;
+        checkArgument(viewClass != null, "no view for name %s registered", viewName);
+
+        try {
+            guiceVaadin.getViewScoper().startInitialization();
+
+            view = guiceVaadin.assemble(viewClass);
+
+            if (viewClass.getAnnotation(UncachedView.class) != null) {
+                //uncached views are not kept in the UI-scope, so every navigation constructs a new instance
+                guiceVaadin.getUiScoper().remove(Key.get(viewClass));
             }
+
+            viewHistory.put(viewName, viewClass, view);
+
+            guiceVaadin.getViewScoper().endInitialization(view);
+        } catch (RuntimeException e) {
+            guiceVaadin.getViewScoper().rollbackInitialization();
+            throw e;
         }
 
         return view;
     }
 
     @Override
-    public void sessionDestroy(SessionDestroyEvent event) {
-        viewsBySessionMap.remove(event.getSession());
+    public boolean beforeViewChange(ViewChangeEvent event) {
+        return true;
+    }
+
+    @Override
+    public void afterViewChange(ViewChangeEvent event) {
+        final UI ui = guiceVaadin.getCurrentUIProvider().get();
+
+        checkState(ui != null, "views can only be changed within a UI");
+
+        getViewHistory(ui).viewChanged(event.getNewView());
+    }
+
+    private ViewHistory getViewHistory(final UI ui) {
+        final Map<UI, ViewHistory> viewHistories = viewHistoriesBySessionMap.get(guiceVaadin.getVaadinSessionProvider().get());
+
+        checkState(viewHistories != null);
+
+        ViewHistory viewHistory = viewHistories.get(ui);
+
+        if (viewHistory == null) {
+            final GuiceUI annotation = ui.getClass().getAnnotation(GuiceUI.class);
+
+            checkState(annotation != null);
+
+            viewHistory = new ViewHistory(annotation.viewHistoryDepth());
+            viewHistories.put(ui, viewHistory);
+
+            final ViewHistory viewHistoryOfUI = viewHistory;
+
+            ui.addDetachListener(new ClientConnector.DetachListener() {
+                @Override
+                public void detach(ClientConnector.DetachEvent event) {
+                    viewHistories.remove(ui);
+                    viewHistoryOfUI.releaseAll();
+                }
+            });
+        }
+
+        return viewHistory;
+    }
+
+    @Override
+    public Runnable detach(VaadinSession vaadinSession) {
+        viewHistoriesBySessionMap.remove(vaadinSession);
+
+        //the views are released together with the view-scopes
+        return null;
     }
 
     @Override
     public void sessionInit(SessionInitEvent event) throws ServiceException {
-        viewsBySessionMap.put(event.getSession(), new HashMap<String, View>(viewNamesToViewClassesMap.size()));
+        viewHistoriesBySessionMap.put(event.getSession(), new HashMap<UI, ViewHistory>());
+    }
+
+    /**
+     * the least recently visited views of a single UI, views that exceed the configured depth are
+     * released together with their view-scope once a navigation has been confirmed, the displayed
+     * view is never released. Must only be accessed while the UI is locked.
+     */
+    private final class ViewHistory {
+        private final int depth;
+        private final Map<String, View> viewsByName;
+        private final Map<View, Class<? extends View>> viewClassesByView = new HashMap<View, Class<? extends View>>();
+        //the view that is currently displayed
+        private View currentView;
+        //the uncached view that is currently displayed
+        private View uncachedView;
+        //an uncached view that has been provided, but whose navigation is not confirmed yet
+        private View pendingUncachedView;
+
+        ViewHistory(final int depth) {
+            checkArgument(depth > 0, "viewHistoryDepth must be greater than 0, is %s", depth);
+
+            this.depth = depth;
+
+            //access-order, so the least recently visited views come first
+            viewsByName = new LinkedHashMap<String, View>(depth + 2, 1f, true);
+        }
+
+        View get(String viewName) {
+            return viewsByName.get(viewName);
+        }
+
+        void put(String viewName, Class<? extends View> viewClass, View view) {
+            viewClassesByView.put(view, viewClass);
+
+            if (viewClass.getAnnotation(UncachedView.class) != null) {
+                //a pending view that is still around belongs to a navigation that has been rejected
+                releaseUncached(pendingUncachedView);
+                pendingUncachedView = view;
+            } else {
+                viewsByName.put(viewName, view);
+            }
+        }
+
+        void viewChanged(View newView) {
+            currentView = newView;
+
+            if (uncachedView != newView) {
+                releaseUncached(uncachedView);
+                uncachedView = null;
+            }
+
+            if (pendingUncachedView == newView) {
+                uncachedView = newView;
+            } else {
+                releaseUncached(pendingUncachedView);
+            }
+
+            pendingUncachedView = null;
+
+            evictExceedingViews();
+        }
+
+        /**
+         * evicting when a view is provided would be too early, the navigation to it may still be
+         * rejected and leave the user on a released view
+         */
+        private void evictExceedingViews() {
+            for (Iterator<View> iterator = viewsByName.values().iterator(); iterator.hasNext() && viewsByName.size() > depth; ) {
+                final View view = iterator.next();
+
+                if (view != currentView) {
+                    release(view, true);
+                    iterator.remove();
+                }
+            }
+        }
+
+        void releaseAll() {
+            releaseUncached(uncachedView);
+            releaseUncached(pendingUncachedView);
+            uncachedView = null;
+            pendingUncachedView = null;
+            currentView = null;
+
+            for (Iterator<View> iterator = viewsByName.values().iterator(); iterator.hasNext(); ) {
+                release(iterator.next(), false);
+                iterator.remove();
+            }
+        }
+
+        private void releaseUncached(View view) {
+            if (view == null) {
+                return;
+            }
+
+            viewClassesByView.remove(view);
+
+            guiceVaadin.getViewScoper().release(view);
+
+            //uncached views are not kept in the UI-scope, so the view itself is released here
+            PreDestroyCallbacks.invoke(Collections.<Object>singleton(view));
+        }
+
+        private void release(View view, boolean evictFromUIScope) {
+            final Class<? extends View> viewClass = viewClassesByView.remove(view);
+
+            guiceVaadin.getViewScoper().release(view);
+
+            if (evictFromUIScope) {
+                //views are ui-scoped, so the next navigation needs to construct a new instance
+                guiceVaadin.getUiScoper().evict(Key.get(viewClass));
+            }
+        }
     }
 }
@@ -0,0 +1,103 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link NavigationMetrics} that keeps a {@link LatencyHistogram} per view and {@link
+ * NavigationPhase} and registers it at the platform MBean server under
+ * <code>com.vaadin.guice:type=NavigationMetrics,instance=id,view="viewName",phase=PHASE</code>.
+ * The instance-key keeps multiple applications in one JVM apart. All MBeans are unregistered when
+ * the {@link com.vaadin.server.VaadinService} is destroyed, so a redeployed application doesn't
+ * leak its classloader through the MBean server.
+ */
+public class JmxNavigationMetrics implements NavigationMetrics, ServiceDestroyListener {
+
+    private static final NavigationPhase[] PHASES = NavigationPhase.values();
+
+    private final ConcurrentMap<String, LatencyHistogram[]> histogramsByViewName = new ConcurrentHashMap<String, LatencyHistogram[]>();
+    private final Set<ObjectName> registeredNames = Collections.newSetFromMap(new ConcurrentHashMap<ObjectName, Boolean>());
+    private final String instance = Integer.toHexString(System.identityHashCode(this));
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    @Override
+    public void record(String viewName, NavigationPhase phase, long durationNanos) {
+        getHistograms(viewName)[phase.ordinal()].record(durationNanos);
+    }
+
+    @Override
+    public void serviceDestroy(ServiceDestroyEvent event) {
+        for (ObjectName objectName : registeredNames) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.log(Level.WARNING, "unable to unregister navigation metrics {0}", new Object[]{objectName});
+            }
+        }
+
+        registeredNames.clear();
+        histogramsByViewName.clear();
+    }
+
+    LatencyHistogram getHistogram(String viewName, NavigationPhase phase) {
+        final LatencyHistogram[] histograms = histogramsByViewName.get(viewName);
+
+        return histograms != null ? histograms[phase.ordinal()] : null;
+    }
+
+    Set<ObjectName> getRegisteredNames() {
+        return Collections.unmodifiableSet(registeredNames);
+    }
+
+    private LatencyHistogram[] getHistograms(String viewName) {
+        LatencyHistogram[] histograms = histogramsByViewName.get(viewName);
+
+        if (histograms != null) {
+            return histograms;
+        }
+
+        histograms = new LatencyHistogram[PHASES.length];
+
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+
+        final LatencyHistogram[] existingHistograms = histogramsByViewName.putIfAbsent(viewName, histograms);
+
+        if (existingHistograms != null) {
+            return existingHistograms;
+        }
+
+        for (NavigationPhase phase : PHASES) {
+            register(viewName, phase, histograms[phase.ordinal()]);
+        }
+
+        return histograms;
+    }
+
+    private void register(String viewName, NavigationPhase phase, LatencyHistogram histogram) {
+        try {
+            final ObjectName objectName = new ObjectName(
+                    "com.vaadin.guice:type=NavigationMetrics,instance=" + instance + ",view=" + ObjectName.quote(viewName) + ",phase=" + phase.name()
+            );
+
+            mBeanServer.registerMBean(histogram, objectName);
+            registeredNames.add(objectName);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "unable to register navigation metrics for view {0}", new Object[]{viewName});
+        }
+    }
+}
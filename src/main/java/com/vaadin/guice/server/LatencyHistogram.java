@@ -0,0 +1,121 @@
+package com.vaadin.guice.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A lock-free histogram of durations. Every power of two is split into four buckets, so
+ * percentiles are accurate to 25 percent, while recording a value costs two atomic increments.
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+    private static final double NANOS_PER_MILLI = 1000000d;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+
+        long currentMax = max.get();
+
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * @param percentile a value between 0 and 100
+     * @return an upper bound of the given percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100, is %s", percentile);
+
+        final long total = count.get();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long threshold = (long) Math.ceil(total * percentile / 100);
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+
+            if (seen >= threshold && seen > 0) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        final long total = count.get();
+
+        return total == 0 ? 0 : sum.get() / NANOS_PER_MILLI / total;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return max.get() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get50thPercentileMillis() {
+        return getPercentileNanos(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get95thPercentileMillis() {
+        return getPercentileNanos(95) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get99thPercentileMillis() {
+        return getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vaadin.guice.server;
+
+/**
+ * JMX view on a {@link LatencyHistogram}, all durations are in milliseconds.
+ */
+public interface LatencyHistogramMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double get50thPercentileMillis();
+
+    double get95thPercentileMillis();
+
+    double get99thPercentileMillis();
+}
@@ -0,0 +1,37 @@
+package com.vaadin.guice.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class NavigationCounters implements NavigationStatistics {
+
+    private final AtomicLong viewCacheHits = new AtomicLong();
+    private final AtomicLong viewCacheMisses = new AtomicLong();
+    private final AtomicLong failedViewResolutions = new AtomicLong();
+
+    void viewCacheHit() {
+        viewCacheHits.incrementAndGet();
+    }
+
+    void viewCacheMiss() {
+        viewCacheMisses.incrementAndGet();
+    }
+
+    void failedViewResolution() {
+        failedViewResolutions.incrementAndGet();
+    }
+
+    @Override
+    public long getViewCacheHits() {
+        return viewCacheHits.get();
+    }
+
+    @Override
+    public long getViewCacheMisses() {
+        return viewCacheMisses.get();
+    }
+
+    @Override
+    public long getFailedViewResolutions() {
+        return failedViewResolutions.get();
+    }
+}
@@ -0,0 +1,22 @@
+package com.vaadin.guice.server;
+
+/**
+ * Sink for the timings of navigations, set it via {@link com.vaadin.guice.annotation.GuiceVaadinConfiguration#navigationMetrics()}.
+ * {@link NoOpNavigationMetrics} is used by default, {@link JmxNavigationMetrics} exposes the
+ * timings over JMX. Implementations will be called on the request threads of all UIs, so they need
+ * to be thread-safe and fast. Implementations that also implement {@link
+ * com.vaadin.server.ServiceDestroyListener} are notified when the VaadinService is destroyed.
+ */
+public interface NavigationMetrics {
+
+    /**
+     * called once per phase of a navigation
+     *
+     * @param viewName      the name of the view that is being navigated to, navigations to
+     *                      view-names that are not registered are reported under the error view's
+     *                      name or "(unregistered)", so the set of view-names is bounded
+     * @param phase         the phase that was timed
+     * @param durationNanos the duration of the phase in nanoseconds
+     */
+    void record(String viewName, NavigationPhase phase, long durationNanos);
+}
@@ -0,0 +1,26 @@
+package com.vaadin.guice.server;
+
+/**
+ * The phases of a navigation that are timed by guice-vaadin, see {@link NavigationMetrics}.
+ */
+public enum NavigationPhase {
+    /**
+     * looking up or constructing the view in the {@link com.vaadin.navigator.ViewProvider}, this
+     * includes the injection of new views
+     */
+    VIEW_INJECTION,
+    /**
+     * the {@link com.vaadin.navigator.ViewChangeListener}s of the navigator, except of those for
+     * security
+     */
+    VIEW_CHANGE_LISTENERS,
+    /**
+     * the security checks in secure {@link com.vaadin.navigator.ViewChangeListener}s, see {@link
+     * com.vaadin.guice.security.SecurityModule}
+     */
+    SECURITY,
+    /**
+     * displaying the view and {@link com.vaadin.navigator.View#enter(com.vaadin.navigator.ViewChangeListener.ViewChangeEvent)}
+     */
+    VIEW_ENTER
+}
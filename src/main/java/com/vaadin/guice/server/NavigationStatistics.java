@@ -0,0 +1,28 @@
+package com.vaadin.guice.server;
+
+/**
+ * Counters for the navigation that is set up by guice-vaadin, summed up over all UIs. An instance
+ * can be injected anywhere.
+ *
+ * <code> {@literal @}Inject private NavigationStatistics navigationStatistics; </code>
+ */
+public interface NavigationStatistics {
+
+    /**
+     * @return the number of times a view was taken from a UI's view history, see {@link
+     * com.vaadin.guice.annotation.GuiceUI#viewHistoryDepth()}
+     */
+    long getViewCacheHits();
+
+    /**
+     * @return the number of times a view had to be constructed because it was not in a UI's view
+     * history
+     */
+    long getViewCacheMisses();
+
+    /**
+     * @return the number of navigations to view-names that could not be resolved and ended up at
+     * the {@link com.vaadin.guice.annotation.GuiceUI#errorView()}
+     */
+    long getFailedViewResolutions();
+}
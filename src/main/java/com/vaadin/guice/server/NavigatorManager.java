@@ -5,14 +5,14 @@ import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewChangeListener;
 import com.vaadin.navigator.ViewDisplay;
-import com.vaadin.navigator.ViewProvider;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.SingleComponentContainer;
 import com.vaadin.ui.UI;
 
+import org.vaadin.security.impl.SecureViewChangeListener;
+
 import static com.google.common.base.Preconditions.checkState;
-import static com.vaadin.guice.server.PathUtil.removeParametersFromViewName;
 import static java.lang.String.format;
 
 final class NavigatorManager {
@@ -50,6 +50,8 @@ final class NavigatorManager {
 
         GuiceNavigator navigator = guiceVaadin.assemble(navigatorClass);
 
+        navigator.setNavigationMetrics(guiceVaadin.getNavigationMetrics(), guiceVaadin.getViewProvider());
+
         if (defaultView instanceof ViewDisplay) {
             navigator.init(ui, (ViewDisplay) defaultView);
         } else if (defaultView instanceof ComponentContainer) {
@@ -69,28 +71,25 @@ final class NavigatorManager {
         if (!View.class.equals(annotation.errorView())) {
 
             navigator.setErrorProvider(
-                    new ViewProvider() {
-                        @Override
-                        public String getViewName(String viewAndParameters) {
-                            return removeParametersFromViewName(viewAndParameters);
-                        }
-
-                        @Override
-                        public View getView(String viewName) {
-                            //noinspection OptionalGetWithoutIsPresent
-                            return guiceVaadin.assemble(annotation.errorView());
-                        }
-                    }
+                    new ErrorViewProvider(guiceVaadin, annotation.errorView(), annotation.errorViewCaching())
             );
         }
 
         for (Class<? extends ViewChangeListener> viewChangeListenerClass : guiceVaadin.getViewChangeListeners(uiClass)) {
             ViewChangeListener viewChangeListener = guiceVaadin.assemble(viewChangeListenerClass);
-            navigator.addViewChangeListener(viewChangeListener);
+
+            NavigationPhase phase = viewChangeListener instanceof SecureViewChangeListener
+                    ? NavigationPhase.SECURITY
+                    : NavigationPhase.VIEW_CHANGE_LISTENERS;
+
+            navigator.addViewChangeListener(new TimedViewChangeListener(viewChangeListener, navigator, phase));
         }
 
         navigator.addProvider(guiceVaadin.getViewProvider());
 
+        //releases uncached views once the navigation away from them is confirmed
+        navigator.addViewChangeListener(guiceVaadin.getViewProvider());
+
         ui.setNavigator(navigator);
     }
 }
@@ -0,0 +1,11 @@
+package com.vaadin.guice.server;
+
+/**
+ * {@link NavigationMetrics} that discards all timings
+ */
+public final class NoOpNavigationMetrics implements NavigationMetrics {
+
+    @Override
+    public void record(String viewName, NavigationPhase phase, long durationNanos) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.vaadin.guice.server;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+
+import com.vaadin.server.VaadinSession;
+import com.vaadin.util.CurrentInstance;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * calls the {@link PreDestroy}-methods of scoped objects once their scope ends. Like with guava's
+ * {@link com.google.common.eventbus.Subscribe}, methods are looked up once per class.
+ *
+ * <p> When a UI is detached or a view is left, the callbacks run on the request-thread while the
+ * session is locked. When a session is destroyed, they run on the background-thread of {@link
+ * SessionTeardownPipeline} without the session's lock, {@link VaadinSession#getCurrent()} and
+ * {@link com.vaadin.server.VaadinService#getCurrent()} return the destroyed session and its
+ * service there, {@link com.vaadin.ui.UI#getCurrent()} returns null. Callbacks must therefore not
+ * modify components, but only release resources like connections or subscriptions. </p>
+ */
+final class PreDestroyCallbacks {
+
+    private static final Logger logger = Logger.getLogger(PreDestroyCallbacks.class.getName());
+
+    private static final LoadingCache<Class<?>, ImmutableList<Method>> preDestroyMethodsCache = CacheBuilder
+            .newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Class<?>, ImmutableList<Method>>() {
+                @Override
+                public ImmutableList<Method> load(Class<?> clazz) throws Exception {
+                    return getPreDestroyMethodsNotCached(clazz);
+                }
+            });
+
+    private PreDestroyCallbacks() {
+    }
+
+    /**
+     * calls the {@link PreDestroy}-methods of the objects of a destroyed session, with the session
+     * and its service set as current instances for the duration of the callbacks
+     */
+    static void invoke(Collection<Object> scopedObjects, VaadinSession destroyedSession) {
+        final Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance.setCurrent(destroyedSession);
+
+        try {
+            invoke(scopedObjects);
+        } finally {
+            CurrentInstance.restoreInstances(oldInstances);
+        }
+    }
+
+    /**
+     * calls the {@link PreDestroy}-methods of all objects, objects that are scoped under multiple
+     * keys are called only once. Exceptions are logged, so that one failing callback doesn't keep
+     * the others from being called.
+     */
+    static void invoke(Collection<Object> scopedObjects) {
+        Map<Object, Boolean> invoked = null;
+
+        for (Object scopedObject : scopedObjects) {
+            final ImmutableList<Method> methods = preDestroyMethodsCache.getUnchecked(scopedObject.getClass());
+
+            if (methods.isEmpty()) {
+                continue;
+            }
+
+            if (invoked == null) {
+                invoked = new IdentityHashMap<Object, Boolean>();
+            }
+
+            if (invoked.put(scopedObject, Boolean.TRUE) != null) {
+                continue;
+            }
+
+            for (Method method : methods) {
+                try {
+                    method.invoke(scopedObject);
+                } catch (IllegalAccessException e) {
+                    logger.log(Level.SEVERE, "unable to call " + method + " on " + scopedObject, e);
+                } catch (InvocationTargetException e) {
+                    logger.log(Level.SEVERE, "exception thrown by " + method + " on " + scopedObject, e.getCause());
+                }
+            }
+        }
+    }
+
+    private static ImmutableList<Method> getPreDestroyMethodsNotCached(Class<?> clazz) {
+        final ImmutableList.Builder<Method> methods = ImmutableList.builder();
+        final Set<String> overriddenNames = new HashSet<String>();
+
+        //most specific class first, a method that is overridden is called only through the override
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isSynthetic() || method.getParameterTypes().length != 0) {
+                    continue;
+                }
+
+                final boolean overridden = !Modifier.isPrivate(method.getModifiers())
+                        && !overriddenNames.add(method.getName());
+
+                if (overridden || !method.isAnnotationPresent(PreDestroy.class)) {
+                    continue;
+                }
+
+                checkArgument(
+                        !Modifier.isStatic(method.getModifiers()),
+                        "Method %s has @PreDestroy annotation but is static",
+                        method
+                );
+
+                method.setAccessible(true);
+                methods.add(method);
+            }
+        }
+
+        return methods.build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.ui.UI;
+
+/**
+ * Is notified when a client of a {@link UI} sends a request, before the request is processed and
+ * while the session is locked. Changes that are made to the UI in {@link #roundTripStarted(UI)}
+ * are sent to the client in the response of that request. Implementations are registered in a
+ * module with
+ *
+ * <pre>
+ *     <code>
+ *         Multibinder.newSetBinder(binder(), RoundTripListener.class).addBinding().to(MyRoundTripListener.class);
+ *     </code>
+ * </pre>
+ *
+ * and are only called if the {@link GuiceVaadinServlet} is used.
+ */
+public interface RoundTripListener {
+    void roundTripStarted(UI ui);
+}
@@ -0,0 +1,53 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Provider;
+
+import com.vaadin.server.SynchronizedRequestHandler;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * notifies the {@link RoundTripListener}s about every request that belongs to a {@link UI}, never
+ * handles a request itself. The listeners are looked up on the first request, since the handler
+ * is created while the {@link com.vaadin.server.VaadinService} is initialized and listeners like
+ * the GlobalEventBus cannot be created before that.
+ */
+class RoundTripRequestHandler extends SynchronizedRequestHandler {
+
+    private final Provider<Set<RoundTripListener>> roundTripListenersProvider;
+    private volatile Set<RoundTripListener> roundTripListeners;
+
+    RoundTripRequestHandler(Provider<Set<RoundTripListener>> roundTripListenersProvider) {
+        this.roundTripListenersProvider = roundTripListenersProvider;
+    }
+
+    private Set<RoundTripListener> getRoundTripListeners() {
+        Set<RoundTripListener> roundTripListeners = this.roundTripListeners;
+
+        if (roundTripListeners == null) {
+            //a set-binding is not scoped, so it is resolved once here and kept
+            roundTripListeners = roundTripListenersProvider.get();
+            this.roundTripListeners = roundTripListeners;
+        }
+
+        return roundTripListeners;
+    }
+
+    @Override
+    public boolean synchronizedHandleRequest(VaadinSession session, VaadinRequest request, VaadinResponse response) throws IOException {
+        final UI ui = session.getService().findUI(request);
+
+        if (ui != null) {
+            for (RoundTripListener roundTripListener : getRoundTripListeners()) {
+                roundTripListener.roundTripStarted(ui);
+            }
+        }
+
+        return false;
+    }
+}
@@ -5,19 +5,18 @@ import com.google.inject.Provider;
 import com.google.inject.Scope;
 
 import com.vaadin.server.ServiceException;
-import com.vaadin.server.SessionDestroyEvent;
-import com.vaadin.server.SessionDestroyListener;
 import com.vaadin.server.SessionInitEvent;
 import com.vaadin.server.SessionInitListener;
 import com.vaadin.server.VaadinSession;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkState;
 
-abstract class ScoperBase<SCOPE_BASE> implements Scope, SessionDestroyListener, SessionInitListener {
+abstract class ScoperBase<SCOPE_BASE> implements Scope, SessionTeardownParticipant, SessionInitListener {
     private final Provider<VaadinSession> vaadinSessionProvider;
     private final Provider<SCOPE_BASE> currentInstanceProvider;
     private final Map<VaadinSession, Map<SCOPE_BASE, Map<Key<?>, Object>>> sessionToScopedObjectsMap = new ConcurrentHashMap<VaadinSession, Map<SCOPE_BASE, Map<Key<?>, Object>>>();
@@ -47,6 +46,38 @@ abstract class ScoperBase<SCOPE_BASE> implements Scope, SessionDestroyListener,
         currentInitializationScopeSet = null;
     }
 
+    void release(SCOPE_BASE scopeBase) {
+        final Map<SCOPE_BASE, Map<Key<?>, Object>> scopedObjectsByInstance = sessionToScopedObjectsMap.get(vaadinSessionProvider.get());
+
+        if (scopedObjectsByInstance == null) {
+            //session is already destroyed
+            return;
+        }
+
+        final Map<Key<?>, Object> scopedObjects = scopedObjectsByInstance.remove(scopeBase);
+
+        if (scopedObjects != null) {
+            PreDestroyCallbacks.invoke(scopedObjects.values());
+            KeyObjectMapPool.returnMap(scopedObjects);
+        }
+    }
+
+    void evict(Key<?> key) {
+        final Object scopedObject = remove(key);
+
+        if (scopedObject != null) {
+            PreDestroyCallbacks.invoke(Collections.singleton(scopedObject));
+        }
+    }
+
+    /**
+     * removes the object that is scoped under the key from the current scope without calling its
+     * {@link javax.annotation.PreDestroy}-methods, the caller takes over its lifecycle
+     */
+    Object remove(Key<?> key) {
+        return getCurrentScopeMap().remove(key);
+    }
+
     @Override
     public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
         return new Provider<T>() {
@@ -82,14 +113,20 @@ abstract class ScoperBase<SCOPE_BASE> implements Scope, SessionDestroyListener,
     }
 
     @Override
-    public void sessionDestroy(SessionDestroyEvent event) {
-        final Map<SCOPE_BASE, Map<Key<?>, Object>> map = sessionToScopedObjectsMap.remove(event.getSession());
+    public Runnable detach(final VaadinSession vaadinSession) {
+        final Map<SCOPE_BASE, Map<Key<?>, Object>> map = sessionToScopedObjectsMap.remove(vaadinSession);
 
         checkState(map != null);
 
-        for (Map<Key<?>, Object> keyObjectMap : map.values()) {
-            KeyObjectMapPool.returnMap(keyObjectMap);
-        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                for (Map<Key<?>, Object> keyObjectMap : map.values()) {
+                    PreDestroyCallbacks.invoke(keyObjectMap.values(), vaadinSession);
+                    KeyObjectMapPool.returnMap(keyObjectMap);
+                }
+            }
+        };
     }
 
     @Override
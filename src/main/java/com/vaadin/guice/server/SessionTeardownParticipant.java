@@ -0,0 +1,21 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.VaadinSession;
+
+/**
+ * Holds per-session state that has to be released when a {@link VaadinSession} is destroyed.
+ * Sessions are destroyed on the servlet-container's thread, often many at once when they time out,
+ * so releasing is split in two steps, see {@link SessionTeardownPipeline}.
+ */
+public interface SessionTeardownParticipant {
+
+    /**
+     * detaches the session's state, so that it can no longer be reached through this participant.
+     * Called on the container's thread, so only constant work like removing a map-entry is allowed
+     * here.
+     *
+     * @return the work that releases the detached state, run on a background thread, or null if
+     * there is nothing to release
+     */
+    Runnable detach(VaadinSession vaadinSession);
+}
@@ -0,0 +1,121 @@
+package com.vaadin.guice.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.vaadin.server.SessionDestroyEvent;
+import com.vaadin.server.SessionDestroyListener;
+import com.vaadin.server.VaadinSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Releases the state that guice-vaadin keeps per {@link VaadinSession} once the session is
+ * destroyed. On the container's thread, every {@link SessionTeardownParticipant} only detaches the
+ * session's state, the actual release, including {@link javax.annotation.PreDestroy}-callbacks of
+ * scoped objects, is done on a single background thread. This keeps the container's thread from
+ * stalling when many sessions time out at once.
+ *
+ * <p> The release doesn't hold the session's lock. While the {@link
+ * javax.annotation.PreDestroy}-callbacks run, the destroyed session is the current {@link
+ * VaadinSession}, but there is no current UI. Callbacks should therefore only release resources
+ * and not modify components. </p>
+ *
+ * <p> Own participants can be added with {@link #addParticipant(SessionTeardownParticipant)} from
+ * anywhere this class can be injected. </p>
+ */
+public final class SessionTeardownPipeline implements SessionDestroyListener, SessionTeardownStatistics {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final List<SessionTeardownParticipant> participants = new CopyOnWriteArrayList<SessionTeardownParticipant>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicLong completedTeardowns = new AtomicLong();
+    private final LatencyHistogram teardownLatency = new LatencyHistogram();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("guice-vaadin-session-teardown-%d")
+                    .setDaemon(true)
+                    .build()
+    );
+
+    SessionTeardownPipeline() {
+    }
+
+    public void addParticipant(SessionTeardownParticipant participant) {
+        participants.add(checkNotNull(participant));
+    }
+
+    @Override
+    public void sessionDestroy(SessionDestroyEvent event) {
+        final long destroyed = System.nanoTime();
+        final List<Runnable> releases = new ArrayList<Runnable>(participants.size());
+
+        for (SessionTeardownParticipant participant : participants) {
+            final Runnable release = participant.detach(event.getSession());
+
+            if (release != null) {
+                releases.add(release);
+            }
+        }
+
+        final Runnable teardown = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (Runnable release : releases) {
+                        try {
+                            release.run();
+                        } catch (RuntimeException e) {
+                            logger.log(Level.SEVERE, "unable to release the state of a destroyed session", e);
+                        }
+                    }
+                } finally {
+                    backlog.decrementAndGet();
+                    completedTeardowns.incrementAndGet();
+                    teardownLatency.record(System.nanoTime() - destroyed);
+                }
+            }
+        };
+
+        backlog.incrementAndGet();
+
+        try {
+            executor.execute(teardown);
+        } catch (RejectedExecutionException e) {
+            //the service is shutting down, so release on the caller's thread
+            teardown.run();
+        }
+    }
+
+    /**
+     * releases the sessions that are already detached, but accepts no new ones
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    @Override
+    public long getCompletedTeardowns() {
+        return completedTeardowns.get();
+    }
+
+    @Override
+    public LatencyHistogramMXBean getTeardownLatency() {
+        return teardownLatency;
+    }
+}
@@ -0,0 +1,25 @@
+package com.vaadin.guice.server;
+
+/**
+ * Counters for the release of destroyed sessions, see {@link SessionTeardownPipeline}. An instance
+ * can be injected anywhere.
+ *
+ * <code> {@literal @}Inject private SessionTeardownStatistics sessionTeardownStatistics; </code>
+ */
+public interface SessionTeardownStatistics {
+
+    /**
+     * @return the number of destroyed sessions whose state is detached, but not yet released
+     */
+    int getBacklog();
+
+    /**
+     * @return the number of destroyed sessions whose state has been released
+     */
+    long getCompletedTeardowns();
+
+    /**
+     * @return the time from a session's destruction until it's state was released
+     */
+    LatencyHistogramMXBean getTeardownLatency();
+}
@@ -0,0 +1,42 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.ViewChangeListener;
+
+/**
+ * a {@link ViewChangeListener} that adds the time spent in the listener it decorates to the
+ * current navigation of a {@link GuiceNavigator}
+ */
+final class TimedViewChangeListener implements ViewChangeListener {
+
+    private final ViewChangeListener delegate;
+    private final GuiceNavigator navigator;
+    private final NavigationPhase phase;
+
+    TimedViewChangeListener(ViewChangeListener delegate, GuiceNavigator navigator, NavigationPhase phase) {
+        this.delegate = delegate;
+        this.navigator = navigator;
+        this.phase = phase;
+    }
+
+    @Override
+    public boolean beforeViewChange(ViewChangeEvent event) {
+        final long start = System.nanoTime();
+
+        try {
+            return delegate.beforeViewChange(event);
+        } finally {
+            navigator.addPhaseTime(phase, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void afterViewChange(ViewChangeEvent event) {
+        final long start = System.nanoTime();
+
+        try {
+            delegate.afterViewChange(event);
+        } finally {
+            navigator.addPhaseTime(phase, System.nanoTime() - start);
+        }
+    }
+}
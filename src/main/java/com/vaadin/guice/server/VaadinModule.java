@@ -33,6 +33,9 @@ class VaadinModule extends AbstractModule {
         bindScope(VaadinSessionScope.class, guiceVaadin.getVaadinSessionScoper());
         bind(UIProvider.class).toInstance(guiceVaadin.getGuiceUIProvider());
         bind(ViewProvider.class).toInstance(guiceVaadin.getViewProvider());
+        bind(NavigationStatistics.class).toInstance(guiceVaadin.getNavigationCounters());
+        bind(SessionTeardownPipeline.class).toInstance(guiceVaadin.getSessionTeardownPipeline());
+        bind(SessionTeardownStatistics.class).toInstance(guiceVaadin.getSessionTeardownPipeline());
 
         bind(VaadinSession.class).toProvider(guiceVaadin.getVaadinSessionProvider());
         bind(UI.class).toProvider(guiceVaadin.getCurrentUIProvider());
@@ -43,5 +46,8 @@ class VaadinModule extends AbstractModule {
         for (Class<? extends View> guiceViewClass : guiceVaadin.getViews()) {
             viewMultibinder.addBinding().to(guiceViewClass);
         }
+
+        //empty unless other modules contribute
+        Multibinder.newSetBinder(binder(), RoundTripListener.class);
     }
 }
@@ -4,14 +4,12 @@ import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 
-import com.vaadin.server.SessionDestroyEvent;
-import com.vaadin.server.SessionDestroyListener;
 import com.vaadin.server.VaadinSession;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-class VaadinSessionScoper implements Scope, SessionDestroyListener {
+class VaadinSessionScoper implements Scope, SessionTeardownParticipant {
 
     private final Map<VaadinSession, Map<Key<?>, Object>> scopedObjectsBySession = new ConcurrentHashMap<VaadinSession, Map<Key<?>, Object>>();
     private final Provider<VaadinSession> vaadinSessionProvider;
@@ -52,11 +50,19 @@ class VaadinSessionScoper implements Scope, SessionDestroyListener {
     }
 
     @Override
-    public void sessionDestroy(SessionDestroyEvent event) {
-        final Map<Key<?>, Object> map = scopedObjectsBySession.remove(event.getSession());
+    public Runnable detach(final VaadinSession vaadinSession) {
+        final Map<Key<?>, Object> map = scopedObjectsBySession.remove(vaadinSession);
 
-        if (map != null) {
-            KeyObjectMapPool.returnMap(map);
+        if (map == null) {
+            return null;
         }
+
+        return new Runnable() {
+            @Override
+            public void run() {
+                PreDestroyCallbacks.invoke(map.values(), vaadinSession);
+                KeyObjectMapPool.returnMap(map);
+            }
+        };
     }
 }
\ No newline at end of file
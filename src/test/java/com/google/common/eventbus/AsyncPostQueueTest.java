@@ -0,0 +1,223 @@
+package com.google.common.eventbus;
+
+import com.vaadin.guice.bus.AsyncDispatchConfiguration;
+import com.vaadin.guice.bus.QueueFullPolicy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class AsyncPostQueueTest {
+
+    private static final String BLOCKER = "blocker";
+
+    private final List<Object> dispatchedEvents = Collections.synchronizedList(new ArrayList<Object>());
+    private final List<String> dispatchingThreads = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch blockerEntered = new CountDownLatch(1);
+    private final CountDownLatch blockerReleased = new CountDownLatch(1);
+    private GlobalEventBusImpl globalEventBus;
+    private AsyncPostQueue asyncPostQueue;
+
+    @Before
+    public void setup() {
+        globalEventBus = mock(GlobalEventBusImpl.class);
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                final Object event = invocation.getArguments()[0];
+
+                if (BLOCKER.equals(event)) {
+                    blockerEntered.countDown();
+
+                    try {
+                        blockerReleased.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        //shutdown
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                dispatchedEvents.add(event);
+                dispatchingThreads.add(Thread.currentThread().getName());
+                return null;
+            }
+        }).when(globalEventBus).postNow(any(), any());
+    }
+
+    @After
+    public void tearDown() {
+        blockerReleased.countDown();
+
+        if (asyncPostQueue != null) {
+            asyncPostQueue.shutdown();
+        }
+    }
+
+    @Test
+    public void events_are_dispatched_in_order_on_dispatcher_threads() throws InterruptedException {
+        asyncPostQueue = create(2, 100, QueueFullPolicy.BLOCK);
+
+        for (int i = 0; i < 50; i++) {
+            asyncPostQueue.post(i, null);
+        }
+
+        awaitDispatched(50);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, dispatchedEvents.get(i));
+        }
+
+        for (String threadName : dispatchingThreads) {
+            assertTrue(threadName, threadName.startsWith("global-event-bus-dispatcher-"));
+        }
+    }
+
+    @Test
+    public void block_waits_for_room_in_the_queue() throws InterruptedException {
+        asyncPostQueue = create(1, 1, QueueFullPolicy.BLOCK);
+
+        blockDispatcher();
+        asyncPostQueue.post("queued", null);
+
+        final Thread poster = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                asyncPostQueue.post("waiting", null);
+            }
+        });
+
+        poster.start();
+
+        awaitBlocked(poster);
+
+        blockerReleased.countDown();
+        poster.join(10000);
+
+        awaitDispatched(3);
+
+        assertEquals(Arrays.<Object>asList(BLOCKER, "queued", "waiting"), dispatchedEvents);
+        assertEquals(0, asyncPostQueue.getDroppedEvents());
+    }
+
+    @Test
+    public void drop_oldest_discards_queued_events() throws InterruptedException {
+        asyncPostQueue = create(1, 1, QueueFullPolicy.DROP_OLDEST);
+
+        blockDispatcher();
+        asyncPostQueue.post("dropped", null);
+        asyncPostQueue.post("latest", null);
+
+        assertEquals(1, asyncPostQueue.getDroppedEvents());
+
+        blockerReleased.countDown();
+
+        awaitDispatched(2);
+
+        assertEquals(Arrays.<Object>asList(BLOCKER, "latest"), dispatchedEvents);
+    }
+
+    @Test
+    public void caller_runs_dispatches_on_the_posting_thread() throws InterruptedException {
+        asyncPostQueue = create(1, 1, QueueFullPolicy.CALLER_RUNS);
+
+        blockDispatcher();
+        asyncPostQueue.post("queued", null);
+        asyncPostQueue.post("overflow", null);
+
+        assertEquals(Collections.<Object>singletonList("overflow"), dispatchedEvents);
+        assertEquals(Thread.currentThread().getName(), dispatchingThreads.get(0));
+
+        blockerReleased.countDown();
+
+        awaitDispatched(3);
+
+        assertEquals(0, asyncPostQueue.getDroppedEvents());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void posts_after_shutdown_are_rejected() {
+        asyncPostQueue = create(1, 1, QueueFullPolicy.CALLER_RUNS);
+
+        asyncPostQueue.shutdown();
+        asyncPostQueue.post("late", null);
+    }
+
+    @Test
+    public void shutdown_releases_blocked_posts() throws InterruptedException {
+        asyncPostQueue = create(1, 1, QueueFullPolicy.BLOCK);
+
+        blockDispatcher();
+        asyncPostQueue.post("queued", null);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        final Thread poster = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    asyncPostQueue.post("waiting", null);
+                } catch (RejectedExecutionException e) {
+                    failure.set(e);
+                }
+            }
+        });
+
+        poster.start();
+
+        awaitBlocked(poster);
+
+        asyncPostQueue.shutdown();
+        poster.join(10000);
+
+        assertTrue(failure.get() instanceof RejectedExecutionException);
+        //the queued event is discarded by the shutdown
+        assertEquals(1, asyncPostQueue.getDroppedEvents());
+    }
+
+    private AsyncPostQueue create(int threads, int queueCapacity, QueueFullPolicy queueFullPolicy) {
+        return new AsyncPostQueue(globalEventBus, new AsyncDispatchConfiguration(threads, queueCapacity, queueFullPolicy));
+    }
+
+    private void blockDispatcher() throws InterruptedException {
+        asyncPostQueue.post(BLOCKER, null);
+
+        assertTrue(blockerEntered.await(10, TimeUnit.SECONDS));
+    }
+
+    private void awaitBlocked(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 1000 && thread.getState() != Thread.State.TIMED_WAITING; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+    }
+
+    private void awaitDispatched(int events) throws InterruptedException {
+        for (int i = 0; i < 1000 && dispatchedEvents.size() < events; i++) {
+            Thread.sleep(10);
+        }
+
+        if (dispatchedEvents.size() < events) {
+            fail("only " + dispatchedEvents.size() + " of " + events + " events were dispatched");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.google.common.eventbus;
+
+import com.google.inject.Provider;
+
+import com.vaadin.guice.bus.LoopbackEventTransport;
+import com.vaadin.guice.bus.events.GlobalEvent;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClusteredGlobalEventBusImplTest {
+
+    private static final String[] EVENT_PACKAGES = {"com.google.common.eventbus"};
+
+    private ClusteredGlobalEventBusImpl node1;
+    private ClusteredGlobalEventBusImpl node2;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        final LoopbackEventTransport.Hub hub = new LoopbackEventTransport.Hub();
+
+        final Provider<VaadinSession> vaadinSessionProvider = (Provider<VaadinSession>) mock(Provider.class);
+        when(vaadinSessionProvider.get()).thenReturn(mock(VaadinSession.class));
+
+        node1 = new ClusteredGlobalEventBusImpl(mock(VaadinService.class), vaadinSessionProvider, new LoopbackEventTransport(hub), EVENT_PACKAGES);
+        node2 = new ClusteredGlobalEventBusImpl(mock(VaadinService.class), vaadinSessionProvider, new LoopbackEventTransport(hub), EVENT_PACKAGES);
+
+        node1.start();
+        node2.start();
+    }
+
+    @Test
+    public void events_reach_other_nodes_exactly_once() throws InterruptedException {
+        final CountingSubscriber subscriber1 = new CountingSubscriber(1);
+        final CountingSubscriber subscriber2 = new CountingSubscriber(2);
+
+        node1.register(subscriber1);
+        node2.register(subscriber2);
+
+        node1.post(new Ping());
+        node2.post(new Ping());
+
+        assertTrue(subscriber1.await());
+        assertTrue(subscriber2.await());
+
+        /*
+         * the loopback transport delivers synchronously and every node sends its batches in order,
+         * so once a node received the other node's marker, all batches that this node sent before
+         * were delivered everywhere, echoes included
+         */
+        node1.post(new Marker());
+        node2.post(new Marker());
+
+        assertTrue(subscriber1.awaitMarkers());
+        assertTrue(subscriber2.awaitMarkers());
+
+        assertEquals(2, subscriber1.received.get());
+        assertEquals(2, subscriber2.received.get());
+    }
+
+    @Test
+    public void events_outside_of_the_event_packages_are_dropped_alone() throws InterruptedException {
+        final CountingSubscriber subscriber2 = new CountingSubscriber(1);
+        final AtomicInteger envelopes = new AtomicInteger();
+
+        node2.register(subscriber2);
+        node2.register(new Object() {
+            @Subscribe
+            public void onEnvelope(Envelope envelope) {
+                envelopes.incrementAndGet();
+            }
+        });
+
+        //neither the StringBuilder nor the Envelope that refers to one may hold back the Ping
+        node1.post(new StringBuilder("not allowed"));
+        node1.post(new Envelope());
+        node1.post(new Ping());
+
+        assertTrue(subscriber2.await());
+
+        node1.post(new Marker());
+        node2.post(new Marker());
+
+        assertTrue(subscriber2.awaitMarkers());
+        assertEquals(0, envelopes.get());
+    }
+
+    public static class Envelope implements GlobalEvent, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final StringBuilder content = new StringBuilder("not allowed");
+    }
+
+    public static class Ping implements GlobalEvent, Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class Marker implements GlobalEvent, Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class CountingSubscriber {
+        private final AtomicInteger received = new AtomicInteger();
+        private final CountDownLatch latch;
+        //one local and one remote marker
+        private final CountDownLatch markers = new CountDownLatch(2);
+
+        CountingSubscriber(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        @Subscribe
+        public void onPing(Ping ping) {
+            received.incrementAndGet();
+            latch.countDown();
+        }
+
+        @Subscribe
+        public void onMarker(Marker marker) {
+            markers.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        boolean awaitMarkers() throws InterruptedException {
+            return markers.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
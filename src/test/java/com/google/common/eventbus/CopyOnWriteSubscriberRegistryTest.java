@@ -0,0 +1,81 @@
+package com.google.common.eventbus;
+
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CopyOnWriteSubscriberRegistryTest {
+
+    @Test
+    public void session_subscribers_are_created_once() {
+        final CopyOnWriteSubscriberRegistry registry = new CopyOnWriteSubscriberRegistry(new EventBus());
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+        registry.register(vaadinSession, new PingSubscriber());
+
+        final Iterator<Subscriber> subscribers = registry.getSubscribers(new Ping(), vaadinSession);
+        final Subscriber subscriber = subscribers.next();
+
+        assertFalse(subscribers.hasNext());
+        assertSame(subscriber, registry.getSubscribers(new Ping(), vaadinSession).next());
+    }
+
+    @Test
+    public void release_all_unregisters_listeners_with_multiple_methods() {
+        final CopyOnWriteSubscriberRegistry registry = new CopyOnWriteSubscriberRegistry(new EventBus());
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final VaadinSession otherVaadinSession = mock(VaadinSession.class);
+
+        registry.register(vaadinSession, new PingPongSubscriber());
+        registry.register(otherVaadinSession, new PingSubscriber());
+
+        registry.releaseAll(vaadinSession);
+
+        assertFalse(registry.getSubscribers(new Pong()).hasNext());
+        assertFalse(registry.getSubscribers(new Ping(), vaadinSession).hasNext());
+        assertTrue(registry.getSubscribers(new Ping()).hasNext());
+        assertTrue(registry.getSubscribers(new Ping(), otherVaadinSession).hasNext());
+    }
+
+    @Test
+    public void unregistered_listeners_are_removed_from_the_session() {
+        final CopyOnWriteSubscriberRegistry registry = new CopyOnWriteSubscriberRegistry(new EventBus());
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final PingSubscriber subscriber = new PingSubscriber();
+
+        registry.register(vaadinSession, subscriber);
+        registry.unregister(vaadinSession, subscriber);
+
+        assertFalse(registry.getSubscribers(new Ping()).hasNext());
+        assertFalse(registry.getSubscribers(new Ping(), vaadinSession).hasNext());
+    }
+
+    static final class Ping {
+    }
+
+    static final class Pong {
+    }
+
+    static final class PingSubscriber {
+        @Subscribe
+        public void onPing(Ping ping) {
+        }
+    }
+
+    static final class PingPongSubscriber {
+        @Subscribe
+        public void onPing(Ping ping) {
+        }
+
+        @Subscribe
+        public void onPong(Pong pong) {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.google.common.eventbus;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Test;
+
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventBatchCodecTest {
+
+    private final EventBatchCodec codec = new EventBatchCodec(Collections.singleton("com.google.common.eventbus"));
+
+    @Test
+    public void batches_round_trip() throws Exception {
+        final UUID nodeId = UUID.randomUUID();
+
+        final List<Serializable> events = new ArrayList<Serializable>();
+        events.add(new PriceEvent("foo", 1));
+        events.add(new PriceEvent("bar", 2));
+        events.add("text");
+        events.add(new ArrayList<String>(ImmutableList.of("a", "b")));
+        events.add(new int[]{1, 2});
+
+        final byte[] batch = codec.encode(nodeId, 1, events);
+
+        assertEquals(nodeId, EventBatchCodec.readNodeId(batch));
+
+        final List<Object> decoded = codec.decodeEvents(batch);
+
+        assertEquals(5, decoded.size());
+        assertEquals("foo", ((PriceEvent) decoded.get(0)).id);
+        assertEquals(2, ((PriceEvent) decoded.get(1)).price);
+        assertEquals("text", decoded.get(2));
+        assertEquals(ImmutableList.of("a", "b"), decoded.get(3));
+        assertEquals(2, ((int[]) decoded.get(4)).length);
+    }
+
+    @Test
+    public void classes_outside_of_the_event_packages_are_rejected() throws Exception {
+        final EventBatchCodec restrictedCodec = new EventBatchCodec(Collections.singleton("com.example.events"));
+
+        final byte[] batch = codec.encode(UUID.randomUUID(), 1, Collections.<Serializable>singletonList(new PriceEvent("foo", 1)));
+
+        try {
+            restrictedCodec.decodeEvents(batch);
+            fail();
+        } catch (InvalidClassException e) {
+            assertTrue(e.getMessage().contains(PriceEvent.class.getName()));
+        }
+    }
+
+    @Test
+    public void nested_classes_outside_of_the_event_packages_are_rejected() throws Exception {
+        final EventBatchCodec restrictedCodec = new EventBatchCodec(Collections.singleton("com.example.events"));
+
+        final ArrayList<Object> payload = new ArrayList<Object>();
+        payload.add(new PriceEvent("foo", 1));
+
+        final byte[] batch = codec.encode(UUID.randomUUID(), 1, Collections.<Serializable>singletonList(payload));
+
+        try {
+            restrictedCodec.decodeEvents(batch);
+            fail();
+        } catch (InvalidClassException e) {
+            assertTrue(e.getMessage().contains(PriceEvent.class.getName()));
+        }
+    }
+
+    @Test
+    public void classes_outside_of_the_event_packages_are_not_encoded() throws Exception {
+        final ArrayList<Object> payload = new ArrayList<Object>();
+        payload.add(new StringBuilder("not allowed"));
+
+        try {
+            codec.encode(UUID.randomUUID(), 1, Collections.<Serializable>singletonList(payload));
+            fail();
+        } catch (InvalidClassException e) {
+            assertTrue(e.getMessage().contains(StringBuilder.class.getName()));
+        }
+    }
+
+    @Test
+    public void allowlist() {
+        assertTrue(codec.isAllowed("java.lang.String"));
+        assertTrue(codec.isAllowed("com.google.common.eventbus.EventBatchCodecTest$PriceEvent"));
+        assertTrue(codec.isAllowed("[Lcom.google.common.eventbus.EventBatchCodecTest$PriceEvent;"));
+        assertTrue(codec.isAllowed("[[J"));
+        assertFalse(codec.isAllowed("com.google.common.eventbusx.Foo"));
+        assertFalse(codec.isAllowed("java.lang.StringBuilder"));
+        assertFalse(codec.isAllowed("[Ljava.lang.Object;"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void event_packages_are_required() {
+        new EventBatchCodec(Collections.<String>emptyList());
+    }
+
+    static final class PriceEvent implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        private final int price;
+
+        PriceEvent(String id, int price) {
+            this.id = id;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.google.common.eventbus;
+
+import com.google.inject.Provider;
+
+import com.vaadin.guice.bus.events.GlobalEvent;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GlobalEventBusImplAudienceTest {
+
+    private final VaadinSession tenantASession = mock(VaadinSession.class);
+    private final VaadinSession tenantBSession = mock(VaadinSession.class);
+    private final CountingSubscriber tenantASubscriber = new CountingSubscriber();
+    private final CountingSubscriber tenantBSubscriber = new CountingSubscriber();
+    private VaadinSession currentSession;
+    private GlobalEventBusImpl globalEventBus;
+
+    @Before
+    public void setup() {
+        final Provider<VaadinSession> vaadinSessionProvider = new Provider<VaadinSession>() {
+            @Override
+            public VaadinSession get() {
+                return currentSession;
+            }
+        };
+
+        globalEventBus = new GlobalEventBusImpl(mock(VaadinService.class), vaadinSessionProvider);
+
+        currentSession = tenantASession;
+        globalEventBus.joinAudience("tenant-a");
+        globalEventBus.register(tenantASubscriber);
+
+        currentSession = tenantBSession;
+        globalEventBus.joinAudience("tenant-b");
+        globalEventBus.register(tenantBSubscriber);
+    }
+
+    @Test
+    public void targeted_events_reach_the_audience_only() {
+        globalEventBus.post(new Ping(), "tenant-a");
+
+        assertEquals(1, tenantASubscriber.received);
+        assertEquals(0, tenantBSubscriber.received);
+    }
+
+    @Test
+    public void untargeted_events_reach_everyone() {
+        globalEventBus.post(new Ping());
+
+        assertEquals(1, tenantASubscriber.received);
+        assertEquals(1, tenantBSubscriber.received);
+    }
+
+    @Test
+    public void left_audiences_receive_nothing() {
+        currentSession = tenantBSession;
+        globalEventBus.leaveAudience("tenant-b");
+
+        globalEventBus.post(new Ping(), "tenant-b");
+
+        assertEquals(0, tenantBSubscriber.received);
+    }
+
+    public static class Ping implements GlobalEvent {
+    }
+
+    public static class CountingSubscriber {
+        private int received;
+
+        @Subscribe
+        public void onPing(Ping ping) {
+            received++;
+        }
+    }
+}
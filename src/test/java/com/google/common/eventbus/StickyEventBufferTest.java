@@ -0,0 +1,158 @@
+package com.google.common.eventbus;
+
+import com.google.inject.Provider;
+
+import com.vaadin.guice.bus.CompiledEventBus;
+import com.vaadin.guice.bus.ConfinedEventBus;
+import com.vaadin.guice.bus.events.Sticky;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StickyEventBufferTest {
+
+    @Test
+    public void the_latest_events_of_each_class_are_retained() {
+        final StickyEventBuffer stickyEventBuffer = new StickyEventBuffer();
+
+        final Selection first = new Selection(1);
+        final Selection second = new Selection(2);
+        final Selection third = new Selection(3);
+        final Status status = new Status();
+
+        stickyEventBuffer.retain(first);
+        stickyEventBuffer.retain(status);
+        stickyEventBuffer.retain(second);
+        stickyEventBuffer.retain(third);
+
+        assertEquals(asList(second, third, status), stickyEventBuffer.getRetainedEvents());
+    }
+
+    @Test
+    public void events_that_are_not_sticky_are_ignored() {
+        final StickyEventBuffer stickyEventBuffer = new StickyEventBuffer();
+
+        stickyEventBuffer.retain("not sticky");
+
+        assertTrue(stickyEventBuffer.isEmpty());
+        assertTrue(stickyEventBuffer.getRetainedEvents().isEmpty());
+
+        stickyEventBuffer.retain(new Status());
+
+        assertFalse(stickyEventBuffer.isEmpty());
+    }
+
+    @Test
+    public void sticky_classes_are_recognized() {
+        assertTrue(StickyEventBuffer.isSticky(Selection.class));
+        assertTrue(StickyEventBuffer.isSticky(Status.class));
+        assertFalse(StickyEventBuffer.isSticky(String.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negative_retention_is_rejected() {
+        StickyEventBuffer.isSticky(Broken.class);
+    }
+
+    @Test
+    public void compiled_busses_replay_on_register() {
+        final CompiledEventBus eventBus = new CompiledEventBus();
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        eventBus.post(new Selection(1));
+        eventBus.post(new Selection(2));
+        eventBus.post(new Selection(3));
+        eventBus.register(subscriber);
+
+        assertEquals(asList(2, 3), subscriber.selections);
+    }
+
+    @Test
+    public void confined_busses_replay_on_register() {
+        final ConfinedEventBus eventBus = new ConfinedEventBus("view");
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        eventBus.post(new Selection(1));
+        eventBus.post(new Selection(2));
+        eventBus.post(new Selection(3));
+        eventBus.register(subscriber);
+
+        assertEquals(asList(2, 3), subscriber.selections);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void the_global_bus_replays_on_register() {
+        final Provider<VaadinSession> vaadinSessionProvider = (Provider<VaadinSession>) mock(Provider.class);
+        when(vaadinSessionProvider.get()).thenReturn(mock(VaadinSession.class));
+
+        final GlobalEventBusImpl globalEventBus = new GlobalEventBusImpl(mock(VaadinService.class), vaadinSessionProvider);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        globalEventBus.post(new Selection(1));
+        globalEventBus.post(new Selection(2));
+        globalEventBus.post(new Selection(3));
+        globalEventBus.register(subscriber);
+
+        assertEquals(asList(2, 3), subscriber.selections);
+
+        //replayed to the new subscriber only
+        final RecordingSubscriber lateSubscriber = new RecordingSubscriber();
+        globalEventBus.register(lateSubscriber);
+
+        assertEquals(asList(2, 3), subscriber.selections);
+        assertEquals(asList(2, 3), lateSubscriber.selections);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void targeted_global_events_are_not_retained() {
+        final Provider<VaadinSession> vaadinSessionProvider = (Provider<VaadinSession>) mock(Provider.class);
+        when(vaadinSessionProvider.get()).thenReturn(mock(VaadinSession.class));
+
+        final GlobalEventBusImpl globalEventBus = new GlobalEventBusImpl(mock(VaadinService.class), vaadinSessionProvider);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        globalEventBus.post(new Selection(1), "tenant-a");
+        globalEventBus.register(subscriber);
+
+        assertTrue(subscriber.selections.isEmpty());
+    }
+
+    @Sticky(retain = 2)
+    public static final class Selection {
+        private final int id;
+
+        Selection(int id) {
+            this.id = id;
+        }
+    }
+
+    @Sticky
+    public static final class Status {
+    }
+
+    @Sticky(retain = -1)
+    public static final class Broken {
+    }
+
+    public static final class RecordingSubscriber {
+        private final List<Integer> selections = new ArrayList<Integer>();
+
+        @Subscribe
+        public void onSelection(Selection selection) {
+            selections.add(selection.id);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.google.common.eventbus;
+
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Logger;
+
+import static com.google.common.eventbus.SubscriberRegistryChurnTest.count;
+import static com.google.common.eventbus.SubscriberRegistryChurnTest.createSessions;
+import static com.google.common.eventbus.SubscriberRegistryChurnTest.open;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * session churn against a {@link GlobalSubscriberRegistry}: 5,000 live sessions with 3 subscribers
+ * each, then 20,000 sessions are destroyed and replaced by new ones. Run with <code>mvn test
+ * -Pbenchmark</code>.
+ */
+public class SubscriberRegistryChurnBenchmark {
+
+    private static final int LIVE_SESSIONS = 5000;
+    private static final int CHURNED_SESSIONS = 20000;
+    private static final int SUBSCRIBERS_PER_SESSION = 3;
+
+    private static final Logger LOGGER = Logger.getLogger(SubscriberRegistryChurnBenchmark.class.getName());
+
+    @Test
+    public void copy_on_write_registry() {
+        run("copy-on-write", new CopyOnWriteSubscriberRegistry(new EventBus()));
+    }
+
+    @Test
+    public void concurrent_registry() {
+        run("concurrent", new ConcurrentSubscriberRegistry(new EventBus()));
+    }
+
+    private void run(String name, GlobalSubscriberRegistry registry) {
+        final VaadinSession[] sessions = createSessions(LIVE_SESSIONS + CHURNED_SESSIONS);
+        final Deque<VaadinSession> liveSessions = new ArrayDeque<VaadinSession>();
+
+        for (int i = 0; i < LIVE_SESSIONS; i++) {
+            open(registry, sessions[i], SUBSCRIBERS_PER_SESSION);
+            liveSessions.add(sessions[i]);
+        }
+
+        final long start = System.nanoTime();
+
+        for (int i = LIVE_SESSIONS; i < sessions.length; i++) {
+            registry.releaseAll(liveSessions.poll());
+            open(registry, sessions[i], SUBSCRIBERS_PER_SESSION);
+            liveSessions.add(sessions[i]);
+        }
+
+        final long nanos = System.nanoTime() - start;
+
+        assertEquals(LIVE_SESSIONS * SUBSCRIBERS_PER_SESSION, count(registry.getSubscribers(new SubscriberRegistryChurnTest.Ping())));
+
+        LOGGER.info(
+                String.format(
+                        "%s: %d sessions/s",
+                        name,
+                        CHURNED_SESSIONS * 1000000000L / nanos
+                )
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package com.google.common.eventbus;
+
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * session churn against the {@link GlobalSubscriberRegistry}s, the timing is done by {@link
+ * SubscriberRegistryChurnBenchmark}
+ */
+public class SubscriberRegistryChurnTest {
+
+    private static final int LIVE_SESSIONS = 20;
+    private static final int CHURNED_SESSIONS = 100;
+    private static final int SUBSCRIBERS_PER_SESSION = 3;
+
+    static VaadinSession[] createSessions(int count) {
+        final VaadinSession[] sessions = new VaadinSession[count];
+
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = mock(VaadinSession.class);
+        }
+
+        return sessions;
+    }
+
+    static void open(GlobalSubscriberRegistry registry, VaadinSession session, int subscribers) {
+        for (int i = 0; i < subscribers; i++) {
+            registry.register(session, new PingSubscriber());
+        }
+    }
+
+    static int count(Iterator<Subscriber> subscribers) {
+        int count = 0;
+
+        while (subscribers.hasNext()) {
+            subscribers.next();
+            count++;
+        }
+
+        return count;
+    }
+
+    @Test
+    public void copy_on_write_registry() {
+        run(new CopyOnWriteSubscriberRegistry(new EventBus()));
+    }
+
+    @Test
+    public void concurrent_registry() {
+        run(new ConcurrentSubscriberRegistry(new EventBus()));
+    }
+
+    @Test
+    public void weak_registry() {
+        run(new WeakSubscriberRegistry(new EventBus()));
+    }
+
+    private void run(GlobalSubscriberRegistry registry) {
+        final VaadinSession[] sessions = createSessions(LIVE_SESSIONS + CHURNED_SESSIONS);
+        final Deque<VaadinSession> liveSessions = new ArrayDeque<VaadinSession>();
+        final Deque<PingSubscriber> referencedSubscribers = new ArrayDeque<PingSubscriber>();
+
+        for (int i = 0; i < sessions.length; i++) {
+            if (liveSessions.size() == LIVE_SESSIONS) {
+                final VaadinSession releasedSession = liveSessions.poll();
+
+                registry.releaseAll(releasedSession);
+
+                assertEquals(0, count(registry.getSubscribers(new Ping(), releasedSession)));
+
+                for (int j = 0; j < SUBSCRIBERS_PER_SESSION; j++) {
+                    referencedSubscribers.poll();
+                }
+            }
+
+            //the subscribers are referenced here, so the weak registry keeps them
+            for (int j = 0; j < SUBSCRIBERS_PER_SESSION; j++) {
+                final PingSubscriber subscriber = new PingSubscriber();
+                referencedSubscribers.add(subscriber);
+                registry.register(sessions[i], subscriber);
+            }
+
+            liveSessions.add(sessions[i]);
+        }
+
+        assertEquals(LIVE_SESSIONS * SUBSCRIBERS_PER_SESSION, count(registry.getSubscribers(new Ping())));
+
+        for (VaadinSession liveSession : liveSessions) {
+            assertEquals(SUBSCRIBERS_PER_SESSION, count(registry.getSubscribers(new Ping(), liveSession)));
+        }
+    }
+
+    static final class Ping {
+    }
+
+    static final class PingSubscriber {
+        @Subscribe
+        public void onPing(Ping ping) {
+        }
+    }
+}
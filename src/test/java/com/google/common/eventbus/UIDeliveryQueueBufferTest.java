@@ -0,0 +1,110 @@
+package com.google.common.eventbus;
+
+import com.vaadin.guice.bus.BufferOverflowPolicy;
+import com.vaadin.guice.bus.NoOpBusMetrics;
+import com.vaadin.guice.bus.PendingEventBufferConfiguration;
+import com.vaadin.server.Page;
+import com.vaadin.shared.communication.PushMode;
+import com.vaadin.ui.PushConfiguration;
+import com.vaadin.ui.UI;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UIDeliveryQueueBufferTest {
+
+    private UI ui;
+    private Page page;
+    private RecordingSubscriber recordingSubscriber;
+    private List<Subscriber> subscribers;
+
+    @Before
+    public void setup() throws NoSuchMethodException {
+        ui = mock(UI.class);
+        page = mock(Page.class);
+
+        final PushConfiguration pushConfiguration = mock(PushConfiguration.class);
+
+        when(pushConfiguration.getPushMode()).thenReturn(PushMode.DISABLED);
+        when(ui.getPushConfiguration()).thenReturn(pushConfiguration);
+        when(ui.getPage()).thenReturn(page);
+
+        recordingSubscriber = new RecordingSubscriber();
+
+        subscribers = Collections.singletonList(
+                Subscriber.create(new EventBus(), recordingSubscriber, RecordingSubscriber.class.getMethod("onEvent", Object.class))
+        );
+    }
+
+    @Test
+    public void drop_oldest_keeps_the_latest_events() {
+        final UIDeliveryQueue deliveryQueue = new UIDeliveryQueue(new PendingEventBufferConfiguration(3, BufferOverflowPolicy.DROP_OLDEST), "global", new NoOpBusMetrics());
+
+        for (int i = 0; i < 10; i++) {
+            deliveryQueue.enqueue(ui, i, subscribers);
+        }
+
+        verify(ui, never()).access(any(Runnable.class));
+
+        deliveryQueue.deliverBuffered(ui);
+
+        assertEquals(asList(7, 8, 9), recordingSubscriber.events);
+    }
+
+    @Test
+    public void coalesce_keeps_the_latest_event_per_class() {
+        final UIDeliveryQueue deliveryQueue = new UIDeliveryQueue(new PendingEventBufferConfiguration(2, BufferOverflowPolicy.COALESCE), "global", new NoOpBusMetrics());
+
+        deliveryQueue.enqueue(ui, "a", subscribers);
+        deliveryQueue.enqueue(ui, 1, subscribers);
+        deliveryQueue.enqueue(ui, "b", subscribers);
+        deliveryQueue.enqueue(ui, 2, subscribers);
+
+        deliveryQueue.deliverBuffered(ui);
+
+        assertEquals(asList("b", 2), recordingSubscriber.events);
+    }
+
+    @Test
+    public void refresh_reloads_the_page_instead_of_delivering() {
+        final UIDeliveryQueue deliveryQueue = new UIDeliveryQueue(new PendingEventBufferConfiguration(2, BufferOverflowPolicy.REFRESH), "global", new NoOpBusMetrics());
+
+        for (int i = 0; i < 3; i++) {
+            deliveryQueue.enqueue(ui, i, subscribers);
+        }
+
+        deliveryQueue.deliverBuffered(ui);
+
+        verify(page).reload();
+        assertEquals(0, recordingSubscriber.events.size());
+    }
+
+    private static List<Object> asList(Object... objects) {
+        final List<Object> list = new ArrayList<Object>();
+
+        Collections.addAll(list, objects);
+
+        return list;
+    }
+
+    public static final class RecordingSubscriber {
+        private final List<Object> events = new ArrayList<Object>();
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void onEvent(Object event) {
+            events.add(event);
+        }
+    }
+}
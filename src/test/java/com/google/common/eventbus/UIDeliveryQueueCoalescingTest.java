@@ -0,0 +1,151 @@
+package com.google.common.eventbus;
+
+import com.vaadin.guice.bus.NoOpBusMetrics;
+import com.vaadin.guice.bus.events.Coalesced;
+import com.vaadin.guice.bus.events.CoalescingKeyExtractor;
+import com.vaadin.ui.UI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UIDeliveryQueueCoalescingTest {
+
+    private UI ui;
+    private ScheduledExecutorService scheduler;
+    private RecordingSubscriber recordingSubscriber;
+    private List<Subscriber> subscribers;
+    private UIDeliveryQueue deliveryQueue;
+
+    @Before
+    public void setup() throws NoSuchMethodException {
+        ui = mock(UI.class);
+        scheduler = mock(ScheduledExecutorService.class);
+
+        when(ui.access(any(Runnable.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        });
+
+        recordingSubscriber = new RecordingSubscriber();
+
+        subscribers = Collections.singletonList(
+                Subscriber.create(new EventBus(), recordingSubscriber, RecordingSubscriber.class.getMethod("onEvent", Object.class))
+        );
+
+        deliveryQueue = new UIDeliveryQueue(null, "global", new NoOpBusMetrics());
+    }
+
+    @Test
+    public void newer_events_with_the_same_key_replace_waiting_ones() {
+        coalesce(new PriceChanged(1, "1.00"));
+        coalesce(new PriceChanged(1, "1.10"));
+        coalesce(new PriceChanged(2, "2.00"));
+
+        flush(2);
+
+        assertEquals(Arrays.<Object>asList("price 1: 1.10", "price 2: 2.00"), recordingSubscriber.events);
+    }
+
+    @Test
+    public void events_of_different_classes_with_equal_keys_do_not_replace_each_other() {
+        coalesce(new PriceChanged(1, "1.00"));
+        coalesce(new StockChanged(1, 7));
+
+        flush(2);
+
+        assertEquals(Arrays.<Object>asList("price 1: 1.00", "stock 1: 7"), recordingSubscriber.events);
+    }
+
+    private void coalesce(Object event) {
+        final CoalescingSpec spec = CoalescingSpec.of(event);
+
+        deliveryQueue.coalesce(ui, spec.getKey(event), event, subscribers, spec.getIntervalNanos(), scheduler);
+    }
+
+    private void flush(int scheduledFlushes) {
+        final ArgumentCaptor<Runnable> flushes = ArgumentCaptor.forClass(Runnable.class);
+
+        verify(scheduler, times(scheduledFlushes)).schedule(flushes.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+
+        for (Runnable flush : flushes.getAllValues()) {
+            flush.run();
+        }
+    }
+
+    public static final class ById implements CoalescingKeyExtractor<Identified> {
+        @Override
+        public Object getKey(Identified event) {
+            return event.id;
+        }
+    }
+
+    abstract static class Identified {
+        final int id;
+
+        Identified(int id) {
+            this.id = id;
+        }
+    }
+
+    @Coalesced(key = ById.class)
+    static final class PriceChanged extends Identified {
+        private final String price;
+
+        PriceChanged(int id, String price) {
+            super(id);
+            this.price = price;
+        }
+
+        @Override
+        public String toString() {
+            return "price " + id + ": " + price;
+        }
+    }
+
+    @Coalesced(key = ById.class)
+    static final class StockChanged extends Identified {
+        private final int stock;
+
+        StockChanged(int id, int stock) {
+            super(id);
+            this.stock = stock;
+        }
+
+        @Override
+        public String toString() {
+            return "stock " + id + ": " + stock;
+        }
+    }
+
+    public static final class RecordingSubscriber {
+        private final List<Object> events = new ArrayList<Object>();
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void onEvent(Object event) {
+            events.add(event.toString());
+        }
+    }
+}
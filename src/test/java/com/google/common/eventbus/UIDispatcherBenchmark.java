@@ -0,0 +1,56 @@
+package com.google.common.eventbus;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static com.google.common.eventbus.UIDispatcherTest.createSubscribers;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * compares {@link UIDispatcher} with and without coalescing: 2,000 UIs with 5 subscribers each,
+ * which is 10,000 subscribers per global event. Run with <code>mvn test -Pbenchmark</code>.
+ */
+public class UIDispatcherBenchmark {
+
+    private static final int UIS = 2000;
+    private static final int SUBSCRIBERS_PER_UI = 5;
+    private static final int EVENTS = 50;
+
+    private static final Logger LOGGER = Logger.getLogger(UIDispatcherBenchmark.class.getName());
+
+    @Test
+    public void coalescing() throws NoSuchMethodException {
+        run("coalescing", new UIDispatcher(true));
+    }
+
+    @Test
+    public void non_coalescing() throws NoSuchMethodException {
+        run("non-coalescing", new UIDispatcher(false));
+    }
+
+    private void run(String mode, UIDispatcher dispatcher) throws NoSuchMethodException {
+        final AtomicInteger accessCalls = new AtomicInteger();
+        final AtomicInteger deliveries = new AtomicInteger();
+        final List<Subscriber> subscribers = createSubscribers(UIS, SUBSCRIBERS_PER_UI, accessCalls, deliveries);
+
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < EVENTS; i++) {
+            dispatcher.dispatch(new Object(), subscribers.iterator());
+        }
+
+        final long nanos = System.nanoTime() - start;
+
+        assertEquals(EVENTS * UIS * SUBSCRIBERS_PER_UI, deliveries.get());
+
+        LOGGER.info(
+                String.format(
+                        "%s: %d access-calls (push round trips) for %d events, %.0f subscriber calls per second",
+                        mode, accessCalls.get(), EVENTS, deliveries.get() / (nanos / 1e9)
+                )
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.google.common.eventbus;
+
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UIDispatcherTest {
+
+    private static final int UIS = 3;
+    private static final int SUBSCRIBERS_PER_UI = 4;
+
+    private final AtomicInteger accessCalls = new AtomicInteger();
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private List<Subscriber> subscribers;
+
+    static List<Subscriber> createSubscribers(int uis, int subscribersPerUI, final AtomicInteger accessCalls, AtomicInteger deliveries) throws NoSuchMethodException {
+        final EventBus eventBus = new EventBus();
+        final Method method = CountingLabel.class.getMethod("onEvent", Object.class);
+        final List<Subscriber> subscribers = new ArrayList<Subscriber>(uis * subscribersPerUI);
+
+        for (int i = 0; i < uis; i++) {
+            final UI ui = mock(UI.class);
+
+            when(ui.access(any(Runnable.class))).thenAnswer(new Answer<Object>() {
+                @Override
+                public Object answer(InvocationOnMock invocation) throws Throwable {
+                    accessCalls.incrementAndGet();
+                    ((Runnable) invocation.getArguments()[0]).run();
+                    return null;
+                }
+            });
+
+            for (int j = 0; j < subscribersPerUI; j++) {
+                subscribers.add(Subscriber.create(eventBus, new CountingLabel(ui, deliveries), method));
+            }
+        }
+
+        return subscribers;
+    }
+
+    @Before
+    public void setup() throws NoSuchMethodException {
+        subscribers = createSubscribers(UIS, SUBSCRIBERS_PER_UI, accessCalls, deliveries);
+    }
+
+    @Test
+    public void coalescing_schedules_one_access_per_ui() {
+        new UIDispatcher(true).dispatch(new Object(), subscribers.iterator());
+
+        assertEquals(UIS, accessCalls.get());
+        assertEquals(UIS * SUBSCRIBERS_PER_UI, deliveries.get());
+    }
+
+    @Test
+    public void non_coalescing_schedules_one_access_per_subscriber() {
+        new UIDispatcher(false).dispatch(new Object(), subscribers.iterator());
+
+        assertEquals(UIS * SUBSCRIBERS_PER_UI, accessCalls.get());
+        assertEquals(UIS * SUBSCRIBERS_PER_UI, deliveries.get());
+    }
+
+    public static class CountingLabel extends Label {
+        private final transient UI ui;
+        private final transient AtomicInteger deliveries;
+
+        CountingLabel(UI ui, AtomicInteger deliveries) {
+            this.ui = ui;
+            this.deliveries = deliveries;
+        }
+
+        @Override
+        public UI getUI() {
+            return ui;
+        }
+
+        @Subscribe
+        public void onEvent(Object event) {
+            deliveries.incrementAndGet();
+        }
+    }
+}
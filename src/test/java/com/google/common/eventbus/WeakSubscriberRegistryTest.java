@@ -0,0 +1,79 @@
+package com.google.common.eventbus;
+
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.lang.ref.Reference;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class WeakSubscriberRegistryTest {
+
+    @Test
+    public void collected_subscribers_are_expunged_on_post() {
+        final WeakSubscriberRegistry registry = new WeakSubscriberRegistry(new EventBus());
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final PingSubscriber subscriber = new PingSubscriber();
+
+        registry.register(vaadinSession, subscriber);
+
+        final List<Reference<Object>> references = registry.getReferences(subscriber);
+
+        assertEquals(1, references.size());
+        assertEquals(0, registry.getReclaimedSubscribers());
+
+        //what the garbage collector does once the subscriber is no longer referenced
+        references.get(0).clear();
+        references.get(0).enqueue();
+
+        assertFalse(registry.getSubscribers(new Ping()).hasNext());
+        assertEquals(1, registry.getReclaimedSubscribers());
+        assertFalse(registry.getSubscribers(new Ping(), vaadinSession).hasNext());
+        assertTrue(registry.getReferences(subscriber).isEmpty());
+    }
+
+    @Test
+    public void referenced_subscribers_are_kept_until_release() {
+        final WeakSubscriberRegistry registry = new WeakSubscriberRegistry(new EventBus());
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final PingSubscriber subscriber = new PingSubscriber();
+
+        registry.register(vaadinSession, subscriber);
+
+        assertTrue(registry.getSubscribers(new Ping()).hasNext());
+
+        registry.releaseAll(vaadinSession);
+
+        assertFalse(registry.getSubscribers(new Ping()).hasNext());
+        assertEquals(0, registry.getReclaimedSubscribers());
+    }
+
+    @Test
+    public void subscribers_are_reused_while_referenced() {
+        final WeakSubscriberRegistry registry = new WeakSubscriberRegistry(new EventBus());
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final PingSubscriber subscriber = new PingSubscriber();
+
+        registry.register(vaadinSession, subscriber);
+
+        final Subscriber first = registry.getSubscribers(new Ping()).next();
+
+        assertSame(first, registry.getSubscribers(new Ping()).next());
+        assertSame(first, registry.getSubscribers(new Ping(), vaadinSession).next());
+    }
+
+    static final class Ping {
+    }
+
+    static final class PingSubscriber {
+        @Subscribe
+        public void onPing(Ping ping) {
+        }
+    }
+}
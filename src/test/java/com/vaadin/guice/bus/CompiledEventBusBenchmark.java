@@ -0,0 +1,96 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.EventBus;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * compares {@link CompiledEventBus} with guava's reflective {@link EventBus} at 1, 100 and 10,000
+ * subscribers. JMH is not part of the build, so this is a wall-clock measurement after a few warm-up
+ * runs, good for comparing both busses on one machine but not for absolute numbers. Run with
+ * <code>mvn test -Pbenchmark</code>.
+ */
+public class CompiledEventBusBenchmark {
+
+    private static final int DELIVERIES_PER_RUN = 1000000;
+    private static final int WARMUP_RUNS = 3;
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledEventBusBenchmark.class.getName());
+
+    @Test
+    public void one_subscriber() {
+        compare(1);
+    }
+
+    @Test
+    public void hundred_subscribers() {
+        compare(100);
+    }
+
+    @Test
+    public void ten_thousand_subscribers() {
+        compare(10000);
+    }
+
+    private void compare(int subscribers) {
+        final AtomicInteger guavaDeliveries = new AtomicInteger();
+        final AtomicInteger compiledDeliveries = new AtomicInteger();
+
+        final EventBus guavaEventBus = new EventBus();
+        final CompiledEventBus compiledEventBus = new CompiledEventBus();
+
+        for (int i = 0; i < subscribers; i++) {
+            guavaEventBus.register(new CompiledEventBusTest.PingSubscriber(guavaDeliveries));
+            compiledEventBus.register(new CompiledEventBusTest.PingSubscriber(compiledDeliveries));
+        }
+
+        final int posts = Math.max(DELIVERIES_PER_RUN / subscribers, 1);
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            runGuava(guavaEventBus, posts);
+            runCompiled(compiledEventBus, posts);
+        }
+
+        final long guavaNanos = runGuava(guavaEventBus, posts);
+        final long compiledNanos = runCompiled(compiledEventBus, posts);
+
+        assertEquals((WARMUP_RUNS + 1) * posts * subscribers, guavaDeliveries.get());
+        assertEquals((WARMUP_RUNS + 1) * posts * subscribers, compiledDeliveries.get());
+
+        LOGGER.info(
+                String.format(
+                        "%d subscribers: guava %d ns/delivery, compiled %d ns/delivery",
+                        subscribers,
+                        guavaNanos / (posts * subscribers),
+                        compiledNanos / (posts * subscribers)
+                )
+        );
+    }
+
+    private long runGuava(EventBus eventBus, int posts) {
+        final CompiledEventBusTest.Ping ping = new CompiledEventBusTest.Ping();
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < posts; i++) {
+            eventBus.post(ping);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private long runCompiled(CompiledEventBus eventBus, int posts) {
+        final CompiledEventBusTest.Ping ping = new CompiledEventBusTest.Ping();
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < posts; i++) {
+            eventBus.post(ping);
+        }
+
+        return System.nanoTime() - start;
+    }
+}
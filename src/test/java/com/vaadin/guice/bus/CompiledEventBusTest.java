@@ -0,0 +1,125 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class CompiledEventBusTest {
+
+    @Test
+    public void events_are_delivered_to_subscribers_of_super_types() {
+        final CompiledEventBus eventBus = new CompiledEventBus();
+        final AtomicInteger pings = new AtomicInteger();
+        final ObjectSubscriber objectSubscriber = new ObjectSubscriber();
+
+        eventBus.register(new PingSubscriber(pings));
+        eventBus.register(objectSubscriber);
+        eventBus.post(new Ping());
+
+        assertEquals(1, pings.get());
+        assertEquals(1, objectSubscriber.events);
+    }
+
+    @Test
+    public void dead_events_are_posted() {
+        final CompiledEventBus eventBus = new CompiledEventBus();
+        final DeadEventSubscriber deadEventSubscriber = new DeadEventSubscriber();
+
+        eventBus.register(deadEventSubscriber);
+        eventBus.post(new Ping());
+
+        assertEquals(1, deadEventSubscriber.deadEvents);
+    }
+
+    @Test
+    public void unregistered_subscribers_receive_no_events() {
+        final CompiledEventBus eventBus = new CompiledEventBus();
+        final AtomicInteger deliveries = new AtomicInteger();
+        final PingSubscriber subscriber = new PingSubscriber(deliveries);
+
+        eventBus.register(subscriber);
+        eventBus.register(subscriber);
+        eventBus.post(new Ping());
+        eventBus.unregister(subscriber);
+        eventBus.post(new Ping());
+
+        assertEquals(1, deliveries.get());
+    }
+
+    @Test
+    public void events_posted_by_a_subscriber_are_queued_per_bus() {
+        final List<String> log = new ArrayList<String>();
+        final CompiledEventBus outer = new CompiledEventBus("outer");
+        final CompiledEventBus inner = new CompiledEventBus("inner");
+
+        outer.register(new Object() {
+            @Subscribe
+            public void onPing(Ping ping) {
+                log.add("outer ping start");
+                //queued until this dispatch is done, since it's the same bus
+                outer.post("nested");
+                //dispatched right away, since it's another bus
+                inner.post(ping);
+                log.add("outer ping end");
+            }
+
+            @Subscribe
+            public void onNested(String nested) {
+                log.add("outer nested");
+            }
+        });
+
+        inner.register(new Object() {
+            @Subscribe
+            public void onPing(Ping ping) {
+                log.add("inner ping");
+            }
+        });
+
+        outer.post(new Ping());
+
+        assertEquals(asList("outer ping start", "inner ping", "outer ping end", "outer nested"), log);
+    }
+
+    public static final class Ping {
+    }
+
+    public static final class PingSubscriber {
+        private final AtomicInteger deliveries;
+
+        PingSubscriber(AtomicInteger deliveries) {
+            this.deliveries = deliveries;
+        }
+
+        @Subscribe
+        public void onPing(Ping ping) {
+            deliveries.incrementAndGet();
+        }
+    }
+
+    public static final class ObjectSubscriber {
+        int events;
+
+        @Subscribe
+        public void onObject(Object object) {
+            events++;
+        }
+    }
+
+    public static final class DeadEventSubscriber {
+        int deadEvents;
+
+        @Subscribe
+        public void onDeadEvent(DeadEvent deadEvent) {
+            deadEvents++;
+        }
+    }
+}
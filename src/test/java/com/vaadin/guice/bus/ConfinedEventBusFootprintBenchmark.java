@@ -0,0 +1,99 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.EventBus;
+
+import com.vaadin.guice.bus.CompiledEventBusTest.PingSubscriber;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * compares the bytes allocated per {@link ConfinedEventBus} with those of a {@link
+ * CompiledEventBus} and of guava's {@link EventBus}, which the UI- and view-busses extended up to
+ * version 1.x. One of each is created per UI and per view. The allocation is read from the
+ * thread's allocation counter, so no garbage collection is involved. Run with <code>mvn test
+ * -Pbenchmark</code>.
+ */
+public class ConfinedEventBusFootprintBenchmark {
+
+    private static final int INSTANCES = 20000;
+
+    private static final Logger LOGGER = Logger.getLogger(ConfinedEventBusFootprintBenchmark.class.getName());
+
+    @Test
+    public void confined_busses_are_smaller_than_compiled_and_guava_busses() {
+        final long confinedBytes = allocatedBytesPerInstance(new BusFactory() {
+            @Override
+            public Object create() {
+                final ConfinedEventBus eventBus = new ConfinedEventBus("ui");
+                eventBus.register(new PingSubscriber(new AtomicInteger()));
+                return eventBus;
+            }
+        });
+
+        final long compiledBytes = allocatedBytesPerInstance(new BusFactory() {
+            @Override
+            public Object create() {
+                final CompiledEventBus eventBus = new CompiledEventBus("ui");
+                eventBus.register(new PingSubscriber(new AtomicInteger()));
+                return eventBus;
+            }
+        });
+
+        final long guavaBytes = allocatedBytesPerInstance(new BusFactory() {
+            @Override
+            public Object create() {
+                final EventBus eventBus = new EventBus("ui");
+                eventBus.register(new PingSubscriber(new AtomicInteger()));
+                return eventBus;
+            }
+        });
+
+        LOGGER.info(
+                String.format(
+                        "bytes per bus with one subscriber: confined %d, compiled %d, guava %d",
+                        confinedBytes,
+                        compiledBytes,
+                        guavaBytes
+                )
+        );
+
+        assertTrue(confinedBytes < compiledBytes);
+        assertTrue(confinedBytes < guavaBytes);
+    }
+
+    private long allocatedBytesPerInstance(BusFactory busFactory) {
+        //warm up class-loading and the subscriber-method caches
+        busFactory.create();
+
+        final Object[] busses = new Object[INSTANCES];
+
+        final long before = allocatedBytes();
+
+        for (int i = 0; i < INSTANCES; i++) {
+            busses[i] = busFactory.create();
+        }
+
+        final long after = allocatedBytes();
+
+        assertEquals(INSTANCES, busses.length);
+
+        return (after - before) / INSTANCES;
+    }
+
+    private static long allocatedBytes() {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private interface BusFactory {
+        Object create();
+    }
+}
@@ -0,0 +1,125 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.Subscribe;
+
+import com.vaadin.guice.bus.CompiledEventBusTest.DeadEventSubscriber;
+import com.vaadin.guice.bus.CompiledEventBusTest.Ping;
+import com.vaadin.guice.bus.CompiledEventBusTest.PingSubscriber;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConfinedEventBusTest {
+
+    @Test
+    public void reentrant_posts_are_queued() {
+        final ConfinedEventBus eventBus = new ConfinedEventBus("ui");
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        eventBus.register(new ReentrantPingSubscriber(eventBus, deliveries));
+        eventBus.register(new NestedSubscriber(deliveries));
+
+        eventBus.post(new Ping());
+
+        assertEquals(1, deliveries.get());
+    }
+
+    @Test
+    public void dead_events_are_posted() {
+        final ConfinedEventBus eventBus = new ConfinedEventBus("ui");
+        final DeadEventSubscriber deadEventSubscriber = new DeadEventSubscriber();
+
+        eventBus.register(deadEventSubscriber);
+        eventBus.post(new Ping());
+
+        assertEquals(1, deadEventSubscriber.deadEvents);
+    }
+
+    @Test
+    public void unregistered_subscribers_receive_no_events() {
+        final ConfinedEventBus eventBus = new ConfinedEventBus("ui");
+        final AtomicInteger deliveries = new AtomicInteger();
+        final PingSubscriber subscriber = new PingSubscriber(deliveries);
+
+        eventBus.register(subscriber);
+        eventBus.register(subscriber);
+        eventBus.post(new Ping());
+        eventBus.unregister(subscriber);
+        eventBus.post(new Ping());
+
+        assertEquals(1, deliveries.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unregistering_unknown_subscribers_fails() {
+        new ConfinedEventBus("ui").unregister(new PingSubscriber(new AtomicInteger()));
+    }
+
+    @Test
+    public void busses_can_be_used_while_the_session_is_locked() {
+        final VaadinSession session = mock(VaadinSession.class);
+        final ConfinedEventBus eventBus = new ConfinedEventBus("ui", session);
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        when(session.hasLock()).thenReturn(true);
+
+        eventBus.register(new PingSubscriber(deliveries));
+        eventBus.post(new Ping());
+
+        assertEquals(1, deliveries.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void posts_without_the_session_lock_are_rejected() {
+        final VaadinSession session = mock(VaadinSession.class);
+
+        new ConfinedEventBus("ui", session).post(new Ping());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registrations_without_the_session_lock_are_rejected() {
+        final VaadinSession session = mock(VaadinSession.class);
+
+        new ConfinedEventBus("ui", session).register(new PingSubscriber(new AtomicInteger()));
+    }
+
+    public static final class Nested {
+    }
+
+    public static final class NestedSubscriber {
+        private final AtomicInteger deliveries;
+
+        NestedSubscriber(AtomicInteger deliveries) {
+            this.deliveries = deliveries;
+        }
+
+        @Subscribe
+        public void onNested(Nested nested) {
+            deliveries.incrementAndGet();
+        }
+    }
+
+    public static final class ReentrantPingSubscriber {
+        private final ConfinedEventBus eventBus;
+        private final AtomicInteger deliveries;
+
+        ReentrantPingSubscriber(ConfinedEventBus eventBus, AtomicInteger deliveries) {
+            this.eventBus = eventBus;
+            this.deliveries = deliveries;
+        }
+
+        @Subscribe
+        public void onPing(Ping ping) {
+            eventBus.post(new Nested());
+
+            //the nested post must not be delivered before this subscriber returns
+            assertEquals(0, deliveries.get());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.Subscribe;
+
+import com.vaadin.guice.bus.CompiledEventBusTest.Ping;
+import com.vaadin.guice.bus.CompiledEventBusTest.PingSubscriber;
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.VaadinService;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class JmxBusMetricsTest {
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    public void metrics_register_as_service_destroy_listener() {
+        final VaadinService vaadinService = mock(VaadinService.class);
+
+        final JmxBusMetrics busMetrics = new JmxBusMetrics(vaadinService);
+
+        verify(vaadinService).addServiceDestroyListener(busMetrics);
+    }
+
+    @Test
+    public void posts_fan_out_dead_events_and_exceptions_are_recorded() {
+        final JmxBusMetrics busMetrics = new JmxBusMetrics(mock(VaadinService.class));
+
+        try {
+            final CompiledEventBus eventBus = new CompiledEventBus("test");
+            final AtomicInteger pings = new AtomicInteger();
+
+            eventBus.setBusMetrics(busMetrics);
+            eventBus.post(new Ping());
+
+            eventBus.register(new PingSubscriber(pings));
+            eventBus.register(new PingSubscriber(pings));
+            eventBus.post(new Ping());
+
+            eventBus.register(new Object() {
+                @Subscribe
+                public void onPing(Ping ping) {
+                    throw new IllegalStateException();
+                }
+            });
+            eventBus.post(new Ping());
+
+            final EventTypeMetrics metrics = busMetrics.getEventTypeMetrics("test", Ping.class);
+
+            assertEquals(3, metrics.getPosts());
+            assertEquals(1, metrics.getDeadEvents());
+            assertEquals(3, metrics.getMaxFanOut());
+            assertEquals(1, metrics.getSubscriberExceptions());
+            assertEquals(4, pings.get());
+        } finally {
+            busMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+
+    @Test
+    public void mbeans_are_registered_per_bus_and_event_class() {
+        final JmxBusMetrics busMetrics = new JmxBusMetrics(mock(VaadinService.class));
+
+        try {
+            busMetrics.recordPost("a", Ping.class, 1);
+            busMetrics.recordPost("a", Ping.class, 1);
+            busMetrics.recordPost("a", String.class, 1);
+            busMetrics.recordPost("b", Ping.class, 1);
+            busMetrics.recordUIAccess("a");
+            busMetrics.recordUIAccess("a");
+
+            assertEquals(2, busMetrics.getEventTypeMetrics("a", Ping.class).getPosts());
+            assertEquals(2, busMetrics.getUIAccessCalls("a"));
+            assertEquals(0, busMetrics.getUIAccessCalls("b"));
+            assertEquals(4, busMetrics.getRegisteredNames().size());
+
+            for (ObjectName objectName : busMetrics.getRegisteredNames()) {
+                assertTrue(mBeanServer.isRegistered(objectName));
+            }
+        } finally {
+            busMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+
+    @Test
+    public void mbeans_are_unregistered_when_the_service_is_destroyed() {
+        final JmxBusMetrics busMetrics = new JmxBusMetrics(mock(VaadinService.class));
+
+        busMetrics.recordPost("a", Ping.class, 1);
+        busMetrics.recordUIAccess("a");
+
+        final Set<ObjectName> registeredNames = new HashSet<ObjectName>(busMetrics.getRegisteredNames());
+
+        busMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+
+        for (ObjectName objectName : registeredNames) {
+            assertFalse(mBeanServer.isRegistered(objectName));
+        }
+
+        assertTrue(busMetrics.getRegisteredNames().isEmpty());
+        assertNull(busMetrics.getEventTypeMetrics("a", Ping.class));
+    }
+
+    @Test
+    public void two_instances_do_not_collide() {
+        final JmxBusMetrics first = new JmxBusMetrics(mock(VaadinService.class));
+        final JmxBusMetrics second = new JmxBusMetrics(mock(VaadinService.class));
+
+        try {
+            first.recordPost("a", Ping.class, 1);
+            second.recordPost("a", Ping.class, 1);
+
+            assertEquals(1, first.getRegisteredNames().size());
+            assertEquals(1, second.getRegisteredNames().size());
+        } finally {
+            first.serviceDestroy(mock(ServiceDestroyEvent.class));
+            second.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+}
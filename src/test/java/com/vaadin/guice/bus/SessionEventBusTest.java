@@ -0,0 +1,200 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.Subscribe;
+
+import com.vaadin.guice.annotation.UIScope;
+import com.vaadin.guice.annotation.VaadinSessionScope;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SessionEventBusTest {
+
+    private SessionEventBus sessionEventBus;
+    private UI currentUI;
+    private UI otherUI;
+    private UI closedUI;
+
+    @Before
+    public void setup() {
+        sessionEventBus = new SessionEventBus();
+
+        currentUI = mockUI(false);
+        otherUI = mockUI(false);
+        closedUI = mockUI(true);
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void subscribers_of_the_current_ui_are_called_inline() {
+        final RecordingSubscriber subscriber = registerIn(currentUI);
+
+        UI.setCurrent(currentUI);
+        sessionEventBus.post("event");
+
+        assertEquals(1, subscriber.events.size());
+        verify(currentUI, never()).access(any(Runnable.class));
+    }
+
+    @Test
+    public void subscribers_of_other_uis_are_called_in_one_access() {
+        final RecordingSubscriber first = registerIn(otherUI);
+        final RecordingSubscriber second = registerIn(otherUI);
+
+        UI.setCurrent(currentUI);
+        sessionEventBus.post("event");
+
+        assertTrue(first.events.isEmpty());
+        assertTrue(second.events.isEmpty());
+
+        final ArgumentCaptor<Runnable> access = ArgumentCaptor.forClass(Runnable.class);
+
+        verify(otherUI, times(1)).access(access.capture());
+
+        access.getValue().run();
+
+        assertEquals(1, first.events.size());
+        assertEquals(1, second.events.size());
+    }
+
+    @Test
+    public void subscribers_of_closed_uis_are_skipped() {
+        final RecordingSubscriber subscriber = registerIn(closedUI);
+
+        UI.setCurrent(currentUI);
+        sessionEventBus.post("event");
+
+        assertTrue(subscriber.events.isEmpty());
+        verify(closedUI, never()).access(any(Runnable.class));
+    }
+
+    @Test
+    public void subscribers_without_ui_are_called_inline() {
+        final RecordingSubscriber subscriber = registerIn(null);
+
+        UI.setCurrent(currentUI);
+        sessionEventBus.post("event");
+
+        assertEquals(1, subscriber.events.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void registrations_reference_their_ui_weakly() {
+        UI.setCurrent(currentUI);
+
+        final Object owner = sessionEventBus.ownerOf(new UIScopedSubscriber());
+
+        assertTrue(owner instanceof WeakReference);
+        assertSame(currentUI, ((WeakReference<UI>) owner).get());
+    }
+
+    @Test
+    public void session_scoped_subscribers_belong_to_no_ui() {
+        UI.setCurrent(currentUI);
+
+        assertNull(sessionEventBus.ownerOf(new SessionScopedSubscriber()));
+        assertNull(sessionEventBus.ownerOf(new RecordingSubscriber()));
+    }
+
+    @Test
+    public void session_scoped_subscribers_outlive_the_ui_they_were_registered_in() {
+        final UI firstUI = mockUI(false);
+        final SessionScopedSubscriber subscriber = new SessionScopedSubscriber();
+
+        UI.setCurrent(firstUI);
+        sessionEventBus.register(subscriber);
+
+        //the first UI is closed, the event is posted from the second one
+        when(firstUI.isClosing()).thenReturn(true);
+        UI.setCurrent(otherUI);
+        sessionEventBus.post("event");
+
+        assertEquals(1, subscriber.events.size());
+        verify(firstUI, never()).access(any(Runnable.class));
+        verify(otherUI, never()).access(any(Runnable.class));
+    }
+
+    @Test
+    public void subscribers_of_collected_uis_are_skipped() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        final WeakReference<UI> collectedUI = new WeakReference<UI>(otherUI);
+
+        //what the garbage-collector does once the UI is gone
+        collectedUI.clear();
+
+        final CompiledEventBus.Registration registration = new CompiledEventBus.Registration(
+                subscriber,
+                collectedUI,
+                SubscriberMethods.of(RecordingSubscriber.class)[0]
+        );
+
+        UI.setCurrent(currentUI);
+        sessionEventBus.dispatch("event", new CompiledEventBus.Registration[]{registration});
+
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    /**
+     * registers a {@link UIScopedSubscriber} in the UI, or a subscriber that belongs to no UI if the
+     * UI is null
+     */
+    private RecordingSubscriber registerIn(UI ui) {
+        final RecordingSubscriber subscriber = ui != null ? new UIScopedSubscriber() : new RecordingSubscriber();
+
+        UI.setCurrent(ui);
+        sessionEventBus.register(subscriber);
+        UI.setCurrent(null);
+
+        return subscriber;
+    }
+
+    private static UI mockUI(boolean closing) {
+        final UI ui = mock(UI.class);
+
+        when(ui.isClosing()).thenReturn(closing);
+        when(ui.getSession()).thenReturn(mock(VaadinSession.class));
+
+        return ui;
+    }
+
+    public static class RecordingSubscriber {
+        final List<Object> events = new ArrayList<Object>();
+
+        @Subscribe
+        public void onEvent(String event) {
+            events.add(event);
+        }
+    }
+
+    @UIScope
+    public static final class UIScopedSubscriber extends RecordingSubscriber {
+    }
+
+    @VaadinSessionScope
+    public static final class SessionScopedSubscriber extends RecordingSubscriber {
+    }
+}
@@ -0,0 +1,132 @@
+package com.vaadin.guice.bus;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.InjectionListener;
+import com.google.inject.spi.TypeEncounter;
+
+import com.vaadin.guice.bus.events.GlobalEvent;
+import com.vaadin.guice.bus.events.SessionEvent;
+import com.vaadin.guice.bus.events.UIEvent;
+import com.vaadin.guice.bus.events.ViewEvent;
+
+import org.junit.Test;
+
+import static com.vaadin.guice.bus.SubscriptionTypeListener.GLOBAL;
+import static com.vaadin.guice.bus.SubscriptionTypeListener.SESSION;
+import static com.vaadin.guice.bus.SubscriptionTypeListener.UI;
+import static com.vaadin.guice.bus.SubscriptionTypeListener.VIEW;
+import static com.vaadin.guice.bus.SubscriptionTypeListener.getScopes;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class SubscriptionTypeListenerTest {
+
+    @Test
+    public void types_without_subscriptions_have_no_scopes() {
+        assertEquals(0, getScopes(Object.class));
+        assertEquals(0, getScopes(PlainSubscriber.class));
+    }
+
+    @Test
+    public void every_event_interface_maps_to_its_bus() {
+        assertEquals(GLOBAL, getScopes(GlobalSubscriber.class));
+        assertEquals(UI | VIEW, getScopes(UIAndViewSubscriber.class));
+    }
+
+    @Test
+    public void events_for_multiple_busses_select_all_of_them() {
+        assertEquals(GLOBAL | SESSION, getScopes(MultiBusSubscriber.class));
+    }
+
+    @Test
+    public void inherited_subscriptions_are_considered() {
+        assertEquals(GLOBAL, getScopes(InheritingSubscriber.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subscriptions_need_exactly_one_parameter() {
+        getScopes(InvalidSubscriber.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void types_without_subscriptions_are_not_listened_to() {
+        final TypeEncounter<PlainSubscriber> encounter = mock(TypeEncounter.class);
+
+        new SubscriptionTypeListener(GlobalEventBus.class).hear(TypeLiteral.get(PlainSubscriber.class), encounter);
+
+        verifyZeroInteractions(encounter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void only_the_needed_bus_providers_are_requested() {
+        final TypeEncounter<UIAndViewSubscriber> encounter = mock(TypeEncounter.class);
+
+        when(encounter.getProvider(UIEventBus.class)).thenReturn(mock(Provider.class));
+        when(encounter.getProvider(ViewEventBus.class)).thenReturn(mock(Provider.class));
+
+        new SubscriptionTypeListener(GlobalEventBus.class).hear(TypeLiteral.get(UIAndViewSubscriber.class), encounter);
+
+        verify(encounter).getProvider(UIEventBus.class);
+        verify(encounter).getProvider(ViewEventBus.class);
+        verify(encounter, never()).getProvider(GlobalEventBus.class);
+        verify(encounter, never()).getProvider(SessionEventBus.class);
+        verify(encounter).register(any(InjectionListener.class));
+    }
+
+    public static class AnyGlobalEvent implements GlobalEvent {
+    }
+
+    public static class GlobalAndSessionEvent implements GlobalEvent, SessionEvent {
+    }
+
+    public static class AnyUIEvent implements UIEvent {
+    }
+
+    public static class AnyViewEvent implements ViewEvent {
+    }
+
+    public static class PlainSubscriber {
+        public void notAnnotated(AnyGlobalEvent event) {
+        }
+    }
+
+    public static class GlobalSubscriber {
+        @Subscribe
+        public void onGlobalEvent(AnyGlobalEvent event) {
+        }
+    }
+
+    public static class UIAndViewSubscriber {
+        @Subscribe
+        public void onUIEvent(AnyUIEvent event) {
+        }
+
+        @Subscribe
+        public void onViewEvent(AnyViewEvent event) {
+        }
+    }
+
+    public static class MultiBusSubscriber {
+        @Subscribe
+        public void onEvent(GlobalAndSessionEvent event) {
+        }
+    }
+
+    public static class InheritingSubscriber extends GlobalSubscriber {
+    }
+
+    public static class InvalidSubscriber {
+        @Subscribe
+        public void onEvents(AnyGlobalEvent first, AnyGlobalEvent second) {
+        }
+    }
+}
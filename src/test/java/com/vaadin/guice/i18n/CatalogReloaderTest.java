@@ -0,0 +1,192 @@
+package com.vaadin.guice.i18n;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.server.ServiceDestroyListener;
+import com.vaadin.server.VaadinService;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CatalogReloaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File catalogFile;
+    private UI ui;
+    private TranslationCache translationCache;
+    private CatalogReloader catalogReloader;
+
+    @Before
+    public void setup() throws IOException {
+        catalogFile = new File(temporaryFolder.getRoot(), "messages.catalog");
+
+        writeCatalog("Hi");
+
+        ui = mock(UI.class);
+
+        when(ui.getLocale()).thenReturn(Locale.ENGLISH);
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                UI.setCurrent(ui);
+
+                try {
+                    ((Runnable) invocation.getArguments()[0]).run();
+                } finally {
+                    UI.setCurrent(null);
+                }
+
+                return null;
+            }
+        }).when(ui).access(any(Runnable.class));
+
+        translationCache = new TranslationCache(TranslationModule.DEFAULT_CACHE_SPEC);
+        catalogReloader = new CatalogReloader(new CatalogReloadConfiguration(10, 1, 0), translationCache);
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        catalogReloader.serviceDestroy(mock(ServiceDestroyEvent.class));
+    }
+
+    @Test
+    public void captions_of_live_uis_are_updated_after_a_reload() throws IOException {
+        final CatalogTranslator translator = new CatalogTranslator(catalogFile);
+
+        translator.setCatalogReloader(catalogReloader);
+
+        //the binder is UI-scoped, so it is created while its UI is the current one
+        UI.setCurrent(ui);
+
+        final GuiceTranslationBinder translationBinder = new GuiceTranslationBinder(
+                Collections.<Component>emptySet(),
+                translator,
+                translationCache
+        );
+
+        translationBinder.setCatalogReloader(catalogReloader, mock(VaadinService.class));
+
+        final Component component = mock(Component.class);
+
+        when(component.isAttached()).thenReturn(true);
+
+        final ArgumentCaptor<ClientConnector.AttachListener> attachListener = ArgumentCaptor.forClass(ClientConnector.AttachListener.class);
+
+        translationBinder.register(component, "greeting");
+
+        verify(component).addAttachListener(attachListener.capture());
+
+        //components are translated on attach, even if bind() was never called
+        attachListener.getValue().attach(new ClientConnector.AttachEvent(component));
+        UI.setCurrent(null);
+
+        verify(component).setCaption("Hi");
+
+        writeCatalog("Hello there");
+
+        verify(component, timeout(5000)).setCaption("Hello there");
+    }
+
+    @Test
+    public void polling_stops_when_the_service_is_destroyed() {
+        final VaadinService vaadinService = mock(VaadinService.class);
+
+        UI.setCurrent(ui);
+
+        final GuiceTranslationBinder translationBinder = new GuiceTranslationBinder(
+                Collections.<Component>emptySet(),
+                mock(CatalogTranslator.class),
+                translationCache
+        );
+
+        translationBinder.setCatalogReloader(catalogReloader, vaadinService);
+
+        final ArgumentCaptor<ServiceDestroyListener> serviceDestroyListener = ArgumentCaptor.forClass(ServiceDestroyListener.class);
+
+        verify(vaadinService).addServiceDestroyListener(serviceDestroyListener.capture());
+
+        assertFalse(catalogReloader.isStopped());
+
+        serviceDestroyListener.getValue().serviceDestroy(mock(ServiceDestroyEvent.class));
+
+        assertTrue(catalogReloader.isStopped());
+    }
+
+    @Test
+    public void incomplete_catalogs_are_not_used() throws IOException {
+        final CatalogTranslator translator = new CatalogTranslator(catalogFile);
+
+        //a header that announces more templates and locales than the file holds
+        replaceCatalog(new byte[]{0x47, 0x56, 0x43, 0x31, 0, 0, 0, 1, 0, 0, 0, 9, 0, 0, 0, 9});
+
+        try {
+            CatalogFile.open(catalogFile).reloadIfModified();
+        } catch (IOException expected) {
+            //the previous catalog stays in place
+        }
+
+        UI.setCurrent(ui);
+
+        assertEquals("Hi", translator.translate("greeting"));
+    }
+
+    private void writeCatalog(String greeting) throws IOException {
+        final Properties properties = new Properties();
+
+        properties.setProperty("greeting", greeting);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        CatalogCompiler.compile(Collections.singletonMap(Locale.ROOT, properties), outputStream);
+
+        replaceCatalog(outputStream.toByteArray());
+    }
+
+    /**
+     * catalogs are replaced by renaming a completely written file, overwriting a mapped file in
+     * place is not safe
+     */
+    private void replaceCatalog(byte[] content) throws IOException {
+        final File temporaryFile = new File(temporaryFolder.getRoot(), "messages.catalog.tmp");
+        final OutputStream outputStream = new FileOutputStream(temporaryFile);
+
+        try {
+            outputStream.write(content);
+        } finally {
+            outputStream.close();
+        }
+
+        assertTrue(temporaryFile.renameTo(catalogFile));
+    }
+}
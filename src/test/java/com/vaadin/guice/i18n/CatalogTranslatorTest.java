@@ -0,0 +1,112 @@
+package com.vaadin.guice.i18n;
+
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CatalogTranslatorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private UI ui;
+    private CatalogTranslator translator;
+
+    @Before
+    public void setup() throws IOException {
+        final Properties defaults = new Properties();
+
+        defaults.setProperty("hello", "Hello");
+        defaults.setProperty("bye", "Bye");
+        defaults.setProperty("Äpfel", "Apples");
+        defaults.setProperty("zebra", "Zebra");
+
+        final Properties german = new Properties();
+
+        german.setProperty("hello", "Hallo");
+        german.setProperty("Äpfel", "Äpfel");
+
+        final Properties austrian = new Properties();
+
+        austrian.setProperty("hello", "Servus");
+
+        final File baseFile = write("messages.properties", defaults);
+
+        write("messages_de.properties", german);
+        write("messages_de_AT.properties", austrian);
+
+        final File catalogFile = temporaryFolder.newFile("messages.catalog");
+
+        CatalogCompiler.main(new String[]{baseFile.getPath(), catalogFile.getPath()});
+
+        translator = new CatalogTranslator(catalogFile);
+
+        ui = mock(UI.class);
+        UI.setCurrent(ui);
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void translations_of_the_locale_are_found() {
+        when(ui.getLocale()).thenReturn(new Locale("de", "AT"));
+
+        assertEquals("Servus", translator.translate("hello"));
+    }
+
+    @Test
+    public void language_and_default_are_fallbacks() {
+        when(ui.getLocale()).thenReturn(new Locale("de", "AT"));
+
+        assertEquals("Äpfel", translator.translate("Äpfel"));
+        assertEquals("Bye", translator.translate("bye"));
+    }
+
+    @Test
+    public void every_template_is_found_by_binary_search() {
+        when(ui.getLocale()).thenReturn(Locale.ENGLISH);
+
+        assertEquals("Hello", translator.translate("hello"));
+        assertEquals("Bye", translator.translate("bye"));
+        assertEquals("Apples", translator.translate("Äpfel"));
+        assertEquals("Zebra", translator.translate("zebra"));
+    }
+
+    @Test
+    public void unknown_templates_are_returned_as_they_are() {
+        when(ui.getLocale()).thenReturn(Locale.GERMAN);
+
+        assertEquals("unknown", translator.translate("unknown"));
+    }
+
+    private File write(String fileName, Properties properties) throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), fileName);
+        final OutputStream outputStream = new FileOutputStream(file);
+
+        try {
+            properties.store(outputStream, null);
+        } finally {
+            outputStream.close();
+        }
+
+        return file;
+    }
+}
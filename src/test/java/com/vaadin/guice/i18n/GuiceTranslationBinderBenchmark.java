@@ -0,0 +1,130 @@
+package com.vaadin.guice.i18n;
+
+import com.vaadin.ui.Component;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.vaadin.i18n.api.Translator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * re-translates a UI with 5,000 captioned components of which a tenth are attached, like a UI with
+ * many tabs or a big navigation history would have, on every switch between three locales. Run
+ * with <code>mvn test -Pbenchmark</code>.
+ */
+public class GuiceTranslationBinderBenchmark {
+
+    private static final int COMPONENTS = 5000;
+    private static final int ATTACHED_EVERY = 10;
+    private static final int TEMPLATES = 300;
+    private static final int RUNS = 20;
+    private static final Locale[] LOCALES = {Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH};
+
+    private static final Logger LOGGER = Logger.getLogger(GuiceTranslationBinderBenchmark.class.getName());
+
+    private UI ui;
+    private GuiceTranslationBinder translationBinder;
+    //the binder holds components weakly
+    private List<Component> components;
+    private int translatedCaptions;
+
+    @Before
+    public void setup() {
+        ui = mock(UI.class);
+
+        final Translator translator = mock(Translator.class);
+
+        when(ui.getLocale()).thenReturn(LOCALES[0]);
+        when(translator.translate(anyString())).thenReturn("translation");
+
+        UI.setCurrent(ui);
+
+        translationBinder = new GuiceTranslationBinder(
+                Collections.<Component>emptySet(),
+                translator,
+                new TranslationCache(TranslationModule.DEFAULT_CACHE_SPEC)
+        );
+
+        components = new ArrayList<Component>(COMPONENTS);
+
+        for (int i = 0; i < COMPONENTS; i++) {
+            final Component component = new CountingComponent(i % ATTACHED_EVERY == 0);
+
+            translationBinder.register(component, "template" + (i % TEMPLATES));
+            components.add(component);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void locale_switches() {
+        //warm up the translation cache for all locales
+        for (Locale locale : LOCALES) {
+            when(ui.getLocale()).thenReturn(locale);
+            translationBinder.bind();
+        }
+
+        translatedCaptions = 0;
+
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < RUNS; i++) {
+            when(ui.getLocale()).thenReturn(LOCALES[i % LOCALES.length]);
+            translationBinder.bind();
+        }
+
+        final long nanosPerBind = (System.nanoTime() - start) / RUNS;
+
+        LOGGER.info(
+                String.format(
+                        "%d components, %d attached: %dµs per locale switch",
+                        COMPONENTS,
+                        COMPONENTS / ATTACHED_EVERY,
+                        nanosPerBind / 1000
+                )
+        );
+
+        //every switch re-translates the attached components only
+        assertEquals(RUNS * COMPONENTS / ATTACHED_EVERY, translatedCaptions);
+        assertEquals(COMPONENTS, components.size());
+    }
+
+    /**
+     * a component that counts the captions it is given, a mockito mock would record every
+     * invocation and distort the measurement
+     */
+    private final class CountingComponent extends Label {
+        private final boolean attached;
+
+        CountingComponent(boolean attached) {
+            this.attached = attached;
+        }
+
+        @Override
+        public boolean isAttached() {
+            return attached;
+        }
+
+        @Override
+        public void setCaption(String caption) {
+            translatedCaptions++;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.vaadin.guice.i18n;
+
+import com.google.common.base.Supplier;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.vaadin.i18n.api.Translator;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GuiceTranslationBinderTest {
+
+    private static final int COMPONENTS = 50;
+    private static final int ATTACHED_EVERY = 10;
+    private static final int TEMPLATES = 3;
+
+    private UI ui;
+    private Translator translator;
+    private GuiceTranslationBinder translationBinder;
+    private List<Component> components;
+
+    @Before
+    public void setup() {
+        ui = mock(UI.class);
+        translator = mock(Translator.class);
+
+        when(ui.getLocale()).thenReturn(Locale.ENGLISH);
+        when(translator.translate(anyString())).thenReturn("translation");
+
+        UI.setCurrent(ui);
+
+        translationBinder = new GuiceTranslationBinder(
+                Collections.<Component>emptySet(),
+                translator,
+                new TranslationCache(TranslationModule.DEFAULT_CACHE_SPEC)
+        );
+
+        components = new ArrayList<Component>(COMPONENTS);
+
+        for (int i = 0; i < COMPONENTS; i++) {
+            final Component component = mock(Component.class);
+
+            when(component.isAttached()).thenReturn(i % ATTACHED_EVERY == 0);
+
+            translationBinder.register(component, "template" + (i % TEMPLATES));
+            components.add(component);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void bind_translates_only_attached_components() {
+        translationBinder.bind();
+
+        for (int i = 0; i < COMPONENTS; i++) {
+            if (i % ATTACHED_EVERY == 0) {
+                verify(components.get(i), times(1)).setCaption("translation");
+            } else {
+                verify(components.get(i), never()).setCaption(anyString());
+            }
+        }
+    }
+
+    @Test
+    public void detached_components_are_translated_on_attach() {
+        final Component detached = components.get(1);
+
+        final ArgumentCaptor<ClientConnector.AttachListener> attachListener = ArgumentCaptor.forClass(ClientConnector.AttachListener.class);
+
+        verify(detached).addAttachListener(attachListener.capture());
+
+        translationBinder.bind();
+
+        verify(detached, never()).setCaption(anyString());
+
+        attachListener.getValue().attach(new ClientConnector.AttachEvent(detached));
+        attachListener.getValue().attach(new ClientConnector.AttachEvent(detached));
+
+        verify(detached, times(1)).setCaption("translation");
+    }
+
+    @Test
+    public void parameterized_captions_are_refreshed_with_new_arguments() {
+        final Component component = mock(Component.class);
+        final AtomicInteger count = new AtomicInteger(1);
+
+        when(component.isAttached()).thenReturn(true);
+        when(translator.translate("messages")).thenReturn("{0} messages");
+
+        translationBinder.register(component, "messages", new Supplier<Object[]>() {
+            @Override
+            public Object[] get() {
+                return new Object[]{count.get()};
+            }
+        });
+
+        count.set(2);
+        translationBinder.refresh();
+
+        verify(component).setCaption("1 messages");
+        verify(component).setCaption("2 messages");
+    }
+
+    @Test
+    public void collected_components_are_forgotten() {
+        final Label label = new Label();
+
+        translationBinder.register(label, "template");
+
+        final Reference<Component> reference = translationBinder.getReference(label);
+
+        assertEquals(COMPONENTS + 1, translationBinder.size());
+
+        //what the garbage-collector does once the label is no longer referenced
+        reference.clear();
+        reference.enqueue();
+
+        assertEquals(COMPONENTS, translationBinder.size());
+    }
+
+    @Test
+    public void components_are_held_weakly() {
+        final Label label = new Label();
+
+        translationBinder.register(label, "template");
+
+        final Reference<Component> reference = translationBinder.getReference(label);
+
+        assertTrue(reference instanceof WeakReference);
+        assertSame(label, reference.get());
+    }
+}
@@ -0,0 +1,285 @@
+package com.vaadin.guice.i18n;
+
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.vaadin.i18n.api.Translator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TranslationCacheTest {
+
+    private static final int THREADS = 4;
+    private static final int FORMATS_PER_THREAD = 1000;
+
+    private TranslationCache translationCache;
+    private Translator translator;
+    private UI ui;
+
+    @Before
+    public void setup() {
+        translationCache = new TranslationCache("maximumSize=2");
+        translator = mock(Translator.class);
+        ui = mock(UI.class);
+
+        when(translator.translate("hello")).thenReturn("Hallo");
+        when(translator.translate("bye")).thenReturn("Tschüss");
+        when(ui.getLocale()).thenReturn(Locale.GERMAN);
+
+        UI.setCurrent(ui);
+    }
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+    }
+
+    @Test
+    public void translator_is_called_once_per_template_and_locale() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Hallo", translationCache.translate(translator, "hello"));
+        }
+
+        verify(translator, times(1)).translate("hello");
+        assertEquals(999, translationCache.getHits());
+        assertEquals(1, translationCache.getMisses());
+    }
+
+    @Test
+    public void locales_are_cached_separately() {
+        translationCache.translate(translator, "hello");
+
+        when(ui.getLocale()).thenReturn(Locale.FRENCH);
+
+        translationCache.translate(translator, "hello");
+
+        verify(translator, times(2)).translate("hello");
+    }
+
+    @Test
+    public void invalidated_locales_are_translated_again() {
+        translationCache.translate(translator, "hello");
+        translationCache.invalidate(Locale.GERMAN);
+        translationCache.translate(translator, "hello");
+
+        verify(translator, times(2)).translate("hello");
+    }
+
+    @Test
+    public void invalidated_templates_are_translated_again() {
+        translationCache.translate(translator, "hello");
+        translationCache.translate(translator, "bye");
+        translationCache.invalidate("hello");
+        translationCache.translate(translator, "hello");
+        translationCache.translate(translator, "bye");
+
+        verify(translator, times(2)).translate("hello");
+        verify(translator, times(1)).translate("bye");
+    }
+
+    @Test
+    public void cache_is_bounded_by_spec() {
+        translationCache.translate(translator, "hello");
+        translationCache.translate(translator, "bye");
+        translationCache.translate(translator, "third");
+
+        assertEquals(1, translationCache.getEvictions());
+    }
+
+    @Test
+    public void batch_translators_are_called_once_for_all_missing_templates() {
+        final BatchTranslator batchTranslator = mock(BatchTranslator.class);
+        final Map<String, String> batch = new HashMap<String, String>();
+
+        batch.put("hello", "Hallo");
+        batch.put("bye", "Tschüss");
+
+        when(batchTranslator.translateAll(anyCollectionOf(String.class))).thenReturn(batch);
+
+        final Collection<String> templates = Arrays.asList("hello", "bye");
+
+        assertEquals(batch, translationCache.translateAll(batchTranslator, templates));
+        assertEquals(batch, translationCache.translateAll(batchTranslator, templates));
+
+        verify(batchTranslator, times(1)).translateAll(anyCollectionOf(String.class));
+        verify(batchTranslator, never()).translate(anyString());
+    }
+
+    @Test
+    public void related_templates_are_cached_on_the_first_miss() {
+        final BatchTranslator batchTranslator = mock(BatchTranslator.class);
+        final Map<String, String> batch = new HashMap<String, String>();
+
+        batch.put("hello", "Hallo");
+        batch.put("bye", "Tschüss");
+
+        when(batchTranslator.translateAll(anyCollectionOf(String.class))).thenReturn(batch);
+
+        final Collection<String> related = Arrays.asList("hello", "bye");
+
+        assertEquals("Hallo", translationCache.translate(batchTranslator, "hello", related));
+        assertEquals("Tschüss", translationCache.translate(batchTranslator, "bye", related));
+
+        verify(batchTranslator, times(1)).translateAll(anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void missing_translations_are_cached() {
+        assertNull(translationCache.translate(translator, "unknown"));
+        assertNull(translationCache.translate(translator, "unknown"));
+        assertTrue(translationCache.translateAll(translator, Arrays.asList("unknown")).isEmpty());
+
+        verify(translator, times(1)).translate("unknown");
+    }
+
+    @Test
+    public void missing_batch_translations_are_cached() {
+        final BatchTranslator batchTranslator = mock(BatchTranslator.class);
+        final Map<String, String> batch = new HashMap<String, String>();
+
+        batch.put("hello", "Hallo");
+
+        when(batchTranslator.translateAll(anyCollectionOf(String.class))).thenReturn(batch);
+
+        final Collection<String> related = Arrays.asList("hello", "unknown");
+
+        assertNull(translationCache.translate(batchTranslator, "unknown", related));
+        assertNull(translationCache.translate(batchTranslator, "unknown", related));
+        assertEquals(batch, translationCache.translateAll(batchTranslator, related));
+
+        verify(batchTranslator, times(1)).translateAll(anyCollectionOf(String.class));
+        verify(batchTranslator, never()).translate(anyString());
+    }
+
+    @Test
+    public void plain_translators_are_called_per_template() {
+        translationCache.translateAll(translator, Arrays.asList("hello", "bye"));
+
+        verify(translator, times(1)).translate("hello");
+        verify(translator, times(1)).translate("bye");
+    }
+
+    @Test
+    public void patterns_are_parsed_once_per_locale() {
+        when(translator.translate("messages")).thenReturn("{0} neue Nachrichten");
+
+        assertEquals("1 neue Nachrichten", translationCache.format(translator, "messages", new Object[]{1}));
+        assertEquals("2 neue Nachrichten", translationCache.format(translator, "messages", new Object[]{2}));
+
+        verify(translator, times(1)).translate("messages");
+    }
+
+    @Test
+    public void patterns_are_formatted_concurrently() throws Exception {
+        when(translator.translate("messages")).thenReturn("{0} neue Nachrichten");
+
+        //parsed and cached on this thread, the other threads only format
+        translationCache.format(translator, "messages", new Object[]{0});
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+            for (int thread = 0; thread < THREADS; thread++) {
+                results.add(executorService.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        UI.setCurrent(ui);
+
+                        try {
+                            for (int i = 0; i < FORMATS_PER_THREAD; i++) {
+                                if (!(i + " neue Nachrichten").equals(translationCache.format(translator, "messages", new Object[]{i}))) {
+                                    return false;
+                                }
+                            }
+
+                            return true;
+                        } finally {
+                            UI.setCurrent(null);
+                        }
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        verify(translator, times(1)).translate("messages");
+    }
+
+    @Test
+    public void translations_made_during_an_invalidation_are_not_cached() {
+        final AtomicBoolean invalidated = new AtomicBoolean();
+
+        when(translator.translate("stale")).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                //the catalogs are replaced while the translation is made
+                if (invalidated.compareAndSet(false, true)) {
+                    translationCache.invalidateAll();
+                }
+
+                return "Veraltet";
+            }
+        });
+
+        translationCache.translate(translator, "stale");
+        translationCache.translate(translator, "stale");
+        translationCache.translate(translator, "stale");
+
+        verify(translator, times(2)).translate("stale");
+    }
+
+    @Test
+    public void translators_translate_into_the_locale_the_translation_is_cached_under() {
+        final List<Locale> translatorLocales = new ArrayList<Locale>();
+
+        when(translator.translate("locale")).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                //the current UI is gone, without the cache's locale the translator would fall back to the default
+                UI.setCurrent(null);
+
+                translatorLocales.add(TranslationCache.currentLocale());
+
+                return "Sprache";
+            }
+        });
+
+        translationCache.translate(translator, "locale");
+
+        assertEquals(Collections.singletonList(Locale.GERMAN), translatorLocales);
+    }
+}
@@ -0,0 +1,138 @@
+package com.vaadin.guice.security;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Scopes;
+
+import com.vaadin.guice.annotation.VaadinSessionScope;
+import com.vaadin.guice.bus.SessionEventBus;
+import com.vaadin.ui.UI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.vaadin.security.api.PermissionEvaluator;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PermissionDecisionCacheTest {
+
+    private PermissionEvaluator permissionEvaluator;
+    private PermissionDecisionCounters counters;
+
+    @Before
+    public void setup() {
+        permissionEvaluator = mock(PermissionEvaluator.class);
+        counters = new PermissionDecisionCounters();
+
+        when(permissionEvaluator.hasPermission("admin")).thenReturn(true);
+    }
+
+    @Test
+    public void decisions_are_cached_within_ttl() {
+        final PermissionDecisionCache cache = new PermissionDecisionCache(TimeUnit.MINUTES.toNanos(1), counters);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cache.hasPermission(permissionEvaluator, "admin"));
+        }
+
+        verify(permissionEvaluator, times(1)).hasPermission("admin");
+        assertEquals(99, counters.getHits());
+        assertEquals(1, counters.getMisses());
+    }
+
+    @Test
+    public void expired_decisions_are_made_again() throws InterruptedException {
+        final PermissionDecisionCache cache = new PermissionDecisionCache(TimeUnit.MILLISECONDS.toNanos(1), counters);
+
+        cache.hasPermission(permissionEvaluator, "admin");
+        Thread.sleep(5);
+        cache.hasPermission(permissionEvaluator, "admin");
+
+        verify(permissionEvaluator, times(2)).hasPermission("admin");
+    }
+
+    @Test
+    public void permissions_changed_event_invalidates() {
+        final PermissionDecisionCache cache = new PermissionDecisionCache(TimeUnit.MINUTES.toNanos(1), counters);
+
+        cache.hasPermission(permissionEvaluator, "admin");
+        cache.onPermissionsChanged(new PermissionsChangedEvent());
+        cache.hasPermission(permissionEvaluator, "admin");
+
+        verify(permissionEvaluator, times(2)).hasPermission("admin");
+    }
+
+    @Test
+    public void decisions_made_during_an_invalidation_are_not_cached() {
+        final PermissionDecisionCache cache = new PermissionDecisionCache(TimeUnit.MINUTES.toNanos(1), counters);
+
+        when(permissionEvaluator.hasPermission("admin")).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                //the permissions change while the evaluator is asked
+                cache.invalidate();
+                return true;
+            }
+        });
+
+        cache.hasPermission(permissionEvaluator, "admin");
+        cache.hasPermission(permissionEvaluator, "admin");
+
+        verify(permissionEvaluator, times(2)).hasPermission("admin");
+        assertEquals(0, counters.getHits());
+    }
+
+    @Test
+    public void no_ttl_disables_caching() {
+        final PermissionDecisionCache cache = new PermissionDecisionCache(0L, counters);
+
+        cache.hasPermission(permissionEvaluator, "admin");
+        cache.hasPermission(permissionEvaluator, "admin");
+
+        verify(permissionEvaluator, times(2)).hasPermission("admin");
+        assertEquals(0, counters.getHits());
+    }
+
+    @Test
+    public void permissions_changed_events_from_another_ui_invalidate() {
+        final SessionEventBus sessionEventBus = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindScope(VaadinSessionScope.class, Scopes.NO_SCOPE);
+            }
+        }).getInstance(SessionEventBus.class);
+
+        final PermissionDecisionCache cache = new PermissionDecisionCache(TimeUnit.MINUTES.toNanos(1), counters);
+        final UI firstUI = mock(UI.class);
+        final UI secondUI = mock(UI.class);
+
+        try {
+            //the session-scoped cache is created in the first UI, which is closed before the second UI changes permissions
+            UI.setCurrent(firstUI);
+            sessionEventBus.register(cache);
+            cache.hasPermission(permissionEvaluator, "admin");
+
+            when(firstUI.isClosing()).thenReturn(true);
+
+            UI.setCurrent(secondUI);
+            sessionEventBus.post(new PermissionsChangedEvent());
+            cache.hasPermission(permissionEvaluator, "admin");
+        } finally {
+            UI.setCurrent(null);
+        }
+
+        verify(permissionEvaluator, times(2)).hasPermission("admin");
+        verify(firstUI, never()).access(any(Runnable.class));
+    }
+}
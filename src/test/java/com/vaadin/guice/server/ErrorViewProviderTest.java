@@ -0,0 +1,89 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.ErrorViewCaching;
+import com.vaadin.guice.testClasses.ViewB;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ErrorViewProviderTest {
+
+    private GuiceVaadin guiceVaadin;
+    private NavigationCounters navigationCounters;
+
+    @Before
+    public void setup() {
+        guiceVaadin = mock(GuiceVaadin.class);
+        navigationCounters = new NavigationCounters();
+
+        when(guiceVaadin.getNavigationCounters()).thenReturn(navigationCounters);
+        when(guiceVaadin.assemble(ErrorView.class)).thenAnswer(new Answer<ErrorView>() {
+            @Override
+            public ErrorView answer(InvocationOnMock invocation) throws Throwable {
+                return new ErrorView();
+            }
+        });
+    }
+
+    @Test
+    public void per_ui_caching_constructs_the_error_view_once() {
+        final ErrorViewProvider errorViewProvider = new ErrorViewProvider(guiceVaadin, ErrorView.class, ErrorViewCaching.PER_UI);
+
+        final View first = errorViewProvider.getView("unknown1");
+        final View second = errorViewProvider.getView("unknown2");
+
+        assertSame(first, second);
+        verify(guiceVaadin, times(1)).assemble(ErrorView.class);
+        assertEquals(2, navigationCounters.getFailedViewResolutions());
+    }
+
+    @Test
+    public void per_ui_caching_is_per_provider() {
+        final ErrorViewProvider firstUI = new ErrorViewProvider(guiceVaadin, ErrorView.class, ErrorViewCaching.PER_UI);
+        final ErrorViewProvider secondUI = new ErrorViewProvider(guiceVaadin, ErrorView.class, ErrorViewCaching.PER_UI);
+
+        assertNotSame(firstUI.getView("unknown"), secondUI.getView("unknown"));
+    }
+
+    @Test
+    public void no_caching_constructs_a_view_per_navigation() {
+        final ErrorViewProvider errorViewProvider = new ErrorViewProvider(guiceVaadin, ErrorView.class, ErrorViewCaching.NONE);
+
+        assertNotSame(errorViewProvider.getView("unknown"), errorViewProvider.getView("unknown"));
+        verify(guiceVaadin, times(2)).assemble(ErrorView.class);
+        assertEquals(2, navigationCounters.getFailedViewResolutions());
+    }
+
+    @Test
+    public void unknown_view_names_are_reported_as_the_error_views_name() {
+        final ErrorViewProvider errorViewProvider = new ErrorViewProvider(guiceVaadin, ErrorView.class, ErrorViewCaching.PER_UI);
+
+        assertEquals(ErrorView.class.getName(), errorViewProvider.getViewName("unknown/param"));
+        assertEquals(ErrorView.class.getName(), errorViewProvider.getViewName("other"));
+    }
+
+    @Test
+    public void annotated_error_views_are_reported_under_their_view_name() {
+        final ErrorViewProvider errorViewProvider = new ErrorViewProvider(guiceVaadin, ViewB.class, ErrorViewCaching.PER_UI);
+
+        assertEquals("viewb", errorViewProvider.getViewName("unknown/param"));
+    }
+
+    public static class ErrorView implements View {
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+}
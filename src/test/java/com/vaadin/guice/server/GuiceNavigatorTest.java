@@ -0,0 +1,174 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.ErrorViewCaching;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.navigator.ViewDisplay;
+import com.vaadin.navigator.ViewProvider;
+import com.vaadin.server.Page;
+import com.vaadin.server.ServiceDestroyEvent;
+import com.vaadin.ui.UI;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GuiceNavigatorTest {
+
+    private static final int UNKNOWN_FRAGMENTS = 100;
+
+    private GuiceNavigator navigator;
+    private ViewProvider registeredViews;
+    private RecordingNavigationMetrics navigationMetrics;
+
+    @Before
+    public void setup() {
+        final UI ui = mock(UI.class);
+
+        when(ui.getPage()).thenReturn(mock(Page.class));
+
+        navigator = new GuiceNavigator();
+        navigator.init(ui, mock(ViewDisplay.class));
+
+        registeredViews = mock(ViewProvider.class);
+        when(registeredViews.getViewName("viewa")).thenReturn("viewa");
+
+        navigationMetrics = new RecordingNavigationMetrics();
+        navigator.setNavigationMetrics(navigationMetrics, registeredViews);
+    }
+
+    @Test
+    public void listener_and_enter_phases_are_reported_once_per_navigation() {
+        navigator.addViewChangeListener(new TimedViewChangeListener(new FixedListener(true), navigator, NavigationPhase.VIEW_CHANGE_LISTENERS));
+        navigator.addViewChangeListener(new TimedViewChangeListener(new FixedListener(true), navigator, NavigationPhase.SECURITY));
+
+        navigator.navigateTo(mock(View.class), "viewa", "");
+
+        assertEquals("viewa", navigationMetrics.viewName);
+        assertEquals(1, navigationMetrics.recordings.get(NavigationPhase.VIEW_CHANGE_LISTENERS).intValue());
+        assertEquals(1, navigationMetrics.recordings.get(NavigationPhase.SECURITY).intValue());
+        assertEquals(1, navigationMetrics.recordings.get(NavigationPhase.VIEW_ENTER).intValue());
+        //views are looked up and injected by GuiceViewProvider, which reports VIEW_INJECTION itself
+        assertFalse(navigationMetrics.recordings.containsKey(NavigationPhase.VIEW_INJECTION));
+    }
+
+    @Test
+    public void rejected_navigations_are_not_reported() {
+        navigator.addViewChangeListener(new TimedViewChangeListener(new FixedListener(false), navigator, NavigationPhase.SECURITY));
+
+        navigator.navigateTo(mock(View.class), "viewa", "");
+
+        assertTrue(navigationMetrics.recordings.isEmpty());
+    }
+
+    @Test
+    public void phase_times_outside_of_a_navigation_are_ignored() {
+        navigator.addPhaseTime(NavigationPhase.VIEW_CHANGE_LISTENERS, 1000);
+
+        navigator.navigateTo(mock(View.class), "viewa", "");
+
+        assertFalse(navigationMetrics.recordings.containsKey(NavigationPhase.VIEW_CHANGE_LISTENERS));
+        assertEquals(1, navigationMetrics.recordings.get(NavigationPhase.VIEW_ENTER).intValue());
+    }
+
+    @Test
+    public void unknown_fragments_are_reported_under_the_error_views_name() {
+        final GuiceVaadin guiceVaadin = mock(GuiceVaadin.class);
+        final JmxNavigationMetrics jmxNavigationMetrics = new JmxNavigationMetrics();
+
+        when(guiceVaadin.getNavigationCounters()).thenReturn(new NavigationCounters());
+        when(guiceVaadin.assemble(ErrorView.class)).thenReturn(new ErrorView());
+
+        navigator.setNavigationMetrics(jmxNavigationMetrics, registeredViews);
+        navigator.setErrorProvider(new ErrorViewProvider(guiceVaadin, ErrorView.class, ErrorViewCaching.PER_UI));
+
+        try {
+            for (int i = 0; i < UNKNOWN_FRAGMENTS; i++) {
+                navigator.navigateTo("unknown" + i + "/param");
+            }
+
+            assertEquals(NavigationPhase.values().length, jmxNavigationMetrics.getRegisteredNames().size());
+            assertEquals(
+                    UNKNOWN_FRAGMENTS,
+                    jmxNavigationMetrics.getHistogram(ErrorView.class.getName(), NavigationPhase.VIEW_ENTER).getCount()
+            );
+        } finally {
+            jmxNavigationMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+
+    @Test
+    public void unregistered_view_names_of_custom_error_providers_share_one_name() {
+        final ViewProvider errorProvider = mock(ViewProvider.class);
+        final JmxNavigationMetrics jmxNavigationMetrics = new JmxNavigationMetrics();
+
+        when(errorProvider.getViewName(anyString())).then(returnsFirstArg());
+        when(errorProvider.getView(anyString())).thenReturn(new ErrorView());
+
+        navigator.setNavigationMetrics(jmxNavigationMetrics, registeredViews);
+        navigator.setErrorProvider(errorProvider);
+
+        try {
+            for (int i = 0; i < UNKNOWN_FRAGMENTS; i++) {
+                navigator.navigateTo("unknown" + i);
+            }
+
+            assertEquals(NavigationPhase.values().length, jmxNavigationMetrics.getRegisteredNames().size());
+            assertEquals(
+                    UNKNOWN_FRAGMENTS,
+                    jmxNavigationMetrics.getHistogram(GuiceNavigator.UNREGISTERED_VIEW_NAME, NavigationPhase.VIEW_ENTER).getCount()
+            );
+        } finally {
+            jmxNavigationMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+
+    public static class ErrorView implements View {
+        @Override
+        public void enter(ViewChangeListener.ViewChangeEvent event) {
+        }
+    }
+
+    private static final class FixedListener implements ViewChangeListener {
+        private final boolean navigationAllowed;
+
+        FixedListener(boolean navigationAllowed) {
+            this.navigationAllowed = navigationAllowed;
+        }
+
+        @Override
+        public boolean beforeViewChange(ViewChangeEvent event) {
+            return navigationAllowed;
+        }
+
+        @Override
+        public void afterViewChange(ViewChangeEvent event) {
+        }
+    }
+
+    private static final class RecordingNavigationMetrics implements NavigationMetrics {
+        private final Map<NavigationPhase, Integer> recordings = new EnumMap<NavigationPhase, Integer>(NavigationPhase.class);
+        private String viewName;
+
+        @Override
+        public void record(String viewName, NavigationPhase phase, long durationNanos) {
+            assertTrue(durationNanos >= 0);
+
+            this.viewName = viewName;
+
+            final Integer count = recordings.get(phase);
+
+            recordings.put(phase, count == null ? 1 : count + 1);
+        }
+    }
+}
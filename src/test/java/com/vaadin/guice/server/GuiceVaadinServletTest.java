@@ -0,0 +1,134 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.multibindings.Multibinder;
+
+import com.vaadin.guice.annotation.GuiceVaadinConfiguration;
+import com.vaadin.guice.bus.BufferOverflowPolicy;
+import com.vaadin.guice.bus.BusModule;
+import com.vaadin.guice.bus.GlobalEventBus;
+import com.vaadin.guice.bus.PendingEventBufferConfiguration;
+import com.vaadin.server.RequestHandler;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GuiceVaadinServletTest {
+
+    private RoundTripServlet servlet;
+
+    @Before
+    public void setup() throws Exception {
+        RecordingRoundTripListener.instances.set(0);
+        RecordingRoundTripListener.uis.clear();
+
+        final ServletContext servletContext = mock(ServletContext.class);
+        when(servletContext.getInitParameterNames()).thenReturn(Collections.enumeration(Collections.<String>emptyList()));
+
+        final ServletConfig servletConfig = mock(ServletConfig.class);
+        when(servletConfig.getServletContext()).thenReturn(servletContext);
+        when(servletConfig.getInitParameterNames()).thenReturn(Collections.enumeration(Collections.<String>emptyList()));
+
+        servlet = new RoundTripServlet();
+
+        //creates the service and it's request handlers, the global event bus must not be created here
+        servlet.init(servletConfig);
+    }
+
+    @After
+    public void tearDown() {
+        servlet.destroy();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void round_trip_listeners_are_created_on_the_first_request() throws Exception {
+        final RoundTripRequestHandler roundTripRequestHandler = getRoundTripRequestHandler(servlet.getService());
+
+        assertNotNull(roundTripRequestHandler);
+        assertEquals(0, RecordingRoundTripListener.instances.get());
+
+        final UI ui = mock(UI.class);
+        final VaadinRequest request = mock(VaadinRequest.class);
+        final VaadinService sessionService = mock(VaadinService.class);
+        final VaadinSession session = mock(VaadinSession.class);
+
+        when(session.getService()).thenReturn(sessionService);
+        when(sessionService.findUI(request)).thenReturn(ui);
+
+        //as during a request
+        CurrentInstance.set(VaadinService.class, servlet.getService());
+
+        assertFalse(roundTripRequestHandler.synchronizedHandleRequest(session, request, mock(VaadinResponse.class)));
+        assertFalse(roundTripRequestHandler.synchronizedHandleRequest(session, request, mock(VaadinResponse.class)));
+
+        assertEquals(1, RecordingRoundTripListener.instances.get());
+        assertEquals(asList(ui, ui), RecordingRoundTripListener.uis);
+        assertNotNull(servlet.getInjector().getInstance(GlobalEventBus.class));
+    }
+
+    private static RoundTripRequestHandler getRoundTripRequestHandler(VaadinService service) {
+        for (RequestHandler requestHandler : service.getRequestHandlers()) {
+            if (requestHandler instanceof RoundTripRequestHandler) {
+                return (RoundTripRequestHandler) requestHandler;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * the GlobalEventBus is a RoundTripListener with this configuration
+     */
+    public static class PendingEventBufferBusModule extends BusModule {
+        public PendingEventBufferBusModule() {
+            setPendingEventBufferConfiguration(new PendingEventBufferConfiguration(10, BufferOverflowPolicy.COALESCE));
+        }
+
+        @Override
+        protected void configure() {
+            super.configure();
+
+            Multibinder.newSetBinder(binder(), RoundTripListener.class).addBinding().to(RecordingRoundTripListener.class);
+        }
+    }
+
+    public static class RecordingRoundTripListener implements RoundTripListener {
+        static final AtomicInteger instances = new AtomicInteger();
+        static final List<UI> uis = Collections.synchronizedList(new ArrayList<UI>());
+
+        public RecordingRoundTripListener() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public void roundTripStarted(UI ui) {
+            uis.add(ui);
+        }
+    }
+
+    @GuiceVaadinConfiguration(modules = {PendingEventBufferBusModule.class}, basePackages = "com.vaadin.guice.server")
+    private static class RoundTripServlet extends GuiceVaadinServlet {
+    }
+}
@@ -0,0 +1,78 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.ServiceDestroyEvent;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class JmxNavigationMetricsTest {
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    public void histograms_are_registered_per_view_and_phase() {
+        final JmxNavigationMetrics navigationMetrics = new JmxNavigationMetrics();
+
+        try {
+            navigationMetrics.record("viewa", NavigationPhase.VIEW_ENTER, 1000);
+            navigationMetrics.record("viewa", NavigationPhase.VIEW_ENTER, 2000);
+
+            assertEquals(2, navigationMetrics.getHistogram("viewa", NavigationPhase.VIEW_ENTER).getCount());
+            assertEquals(0, navigationMetrics.getHistogram("viewa", NavigationPhase.SECURITY).getCount());
+            assertEquals(NavigationPhase.values().length, navigationMetrics.getRegisteredNames().size());
+
+            for (ObjectName objectName : navigationMetrics.getRegisteredNames()) {
+                assertTrue(mBeanServer.isRegistered(objectName));
+            }
+        } finally {
+            navigationMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+
+    @Test
+    public void mbeans_are_unregistered_when_the_service_is_destroyed() {
+        final JmxNavigationMetrics navigationMetrics = new JmxNavigationMetrics();
+
+        navigationMetrics.record("viewa", NavigationPhase.VIEW_ENTER, 1000);
+
+        final Set<ObjectName> registeredNames = new HashSet<ObjectName>(navigationMetrics.getRegisteredNames());
+
+        navigationMetrics.serviceDestroy(mock(ServiceDestroyEvent.class));
+
+        for (ObjectName objectName : registeredNames) {
+            assertFalse(mBeanServer.isRegistered(objectName));
+        }
+
+        assertTrue(navigationMetrics.getRegisteredNames().isEmpty());
+        assertNull(navigationMetrics.getHistogram("viewa", NavigationPhase.VIEW_ENTER));
+    }
+
+    @Test
+    public void two_instances_do_not_collide() {
+        final JmxNavigationMetrics first = new JmxNavigationMetrics();
+        final JmxNavigationMetrics second = new JmxNavigationMetrics();
+
+        try {
+            first.record("viewa", NavigationPhase.VIEW_ENTER, 1000);
+            second.record("viewa", NavigationPhase.VIEW_ENTER, 1000);
+
+            assertEquals(NavigationPhase.values().length, first.getRegisteredNames().size());
+            assertEquals(NavigationPhase.values().length, second.getRegisteredNames().size());
+        } finally {
+            first.serviceDestroy(mock(ServiceDestroyEvent.class));
+            second.serviceDestroy(mock(ServiceDestroyEvent.class));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.vaadin.guice.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void small_values_have_exact_buckets() {
+        for (long nanos = 0; nanos < 8; nanos++) {
+            assertEquals(nanos, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(nanos)));
+        }
+    }
+
+    @Test
+    public void upper_bounds_are_accurate_to_25_percent() {
+        final long[] samples = {8, 9, 100, 1000, 1023, 1024, 1025, 999999, 1000000, 123456789L, 1L << 40, Long.MAX_VALUE};
+
+        for (long nanos : samples) {
+            final long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(nanos));
+
+            assertTrue(nanos + " is above its bucket's upper bound " + upperBound, upperBound >= nanos);
+            assertTrue(nanos + " has a bucket that is too wide: " + upperBound, upperBound - nanos <= nanos / 4);
+        }
+    }
+
+    @Test
+    public void buckets_are_monotonic() {
+        int previousBucket = 0;
+
+        for (long nanos = 1; nanos > 0 && nanos < Long.MAX_VALUE / 3; nanos = nanos * 3 / 2 + 1) {
+            final int bucket = LatencyHistogram.bucketOf(nanos);
+
+            assertTrue(bucket >= previousBucket);
+
+            previousBucket = bucket;
+        }
+    }
+
+    @Test
+    public void percentiles_are_bucket_upper_bounds_capped_by_max() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000);
+        }
+
+        histogram.record(1000000);
+
+        assertEquals(100, histogram.getCount());
+        //1000 falls into the bucket [896, 1023]
+        assertEquals(1023, histogram.getPercentileNanos(50));
+        assertEquals(1023, histogram.getPercentileNanos(99));
+        assertEquals(1000000, histogram.getPercentileNanos(100));
+        assertEquals(1.0, histogram.getMaxMillis(), 0);
+        assertEquals((99 * 1000 + 1000000) / 100 / 1000000d, histogram.getMeanMillis(), 1e-12);
+    }
+
+    @Test
+    public void empty_and_negative_recordings() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileNanos(99));
+        assertEquals(0, histogram.getMeanMillis(), 0);
+
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(100));
+    }
+}
@@ -0,0 +1,187 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.SessionDestroyEvent;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SessionTeardownPipelineTest {
+
+    private SessionTeardownPipeline sessionTeardownPipeline;
+    private VaadinSession vaadinSession;
+
+    @Before
+    public void setup() {
+        sessionTeardownPipeline = new SessionTeardownPipeline();
+        vaadinSession = mock(VaadinSession.class);
+    }
+
+    @Test
+    public void detach_runs_on_the_container_thread_and_release_in_the_background() throws InterruptedException {
+        final Thread containerThread = Thread.currentThread();
+        final CountDownLatch released = new CountDownLatch(1);
+        final Thread[] threads = new Thread[2];
+
+        sessionTeardownPipeline.addParticipant(new SessionTeardownParticipant() {
+            @Override
+            public Runnable detach(VaadinSession session) {
+                threads[0] = Thread.currentThread();
+
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        threads[1] = Thread.currentThread();
+                        released.countDown();
+                    }
+                };
+            }
+        });
+
+        destroySession();
+
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        assertSame(containerThread, threads[0]);
+        assertNotSame(containerThread, threads[1]);
+    }
+
+    @Test
+    public void backlog_grows_while_releases_are_pending() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+
+        sessionTeardownPipeline.addParticipant(new SessionTeardownParticipant() {
+            @Override
+            public Runnable detach(VaadinSession session) {
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            blocker.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+            }
+        });
+
+        for (int i = 0; i < 100; i++) {
+            destroySession();
+        }
+
+        assertTrue(sessionTeardownPipeline.getBacklog() > 0);
+
+        blocker.countDown();
+        sessionTeardownPipeline.shutdown();
+
+        while (sessionTeardownPipeline.getBacklog() > 0) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(100, sessionTeardownPipeline.getCompletedTeardowns());
+        assertEquals(100, sessionTeardownPipeline.getTeardownLatency().getCount());
+    }
+
+    @Test
+    public void failing_releases_do_not_stop_the_others() throws InterruptedException {
+        final CountDownLatch released = new CountDownLatch(1);
+
+        sessionTeardownPipeline.addParticipant(new SessionTeardownParticipant() {
+            @Override
+            public Runnable detach(VaadinSession session) {
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        throw new IllegalStateException();
+                    }
+                };
+            }
+        });
+
+        sessionTeardownPipeline.addParticipant(new SessionTeardownParticipant() {
+            @Override
+            public Runnable detach(VaadinSession session) {
+                return new Runnable() {
+                    @Override
+                    public void run() {
+                        released.countDown();
+                    }
+                };
+            }
+        });
+
+        destroySession();
+
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void pre_destroy_methods_are_called_once_per_object() {
+        final Disposable disposable = new Disposable();
+
+        PreDestroyCallbacks.invoke(Arrays.<Object>asList(disposable, disposable, new Object()));
+
+        assertEquals(1, disposable.disposed);
+    }
+
+    @Test
+    public void overridden_pre_destroy_methods_are_not_called() {
+        final NotDisposable notDisposable = new NotDisposable();
+
+        PreDestroyCallbacks.invoke(Arrays.<Object>asList(notDisposable));
+
+        assertEquals(0, notDisposable.disposed);
+    }
+
+    @Test
+    public void pre_destroy_methods_of_destroyed_sessions_see_the_session_as_current() {
+        final SessionAware sessionAware = new SessionAware();
+
+        PreDestroyCallbacks.invoke(Arrays.<Object>asList(sessionAware), vaadinSession);
+
+        assertSame(vaadinSession, sessionAware.currentSession);
+        assertNull(VaadinSession.getCurrent());
+    }
+
+    private void destroySession() {
+        sessionTeardownPipeline.sessionDestroy(new SessionDestroyEvent(mock(VaadinService.class), vaadinSession));
+    }
+
+    public static class Disposable {
+        int disposed;
+
+        @PreDestroy
+        void dispose() {
+            disposed++;
+        }
+    }
+
+    public static class SessionAware {
+        VaadinSession currentSession;
+
+        @PreDestroy
+        void dispose() {
+            currentSession = VaadinSession.getCurrent();
+        }
+    }
+
+    public static class NotDisposable extends Disposable {
+        @Override
+        void dispose() {
+        }
+    }
+}
@@ -2,8 +2,14 @@ package com.vaadin.guice.server;
 
 import com.google.inject.Provider;
 
+import com.vaadin.guice.testClasses.HistoryUI;
+import com.vaadin.guice.testClasses.ShallowHistoryUI;
+import com.vaadin.guice.testClasses.UncachedReportView;
+import com.vaadin.navigator.Navigator;
 import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
 import com.vaadin.server.ServiceException;
+import com.vaadin.server.SessionInitEvent;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
@@ -15,25 +21,33 @@ import org.reflections.Reflections;
 import java.lang.reflect.InvocationTargetException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class ViewProviderTest {
 
     private GuiceViewProvider viewProvider;
+    private GuiceVaadin guiceVaadin;
+    private Provider<VaadinSession> vaadinSessionProvider;
+    private Provider<UI> currentUIProvider;
 
     @Before
     @SuppressWarnings("unckecked")
     public void setup() throws NoSuchFieldException, IllegalAccessException, InvocationTargetException, InstantiationException {
 
-        Provider<VaadinSession> vaadinSessionProvider = (Provider<VaadinSession>) mock(Provider.class);
-        Provider<UI> currentUIProvider = (Provider<UI>) mock(Provider.class);
+        vaadinSessionProvider = (Provider<VaadinSession>) mock(Provider.class);
+        currentUIProvider = (Provider<UI>) mock(Provider.class);
         Provider<View> currentViewProvider = (Provider<View>) mock(Provider.class);
         Provider<VaadinService> vaadinServiceProvider = (Provider<VaadinService>) mock(Provider.class);
 
         Reflections reflections = new Reflections("com.vaadin.guice.testClasses");
 
-        final GuiceVaadin guiceVaadin = new GuiceVaadin(
+        guiceVaadin = new GuiceVaadin(
                 vaadinSessionProvider,
                 currentUIProvider,
                 currentViewProvider,
@@ -54,4 +68,88 @@ public class ViewProviderTest {
         assertNull(viewProvider.getViewName("viewc"));
     }
 
+    @Test
+    public void uncached_view_is_released_after_the_navigation_away_from_it() throws ServiceException {
+        openUI();
+
+        final UncachedReportView first = (UncachedReportView) viewProvider.getView("report");
+        viewProvider.afterViewChange(viewChange(null, first));
+
+        final UncachedReportView second = (UncachedReportView) viewProvider.getView("report");
+
+        assertNotSame(first, second);
+
+        //the navigation to the second instance is not confirmed yet, so the first one is still displayed
+        assertFalse(first.isDestroyed());
+
+        viewProvider.afterViewChange(viewChange(first, second));
+
+        assertTrue(first.isDestroyed());
+        assertFalse(second.isDestroyed());
+    }
+
+    @Test
+    public void rejected_navigation_keeps_the_displayed_uncached_view() throws ServiceException {
+        openUI();
+
+        final UncachedReportView displayed = (UncachedReportView) viewProvider.getView("report");
+        viewProvider.afterViewChange(viewChange(null, displayed));
+
+        //a ViewChangeListener rejects this navigation, so afterViewChange is never called for it
+        final UncachedReportView rejected = (UncachedReportView) viewProvider.getView("report");
+
+        assertFalse(displayed.isDestroyed());
+
+        final View viewA = viewProvider.getView("viewa");
+        viewProvider.afterViewChange(viewChange(displayed, viewA));
+
+        assertTrue(displayed.isDestroyed());
+        assertTrue(rejected.isDestroyed());
+        assertSame(viewA, viewProvider.getView("viewa"));
+    }
+
+    @Test
+    public void rejected_navigation_keeps_the_displayed_view_in_a_shallow_history() throws ServiceException {
+        openUI(ShallowHistoryUI.class);
+
+        final View displayed = viewProvider.getView("viewa");
+        viewProvider.afterViewChange(viewChange(null, displayed));
+
+        //a ViewChangeListener rejects this navigation, so afterViewChange is never called for it
+        final View rejected = viewProvider.getView("viewb");
+
+        assertSame(displayed, viewProvider.getView("viewa"));
+
+        //the navigation to viewb is confirmed, so viewa exceeds the history
+        assertSame(rejected, viewProvider.getView("viewb"));
+        viewProvider.afterViewChange(viewChange(displayed, rejected));
+
+        assertNotSame(displayed, viewProvider.getView("viewa"));
+    }
+
+    private void openUI() throws ServiceException {
+        openUI(HistoryUI.class);
+    }
+
+    private void openUI(Class<? extends UI> uiClass) throws ServiceException {
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final SessionInitEvent sessionInitEvent = mock(SessionInitEvent.class);
+
+        when(vaadinSessionProvider.get()).thenReturn(vaadinSession);
+        when(sessionInitEvent.getSession()).thenReturn(vaadinSession);
+
+        guiceVaadin.getUiScoper().sessionInit(sessionInitEvent);
+        guiceVaadin.getViewScoper().sessionInit(sessionInitEvent);
+        viewProvider.sessionInit(sessionInitEvent);
+
+        guiceVaadin.getUiScoper().startInitialization();
+        final UI ui = guiceVaadin.assemble(uiClass);
+        guiceVaadin.getUiScoper().endInitialization(ui);
+
+        when(currentUIProvider.get()).thenReturn(ui);
+    }
+
+    private ViewChangeEvent viewChange(View oldView, View newView) {
+        return new ViewChangeEvent(mock(Navigator.class), oldView, newView, "", "");
+    }
 }
@@ -0,0 +1,15 @@
+package com.vaadin.guice.testClasses;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI(path = "/shallow", viewHistoryDepth = 1)
+public class ShallowHistoryUI extends UI {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
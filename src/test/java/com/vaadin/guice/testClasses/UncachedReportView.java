@@ -0,0 +1,30 @@
+package com.vaadin.guice.testClasses;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.UncachedView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+
+import javax.annotation.PreDestroy;
+
+@GuiceView("report")
+@UncachedView
+public class UncachedReportView implements View {
+
+    private static final long serialVersionUID = 1L;
+
+    private boolean destroyed;
+
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+
+    @PreDestroy
+    void destroy() {
+        destroyed = true;
+    }
+
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+}